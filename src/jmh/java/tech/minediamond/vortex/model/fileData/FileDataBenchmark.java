@@ -0,0 +1,97 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package tech.minediamond.vortex.model.fileData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileData} 的构造和 {@link FileData#getParentPath()} 的基准测试，每次操作处理 200 个结果（一页视口）。
+ * <p>
+ * 运行方式见 {@code tech.minediamond.vortex.service.search.ResultDecodeBenchmark}。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileDataBenchmark {
+
+    private static final int ROWS = 200;
+
+    private final String[] fullPaths = new String[ROWS];
+    private final String[] fileNames = new String[ROWS];
+    private final FileData[] files = new FileData[ROWS];
+    private final FileData[] folders = new FileData[ROWS];
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < ROWS; i++) {
+            fileNames[i] = "report_" + i + ".pdf";
+            fullPaths[i] = "C:\\Users\\vortex\\Documents\\project_" + (i % 10) + "\\" + fileNames[i];
+            files[i] = new FileData(FileType.FILE, fileNames[i], "pdf", fullPaths[i], i * 1024L, null, null);
+            folders[i] = new FileData(FileType.FOLDER, "project_" + i, null, "C:\\Users\\vortex\\project_" + i, 0, null, null);
+        }
+    }
+
+    @Benchmark
+    public void constructWithSetters(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            FileData fileData = new FileData();
+            fileData.setFullPath(fullPaths[i]);
+            fileData.setFileName(fileNames[i]);
+            fileData.setSize(i);
+            fileData.setType(FileType.FILE);
+            blackhole.consume(fileData);
+        }
+    }
+
+    @Benchmark
+    public void constructWithConstructor(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(new FileData(FileType.FILE, fileNames[i], "pdf", fullPaths[i], i, null, null));
+        }
+    }
+
+    @Benchmark
+    public void parentPathOfFiles(Blackhole blackhole) {
+        for (FileData file : files) {
+            blackhole.consume(file.getParentPath());
+        }
+    }
+
+    @Benchmark
+    public void parentPathOfFolders(Blackhole blackhole) {
+        for (FileData folder : folders) {
+            blackhole.consume(folder.getParentPath());
+        }
+    }
+}
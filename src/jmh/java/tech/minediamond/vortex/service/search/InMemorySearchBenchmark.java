@@ -0,0 +1,90 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package tech.minediamond.vortex.service.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.ResultPage;
+import tech.minediamond.vortex.model.search.SearchMode;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 {@link InMemorySearchBackend} 代替 Everything，测量不依赖原生库的查询链路：
+ * 直接分页查询、经过 {@link ResultPager} 取首屏结果，以及经过 {@link CachingSearchBackend} 的缓存命中。
+ * <p>
+ * 运行方式见 {@link ResultDecodeBenchmark}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class InMemorySearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int corpusSize;
+
+    /**
+     * 名称查询和包含路径分隔符的路径查询
+     */
+    @Param({"report", "project\\ pdf"})
+    public String keyword;
+
+    private InMemorySearchBackend backend;
+    private CachingSearchBackend cachingBackend;
+    private EverythingQuery query;
+
+    @Setup
+    public void setup() {
+        backend = new InMemorySearchBackend(corpusSize, InMemorySearchBackend.DEFAULT_SEED);
+        cachingBackend = new CachingSearchBackend(backend);
+        query = new EverythingQuery(keyword, Optional.of(SearchMode.ALL), Optional.empty());
+        cachingBackend.queryPage(query, 0, SearchBackend.DEFAULT_VIEWPORT_COUNT);
+    }
+
+    @Benchmark
+    public ResultPage viewportPage() {
+        return backend.queryPage(query, 0, SearchBackend.DEFAULT_VIEWPORT_COUNT);
+    }
+
+    @Benchmark
+    public List<FileData> firstScreenful() {
+        return new ResultPager(backend, query).next();
+    }
+
+    @Benchmark
+    public ResultPage cachedViewportPage() {
+        return cachingBackend.queryPage(query, 0, SearchBackend.DEFAULT_VIEWPORT_COUNT);
+    }
+}
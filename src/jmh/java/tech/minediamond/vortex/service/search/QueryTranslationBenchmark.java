@@ -0,0 +1,87 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package tech.minediamond.vortex.service.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.SearchMode;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EverythingQueryTranslator} 的基准测试：保留字符的正则替换和 {@code ancestor:} 路径拼接。
+ * <p>
+ * 运行方式见 {@link ResultDecodeBenchmark}。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryTranslationBenchmark {
+
+    /**
+     * 搜索关键词，分别为普通关键词、含保留字符的关键词和较长的多关键词输入
+     */
+    @Param({"report", "*.pdf|\"draft?\"", "quarterly budget review 2025 final version"})
+    public String keyword;
+
+    /**
+     * 目标文件夹数量
+     */
+    @Param({"0", "3", "20"})
+    public int folderCount;
+
+    private EverythingQuery query;
+
+    @Setup
+    public void setup() {
+        List<Path> folders = new ArrayList<>();
+        for (int i = 0; i < folderCount; i++) {
+            folders.add(Path.of("C:\\Users\\vortex\\Documents\\project_" + i));
+        }
+        query = new EverythingQuery(keyword, Optional.of(SearchMode.FILES_ONLY),
+                folderCount == 0 ? Optional.empty() : Optional.of(folders));
+    }
+
+    @Benchmark
+    public String buildQueryString() {
+        return EverythingQueryTranslator.buildQueryString(query);
+    }
+
+    @Benchmark
+    public String stripForbiddenChars() {
+        return EverythingQueryTranslator.stripForbiddenChars(keyword);
+    }
+}
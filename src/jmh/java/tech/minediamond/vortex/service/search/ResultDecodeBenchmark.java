@@ -0,0 +1,158 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import com.sun.jna.Library;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.SearchMode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比逐行解码搜索结果的两种方式：
+ * <ul>
+ *     <li>{@link #interfaceMapping()} - 原来的方式，接口映射 + 32767 长度的 {@code char[]} 缓冲区 + {@link Native#toString(char[])}，文件名单独读取一次</li>
+ *     <li>{@link #directMapping()} - {@link ResultDecoder} 的方式，直接映射 + 复用的原生缓冲区 + {@link java.nio.CharBuffer} 视图，文件名由完整路径得出</li>
+ * </ul>
+ * 由于 Everything3 只能在 Windows 上加载，这里用 C 运行库的 {@code memcpy} 代替
+ * {@code Everything3_GetResultPropertyTextW} 把 UTF-16 文本写入缓冲区，两种方式的参数传递和缓冲区处理与实际代码一致。
+ * 结果数据来自 {@link InMemorySearchBackend} 的合成语料。
+ * <p>
+ * 运行方式：{@code mvn -P benchmarks package}，然后
+ * {@code java -cp target/Vortex-<version>.jar org.openjdk.jmh.Main ResultDecodeBenchmark -prof gc}，
+ * {@code -prof gc} 输出的 {@code gc.alloc.rate.norm} 即每次解码 {@link #rows} 行分配的字节数。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultDecodeBenchmark {
+
+    /**
+     * 接口映射，参数和原来 EverythingService 中的 char[] 缓冲区一样由 JNA 在每次调用时复制
+     */
+    public interface CLibrary extends Library {
+        CLibrary INSTANCE = Native.load(Platform.C_LIBRARY_NAME, CLibrary.class);
+
+        Pointer memcpy(char[] dst, Pointer src, long size);
+    }
+
+    /**
+     * 直接映射，参数都是基本类型或 Pointer
+     */
+    static final class CDirect {
+        static {
+            Native.register(Platform.C_LIBRARY_NAME);
+        }
+
+        static native Pointer memcpy(Pointer dst, Pointer src, long size);
+    }
+
+    /**
+     * 每次解码的行数，与每次按键查询的最大结果数一致
+     */
+    @Param({"200"})
+    public int rows;
+
+    private Pointer[] fullPaths;
+    private Pointer[] fileNames;
+    private int[] fullPathLengths;
+    private int[] fileNameLengths;
+
+    private final char[] legacyBuffer = new char[ResultDecoder.CAPACITY_IN_CHARS];
+    private final ResultDecoder decoder = new ResultDecoder();
+
+    @Setup
+    public void setup() {
+        InMemorySearchBackend backend = new InMemorySearchBackend(100_000, InMemorySearchBackend.DEFAULT_SEED);
+        List<FileData> results = backend.queryPage(
+                new EverythingQuery("e", Optional.of(SearchMode.ALL), Optional.empty()), 0, rows).results();
+        int count = results.size();
+        fullPaths = new Pointer[count];
+        fileNames = new Pointer[count];
+        fullPathLengths = new int[count];
+        fileNameLengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            fullPaths[i] = toUtf16(results.get(i).getFullPath());
+            fullPathLengths[i] = results.get(i).getFullPath().length();
+            fileNames[i] = toUtf16(results.get(i).getFileName());
+            fileNameLengths[i] = results.get(i).getFileName().length();
+        }
+    }
+
+    @Benchmark
+    public List<FileData> interfaceMapping() {
+        List<FileData> results = new ArrayList<>(fullPaths.length);
+        for (int i = 0; i < fullPaths.length; i++) {
+            FileData fileData = new FileData();
+            CLibrary.INSTANCE.memcpy(legacyBuffer, fullPaths[i], (fullPathLengths[i] + 1) * 2L);
+            fileData.setFullPath(Native.toString(legacyBuffer));
+            CLibrary.INSTANCE.memcpy(legacyBuffer, fileNames[i], (fileNameLengths[i] + 1) * 2L);
+            fileData.setFileName(Native.toString(legacyBuffer));
+            results.add(fileData);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<FileData> directMapping() {
+        List<FileData> results = new ArrayList<>(fullPaths.length);
+        for (int i = 0; i < fullPaths.length; i++) {
+            FileData fileData = new FileData();
+            CDirect.memcpy(decoder.buffer(), fullPaths[i], (fullPathLengths[i] + 1) * 2L);
+            String fullPath = decoder.decode(fullPathLengths[i]);
+            fileData.setFullPath(fullPath);
+            fileData.setFileName(ResultDecoder.fileNameOf(fullPath));
+            results.add(fileData);
+        }
+        return results;
+    }
+
+    // 以 UTF-16LE 写入原生内存，末尾带 NUL，模拟 Everything 返回的文本
+    private static Pointer toUtf16(String text) {
+        Memory memory = new Memory((text.length() + 1) * 2L);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_16LE);
+        memory.write(0, bytes, 0, bytes.length);
+        memory.setShort(bytes.length, (short) 0);
+        return memory;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package tech.minediamond.vortex.ui.component;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 向装好皮肤的 {@link ComponentList} 中添加 200 ~ 5000 个节点的基准测试，
+ * 覆盖 {@code MappedList} 包装 StackPane、{@code Bindings.bindContent} 同步到 VBox 以及首尾伪类的更新。
+ * <p>
+ * 控件需要 JavaFX 平台，这里通过 Monocle 的 Headless 平台启动，因此可以在没有显示器的 Linux 上运行。
+ * 节点的创建不计入耗时，只测量添加。
+ * <p>
+ * 运行方式见 {@code tech.minediamond.vortex.service.search.ResultDecodeBenchmark}。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(value = 1, jvmArgsAppend = {"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class ComponentListBenchmark {
+
+    @Param({"200", "1000", "5000"})
+    public int nodeCount;
+
+    private List<Node> nodes;
+    private ComponentList componentList;
+
+    @Setup(Level.Trial)
+    public void startPlatform() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+        } catch (IllegalStateException e) {//平台已启动
+            latch.countDown();
+        }
+        latch.await();
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(new Label("result " + i));
+        }
+        componentList = new ComponentList();
+        componentList.setSkin(componentList.createDefaultSkin());
+    }
+
+    @Benchmark
+    public ComponentList addOneByOne() {
+        for (Node node : nodes) {
+            componentList.addNode(node);
+        }
+        return componentList;
+    }
+
+    @Benchmark
+    public ComponentList addAll() {
+        componentList.getContent().addAll(nodes);
+        return componentList;
+    }
+}
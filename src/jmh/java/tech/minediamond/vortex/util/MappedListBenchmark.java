@@ -0,0 +1,122 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package tech.minediamond.vortex.util;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MappedList#sourceChanged} 在大量变化下的基准测试：逐个添加、整体替换、逐个替换和排序（置换）。
+ * <p>
+ * 映射后的列表上挂了一个监听器，与 {@code ComponentList} 中 {@code Bindings.bindContent} 的用法一致，
+ * 保证每次变化都会被完整地构建和分发。不涉及 JavaFX 控件，无需启动 JavaFX 平台。
+ * <p>
+ * 列表只在每轮迭代开始时构建一次：单次操作只有几微秒，按调用构建会引入 JMH 所说的计时误差。
+ * 每个操作执行后列表的长度不变（逐个添加之后用一次范围删除恢复），因此可以在同一个列表上反复执行。
+ * 映射后的列表保存在字段中：{@code TransformationList} 通过弱引用监听源列表，只保存在局部变量中时可能在测量中途被回收，
+ * 之后的变化就不再经过 {@link MappedList#sourceChanged}。
+ * <p>
+ * 运行方式见 {@code tech.minediamond.vortex.service.search.ResultDecodeBenchmark}。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedListBenchmark {
+
+    @Param({"200", "5000"})
+    public int size;
+
+    private ObservableList<Integer> source;
+    private ObservableList<String> mapped;
+    private List<Integer> replacement;
+    private List<Integer> original;
+    private boolean replaced;
+    private long changeCount;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        source = FXCollections.observableArrayList();
+        for (int i = 0; i < size; i++) {
+            source.add(size - i);
+        }
+        original = new ArrayList<>(source);
+        replacement = new ArrayList<>(source);
+        replacement.replaceAll(i -> i + 1);
+        replaced = false;
+        mapped = new MappedList<>(source, i -> "item-" + i);
+        mapped.addListener((ListChangeListener<String>) change -> {
+            while (change.next()) {
+                changeCount++;
+            }
+        });
+    }
+
+    @Benchmark
+    public long addStorm() {
+        for (int i = 0; i < size; i++) {
+            source.add(i);
+        }
+        source.remove(size, 2 * size);//一次范围删除，恢复原来的长度
+        return changeCount;
+    }
+
+    @Benchmark
+    public long replaceAll() {
+        // 交替替换为两份不同的内容，每次都是一次真正的整体替换
+        replaced = !replaced;
+        source.setAll(replaced ? replacement : original);
+        return changeCount;
+    }
+
+    @Benchmark
+    public long replaceStorm() {
+        for (int i = 0; i < size; i++) {
+            source.set(i, -i);
+        }
+        return changeCount;
+    }
+
+    @Benchmark
+    public long permutationStorm() {
+        FXCollections.sort(source);
+        FXCollections.sort(source, Comparator.reverseOrder());
+        return changeCount;
+    }
+}
@@ -35,8 +35,10 @@ import tech.minediamond.vortex.bootstrap.EnvironmentChecker;
 import tech.minediamond.vortex.bootstrap.SingleInstanceSocketManager;
 import tech.minediamond.vortex.config.AppModule;
 import tech.minediamond.vortex.service.appConfig.AppConfigService;
+import tech.minediamond.vortex.service.database.SqliteStore;
+import tech.minediamond.vortex.service.frecency.FrecencyStore;
 import tech.minediamond.vortex.service.i18n.I18nService;
-import tech.minediamond.vortex.service.search.EverythingService;
+import tech.minediamond.vortex.service.search.SearchBackend;
 import tech.minediamond.vortex.service.ui.StageProvider;
 import tech.minediamond.vortex.service.ui.ThemeService;
 import tech.minediamond.vortex.service.ui.TrayMenuService;
@@ -147,7 +149,9 @@ public class Main extends Application {
             runSafely("保存配置文件",()-> injector.getInstance(AppConfigService.class).save());
             runSafely("注销JNativeHook", GlobalScreen::unregisterNativeHook);
             runSafely("注销FXTrayIcon",()-> trayMenuService.closeTrayMenu());
-            runSafely("退出Everything",()-> injector.getInstance(EverythingService.class).stopEverythingInstance());
+            runSafely("关闭搜索后端",()-> injector.getInstance(SearchBackend.class).shutdown());
+            runSafely("保存使用记录",()-> injector.getInstance(FrecencyStore.class).shutdown());
+            runSafely("关闭数据库",()-> injector.getInstance(SqliteStore.class).close());
 
         }
 
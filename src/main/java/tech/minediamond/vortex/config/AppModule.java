@@ -32,6 +32,8 @@ import tech.minediamond.vortex.service.ui.ShowStageListenerFactory;
 import tech.minediamond.vortex.service.autoStart.IAutoStartService;
 import tech.minediamond.vortex.service.i18n.I18nService;
 import tech.minediamond.vortex.service.search.EverythingService;
+import tech.minediamond.vortex.service.search.InMemorySearchBackend;
+import tech.minediamond.vortex.service.search.SearchBackend;
 import tech.minediamond.vortex.service.ui.AutoOperateService;
 import tech.minediamond.vortex.service.ui.StageProvider;
 import tech.minediamond.vortex.service.ui.TrayMenuService;
@@ -44,6 +46,10 @@ import tech.minediamond.vortex.ui.controller.SettingPanel;
 import tech.minediamond.vortex.util.EnvironmentDetector;
 
 public class AppModule extends AbstractModule {
+
+    //选择搜索后端的系统属性，默认使用Everything
+    public static final String SEARCH_BACKEND_PROPERTY = "vortex.search.backend";
+
     @Override
     protected void configure() {
         bind(AppConfig.class).toProvider(AppConfigProvider.class).in(Scopes.SINGLETON);
@@ -52,7 +58,12 @@ public class AppModule extends AbstractModule {
         bind(StageProvider.class).in(Scopes.SINGLETON);
         bind(AutoOperateService.class).in(Scopes.SINGLETON);
         bind(I18nService.class);
-        bind(EverythingService.class).asEagerSingleton();
+        if (InMemorySearchBackend.BACKEND_NAME.equals(System.getProperty(SEARCH_BACKEND_PROPERTY))) {//用于在非Windows环境下测试搜索链路
+            bind(SearchBackend.class).to(InMemorySearchBackend.class).in(Scopes.SINGLETON);
+        } else {
+            bind(SearchBackend.class).to(EverythingService.class);
+            bind(EverythingService.class).asEagerSingleton();
+        }
         bind(GlobalUncaughtExceptionHandlerService.class).in(Scopes.SINGLETON);
 
 
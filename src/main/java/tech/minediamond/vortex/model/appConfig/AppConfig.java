@@ -21,8 +21,10 @@ package tech.minediamond.vortex.model.appConfig;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import tech.minediamond.vortex.model.i18n.SupportedLocales;
 import tech.minediamond.vortex.model.ui.Theme;
@@ -37,6 +39,9 @@ public class AppConfig {
     private BooleanProperty ifCenterOnScreen = new SimpleBooleanProperty(true);
     private ObjectProperty<SupportedLocales> userLocales = new SimpleObjectProperty<>(SupportedLocales.AUTO);
     private BooleanProperty autoStartEnabledProperty = new SimpleBooleanProperty(true);
+    // 搜索防抖延迟的上下限（毫秒），实际延迟由 AdaptiveDebounce 根据后端耗时和按键间隔在此范围内调整
+    private IntegerProperty searchDebounceMinMillis = new SimpleIntegerProperty(0);
+    private IntegerProperty searchDebounceMaxMillis = new SimpleIntegerProperty(300);
 
     public AppConfig(){}
 
@@ -47,6 +52,8 @@ public class AppConfig {
     public BooleanProperty ifCenterOnScreenProperty() { return ifCenterOnScreen; }
     public ObjectProperty<SupportedLocales> userLocalesProperty() { return userLocales; }
     public BooleanProperty autoStartEnabledProperty() { return autoStartEnabledProperty; }
+    public IntegerProperty searchDebounceMinMillisProperty() { return searchDebounceMinMillis; }
+    public IntegerProperty searchDebounceMaxMillisProperty() { return searchDebounceMaxMillis; }
 
     public void setShowLineNum(boolean showLineNum) {this.showLineNum.set(showLineNum);}
     public boolean getShowLineNum() {return showLineNum.get();}
@@ -70,4 +77,10 @@ public class AppConfig {
 
     public void setAutoStartEnabledProperty(boolean autoStartEnabledProperty) {this.autoStartEnabledProperty.set(autoStartEnabledProperty);}
     public boolean getAutoStartEnabledProperty() {return autoStartEnabledProperty.get();}
+
+    public void setSearchDebounceMinMillis(int searchDebounceMinMillis) {this.searchDebounceMinMillis.set(searchDebounceMinMillis);}
+    public int getSearchDebounceMinMillis() {return searchDebounceMinMillis.get();}
+
+    public void setSearchDebounceMaxMillis(int searchDebounceMaxMillis) {this.searchDebounceMaxMillis.set(searchDebounceMaxMillis);}
+    public int getSearchDebounceMaxMillis() {return searchDebounceMaxMillis.get();}
 }
@@ -57,6 +57,7 @@ public class FileData {
         return switch (type){
             case FILE-> fullPath.substring(0, fullPath.lastIndexOf('\\'));
             case FOLDER-> fullPath;
+            case PROGRAM-> fullPath.lastIndexOf('\\') > 0 ? fullPath.substring(0, fullPath.lastIndexOf('\\')) : fullPath;
         };
     }
 
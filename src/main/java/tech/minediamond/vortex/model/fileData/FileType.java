@@ -21,6 +21,8 @@ package tech.minediamond.vortex.model.fileData;
 
 public enum FileType {
     FILE,
-    FOLDER
+    FOLDER,
+    //已安装的程序，见 ProgramResult
+    PROGRAM
 }
 
@@ -0,0 +1,47 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.model.program;
+
+import lombok.Getter;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.fileData.FileType;
+
+/**
+ * 作为搜索结果的已安装程序。
+ * <p>
+ * 继承 {@link FileData} 以便和文件结果放在同一个结果列表中显示，类型为 {@link FileType#PROGRAM}，
+ * 文件名为程序的显示名称，完整路径为程序的启动目标。
+ */
+@Getter
+public class ProgramResult extends FileData {
+
+    private final ProgramInfo programInfo;
+
+    /**
+     * @param programInfo  程序信息
+     * @param launchTarget 程序的启动目标，见 {@code AppLauncher.launchTargetOf}
+     */
+    public ProgramResult(ProgramInfo programInfo, String launchTarget) {
+        super(FileType.PROGRAM,
+                programInfo.getDisplayName() != null ? programInfo.getDisplayName() : programInfo.getBaseName(),
+                "", launchTarget, 0, null, null);
+        this.programInfo = programInfo;
+    }
+}
@@ -20,5 +20,5 @@
 package tech.minediamond.vortex.model.program;
 
 public enum ProgramSource {
-    UWP,REGISTRY
+    UWP,REGISTRY,SHORTCUT
 }
@@ -20,14 +20,14 @@
 package tech.minediamond.vortex.model.search;
 
 import tech.minediamond.vortex.service.search.EverythingQueryBuilder;
-import tech.minediamond.vortex.service.search.EverythingService;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
- * 作为{@link EverythingService#query(EverythingQuery)}的传入参数，由 {@link EverythingQueryBuilder}构造
+ * 作为{@link tech.minediamond.vortex.service.search.SearchBackend#queryPage(EverythingQuery, int, int)}的传入参数，由 {@link EverythingQueryBuilder}构造
  *
  * @param query 搜索关键词
  * @param searchMode 搜索模式（文件/文件夹/全部）
@@ -38,4 +38,24 @@ public record EverythingQuery(
         Optional<SearchMode> searchMode,
         Optional<List<Path>> targetFolders) {
 
+    /**
+     * 返回规范化后的查询，作为缓存等场景的键使用：语义相同的查询规范化后相等。
+     * <ul>
+     *     <li>关键词去除首尾空白，连续空白合并为一个空格，并转为小写（Everything 默认不区分大小写）</li>
+     *     <li>未指定搜索模式视为 {@link SearchMode#ALL}</li>
+     *     <li>目标文件夹规范化路径后去重并排序</li>
+     * </ul>
+     *
+     * @return 规范化后的查询
+     */
+    public EverythingQuery normalized() {
+        String normalizedQuery = query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        Optional<SearchMode> normalizedMode = Optional.of(searchMode.orElse(SearchMode.ALL));
+        Optional<List<Path>> normalizedFolders = targetFolders.map(folders -> folders.stream()
+                .map(Path::normalize)
+                .distinct()
+                .sorted()
+                .toList());
+        return new EverythingQuery(normalizedQuery, normalizedMode, normalizedFolders);
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.model.search;
+
+import tech.minediamond.vortex.model.fileData.FileData;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一次分页查询返回的结果，对应 Everything 搜索视口（viewport）中的一段。
+ *
+ * @param results    本页的结果
+ * @param offset     本页第一个结果在全部结果中的位置
+ * @param totalCount 查询命中的结果总数
+ */
+public record ResultPage(
+        List<FileData> results,
+        int offset,
+        long totalCount) {
+
+    public static ResultPage empty(int offset) {
+        return new ResultPage(Collections.emptyList(), offset, 0);
+    }
+
+    /**
+     * @return 本页之后是否还有更多结果
+     */
+    public boolean hasMore() {
+        return offset + results.size() < totalCount;
+    }
+}
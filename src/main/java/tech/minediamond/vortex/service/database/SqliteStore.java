@@ -0,0 +1,286 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.database;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本地 SQLite 数据库的唯一入口，保存程序目录和使用记录。
+ * <p>
+ * 整个程序共用一个长期打开的连接，第一次使用时打开并设置：
+ * <ul>
+ *     <li>WAL 日志模式和 {@code synchronous=NORMAL}，写入时不必每次都等待磁盘同步，读取不会被写入阻塞</li>
+ *     <li>{@value #MMAP_SIZE} 字节的内存映射 I/O</li>
+ *     <li>按 {@code PRAGMA user_version} 依次执行 {@link #MIGRATIONS} 中尚未执行的迁移</li>
+ * </ul>
+ * 连接不能被多个线程同时使用，所有访问都要通过 {@link #read(Work)} 或 {@link #transaction(Work)}，它们在同一把锁下执行。
+ * 在其中用 {@link #prepare(String)} 获取的预编译语句会被缓存，之后相同的 SQL 不再重新编译。
+ */
+@Slf4j
+@Singleton
+public class SqliteStore {
+
+    public static final String DB_URL = "jdbc:sqlite:installed_software.db";
+
+    static final long MMAP_SIZE = 64L * 1024 * 1024;
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * 按版本排列的迁移，执行第 i 个迁移后数据库的 user_version 为 i + 1。
+     * 之前的版本没有记录 user_version，但可能已经创建了这些表，因此第一批迁移都使用 IF NOT EXISTS。
+     */
+    private static final String[][] MIGRATIONS = {
+            {
+                    "CREATE TABLE IF NOT EXISTS software (\n"
+                            + "id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
+                            + "baseName TEXT NOT NULL,\n"
+                            + "displayName TEXT,\n"
+                            + "programName TEXT,\n"
+                            + "version TEXT,\n"
+                            + "publisher TEXT,\n"
+                            + "installLocation TEXT,\n"
+                            + "source TEXT,\n"
+                            + "enabled TEXT,\n"
+                            + "path TEXT\n"
+                            + ")",
+                    "CREATE TABLE IF NOT EXISTS frecency (\n"
+                            + "kind TEXT NOT NULL,\n"
+                            + "key TEXT NOT NULL,\n"
+                            + "count REAL NOT NULL,\n"
+                            + "lastAccess INTEGER NOT NULL,\n"
+                            + "PRIMARY KEY (kind, key)\n"
+                            + ")"
+            },
+            {
+                    "CREATE INDEX IF NOT EXISTS software_key ON software(displayName, installLocation)",
+                    "CREATE INDEX IF NOT EXISTS software_program_name ON software(programName)"
+            },
+            {
+                    // 快捷方式解析结果的缓存，target 为 NULL 表示该快捷方式已解析过但不指向程序
+                    "CREATE TABLE IF NOT EXISTS shortcut (\n"
+                            + "path TEXT PRIMARY KEY,\n"
+                            + "mtime INTEGER NOT NULL,\n"
+                            + "size INTEGER NOT NULL,\n"
+                            + "target TEXT\n"
+                            + ")"
+            },
+            {
+                    // 每种程序来源上次扫描时的变化标记
+                    "CREATE TABLE IF NOT EXISTS program_source (\n"
+                            + "source TEXT PRIMARY KEY,\n"
+                            + "token TEXT NOT NULL\n"
+                            + ")"
+            },
+            {
+                    // 程序表的代数，每次修改程序表时加一，用于判断程序目录快照是否过期
+                    "CREATE TABLE IF NOT EXISTS catalog_generation (\n"
+                            + "id INTEGER PRIMARY KEY CHECK (id = 0),\n"
+                            + "generation INTEGER NOT NULL\n"
+                            + ")",
+                    "INSERT OR IGNORE INTO catalog_generation(id, generation) VALUES (0, 0)"
+            }
+    };
+
+    private final String url;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private Connection connection;
+    private boolean closed = false;
+
+    @Inject
+    public SqliteStore() {
+        this(DB_URL);
+    }
+
+    /**
+     * 使用指定的数据库，测试时可以传入临时文件的地址。
+     *
+     * @param url JDBC 连接地址
+     */
+    public SqliteStore(String url) {
+        this.url = url;
+    }
+
+    /**
+     * 在数据库连接上执行的操作
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * 在自动提交模式下执行一组读取或单条写入。
+     *
+     * @param work 要执行的操作，不能关闭传入的连接
+     * @return 操作的返回值
+     * @throws SQLException 打开数据库或执行操作失败时抛出
+     */
+    public <T> T read(Work<T> work) throws SQLException {
+        lock.lock();
+        try {
+            return work.run(connection());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在一个事务中执行操作，操作正常返回时提交，抛出异常时回滚。
+     *
+     * @param work 要执行的操作，不能关闭传入的连接
+     * @return 操作的返回值
+     * @throws SQLException 打开数据库、执行操作或提交失败时抛出
+     */
+    public <T> T transaction(Work<T> work) throws SQLException {
+        lock.lock();
+        try {
+            Connection conn = connection();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取缓存的预编译语句，只能在 {@link #read(Work)} 或 {@link #transaction(Work)} 中调用。
+     * <p>
+     * 返回的语句已清除上次的参数和批处理，调用方应关闭由它得到的 {@link ResultSet}，但不能关闭语句本身。
+     *
+     * @param sql SQL 语句
+     * @return 预编译语句
+     * @throws SQLException 编译失败时抛出
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        if (!lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("prepare() 只能在 read() 或 transaction() 中调用");
+        }
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection().prepareStatement(sql);
+            statements.put(sql, statement);
+        } else {
+            statement.clearParameters();
+            statement.clearBatch();
+        }
+        return statement;
+    }
+
+    /**
+     * 关闭缓存的语句和连接，在程序退出时调用，之后的访问都会失败。
+     */
+    public void close() throws SQLException {
+        lock.lock();
+        try {
+            closed = true;
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+            statements.clear();
+            if (connection != null) {
+                connection.close();
+                connection = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (closed) {
+            throw new SQLException("数据库已关闭");
+        }
+        if (connection == null) {
+            long start = System.nanoTime();
+            Connection conn = DriverManager.getConnection(url);
+            try {
+                configure(conn);
+                migrate(conn);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+            connection = conn;
+            log.info("数据库已打开，耗时 {} ms", (System.nanoTime() - start) / 1_000_000);
+        }
+        return connection;
+    }
+
+    private static void configure(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA mmap_size = " + MMAP_SIZE);
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+        }
+    }
+
+    private static void migrate(Connection conn) throws SQLException {
+        int version;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        }
+        if (version > MIGRATIONS.length) {
+            log.warn("数据库版本 {} 高于程序支持的版本 {}，可能由更新的版本创建", version, MIGRATIONS.length);
+            return;
+        }
+        for (int i = version; i < MIGRATIONS.length; i++) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : MIGRATIONS[i]) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("PRAGMA user_version = " + (i + 1));
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("数据库迁移到版本 " + (i + 1) + " 失败", e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            log.info("数据库已迁移到版本 {}", i + 1);
+        }
+    }
+}
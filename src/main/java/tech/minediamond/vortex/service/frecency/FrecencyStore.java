@@ -0,0 +1,249 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.frecency;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.service.database.SqliteStore;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录用户打开过的文件和程序，并据此调整搜索结果的排序。
+ * <p>
+ * 每个文件（按完整路径）或程序（按 id）保存一个随时间衰减的使用次数和最后一次使用的时间，
+ * 当前分数为 {@code count * 2^(-(now - lastAccess) / HALF_LIFE)}，每次使用时先衰减再加一。
+ * <p>
+ * 所有记录常驻内存，查询只是一次哈希表查找；修改先在内存中生效，再由后台线程每隔 {@link #FLUSH_INTERVAL_SECONDS} 秒
+ * 在一个事务中批量写入 {@link SqliteStore}，程序退出时调用 {@link #shutdown()} 写入剩余的修改。
+ */
+@Slf4j
+@Singleton
+public class FrecencyStore {
+
+    /**
+     * 使用次数衰减一半所需的时间
+     */
+    public static final long HALF_LIFE_MILLIS = TimeUnit.DAYS.toMillis(7);
+    /**
+     * 批量写入数据库的间隔
+     */
+    public static final long FLUSH_INTERVAL_SECONDS = 5;
+
+    private static final String KIND_FILE = "FILE";
+    private static final String KIND_PROGRAM = "PROGRAM";
+
+    /**
+     * 一个文件或程序的使用记录，{@code count} 是 {@code lastAccess} 时刻的分数
+     */
+    private record Entry(double count, long lastAccess) {
+        double scoreAt(long now) {
+            return count * Math.pow(0.5, (double) Math.max(0, now - lastAccess) / HALF_LIFE_MILLIS);
+        }
+    }
+
+    private final Map<String, Entry> files = new ConcurrentHashMap<>();
+    private final Map<String, Entry> programs = new ConcurrentHashMap<>();
+    // 尚未写入数据库的修改，键为 kind 和 key
+    private final Map<Map.Entry<String, String>, Entry> dirty = new ConcurrentHashMap<>();
+
+    private final SqliteStore store;
+    private final ScheduledExecutorService writer;
+
+    @Inject
+    public FrecencyStore(SqliteStore store) {
+        this.store = store;
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Frecency Writer");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.execute(this::load);
+        writer.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 记录一次对文件的使用（打开或在文件夹中显示）。
+     *
+     * @param file 使用的文件
+     */
+    public void recordFile(FileData file) {
+        record(KIND_FILE, files, file.getFullPath());
+    }
+
+    /**
+     * 记录一次对程序的使用。
+     *
+     * @param programId 程序的 id
+     */
+    public void recordProgram(String programId) {
+        record(KIND_PROGRAM, programs, programId);
+    }
+
+    private void record(String kind, Map<String, Entry> entries, String key) {
+        if (key == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Entry updated = entries.compute(key, (k, old) -> new Entry((old == null ? 0 : old.scoreAt(now)) + 1, now));
+        dirty.put(Map.entry(kind, key), updated);
+    }
+
+    /**
+     * @param file 文件
+     * @return 文件当前的分数，从未使用过时为 0
+     */
+    public double fileScore(FileData file) {
+        Entry entry = files.get(file.getFullPath());
+        return entry == null ? 0 : entry.scoreAt(System.currentTimeMillis());
+    }
+
+    /**
+     * @param programId 程序的 id
+     * @return 程序当前的分数，从未使用过时为 0
+     */
+    public double programScore(String programId) {
+        Entry entry = programs.get(programId);
+        return entry == null ? 0 : entry.scoreAt(System.currentTimeMillis());
+    }
+
+    /**
+     * 按分数重新排列一组搜索结果：使用过的结果按分数从高到低排在最前，其余结果保持原来的顺序。
+     * <p>
+     * 每个结果只做一次哈希表查找，没有任何结果被使用过时直接返回原列表。
+     *
+     * @param results 搜索结果
+     * @return 重新排列后的结果
+     */
+    public List<FileData> rerank(List<FileData> results) {
+        if (files.isEmpty() || results.isEmpty()) {
+            return results;
+        }
+        long now = System.currentTimeMillis();
+        List<FileData> used = null;
+        Map<FileData, Double> scores = null;
+        for (FileData result : results) {
+            Entry entry = files.get(result.getFullPath());
+            if (entry != null) {
+                if (used == null) {
+                    used = new ArrayList<>();
+                    scores = new HashMap<>();
+                }
+                used.add(result);
+                scores.put(result, entry.scoreAt(now));
+            }
+        }
+        if (used == null) {
+            return results;
+        }
+        Map<FileData, Double> finalScores = scores;
+        used.sort(Comparator.comparingDouble((FileData f) -> finalScores.get(f)).reversed());
+
+        List<FileData> reranked = new ArrayList<>(results.size());
+        reranked.addAll(used);
+        for (FileData result : results) {
+            if (!finalScores.containsKey(result)) {
+                reranked.add(result);
+            }
+        }
+        return reranked;
+    }
+
+    /**
+     * 写入剩余的修改并停止后台线程，在程序退出时调用。
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void load() {
+        try {
+            store.read(conn -> {
+                try (ResultSet rs = store.prepare("SELECT kind, key, count, lastAccess FROM frecency").executeQuery()) {
+                    while (rs.next()) {
+                        Entry entry = new Entry(rs.getDouble("count"), rs.getLong("lastAccess"));
+                        Map<String, Entry> entries = KIND_PROGRAM.equals(rs.getString("kind")) ? programs : files;
+                        // 加载期间新增的记录更新，不被旧记录覆盖
+                        entries.putIfAbsent(rs.getString("key"), entry);
+                    }
+                }
+                return null;
+            });
+            log.info("已加载 {} 个文件和 {} 个程序的使用记录", files.size(), programs.size());
+        } catch (SQLException e) {
+            log.error("加载使用记录失败", e);
+        }
+    }
+
+    /**
+     * 在一个事务中写入所有尚未保存的修改。
+     */
+    private synchronized void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Map.Entry<String, String>, Entry>> batch = new ArrayList<>();
+        for (Map.Entry<String, String> key : dirty.keySet()) {
+            Entry entry = dirty.remove(key);
+            if (entry != null) {
+                batch.add(Map.entry(key, entry));
+            }
+        }
+        String sql = "INSERT INTO frecency(kind, key, count, lastAccess) VALUES(?, ?, ?, ?) "
+                + "ON CONFLICT(kind, key) DO UPDATE SET count = excluded.count, lastAccess = excluded.lastAccess";
+        try {
+            store.transaction(conn -> {
+                PreparedStatement pstmt = store.prepare(sql);
+                for (Map.Entry<Map.Entry<String, String>, Entry> item : batch) {
+                    pstmt.setString(1, item.getKey().getKey());
+                    pstmt.setString(2, item.getKey().getValue());
+                    pstmt.setDouble(3, item.getValue().count());
+                    pstmt.setLong(4, item.getValue().lastAccess());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                return null;
+            });
+            log.debug("已保存 {} 条使用记录", batch.size());
+        } catch (SQLException e) {
+            log.error("保存使用记录失败，将在下次重试", e);
+            batch.forEach(item -> dirty.putIfAbsent(item.getKey(), item.getValue()));
+        }
+    }
+}
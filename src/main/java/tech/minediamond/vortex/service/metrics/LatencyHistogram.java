@@ -0,0 +1,131 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 记录耗时分布的对数-线性直方图，思路与 HdrHistogram 相同。
+ * <p>
+ * 小于 {@code 2 * SUB_BUCKET_COUNT} 纳秒的值逐个计数；更大的值按最高位所在的 2 的幂分段，
+ * 每段再均分为 {@code SUB_BUCKET_COUNT} 个桶，因此任何值的相对误差都不超过 1/32（约 3%）。
+ * 超过 {@link #MAX_TRACKABLE_NANOS} 的值记入最后一个桶。
+ * <p>
+ * {@link #record(long)} 只做一次数组下标计算和几次原子累加，不加锁也不分配对象，可以在搜索链路的任何线程中调用。
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * 能够准确记录的最大耗时，约 18 分钟
+     */
+    public static final long MAX_TRACKABLE_NANOS = (1L << 40) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+    /**
+     * 某一时刻直方图的统计结果，耗时单位均为纳秒。
+     */
+    public record Snapshot(long count, long mean, long p50, long p90, long p99, long p999, long max) {
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 记录一次耗时。
+     *
+     * @param nanos 耗时（纳秒），负数按 0 处理
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * 计算当前的统计结果。与 {@link #record(long)} 并发调用时结果可能略有偏差。
+     *
+     * @return 统计结果
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        if (count == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0, 0);
+        }
+        long max = maxNanos.get();
+        return new Snapshot(count, totalNanos.get() / Math.max(totalCount.get(), 1),
+                percentile(copy, count, 0.50, max), percentile(copy, count, 0.90, max),
+                percentile(copy, count, 0.99, max), percentile(copy, count, 0.999, max), max);
+    }
+
+    /**
+     * 清空所有记录。
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.reset();
+    }
+
+    // 返回第一个累计数量达到 quantile 的桶的上界，且不超过记录到的最大值
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        long target = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target && counts[i] > 0) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.metrics;
+
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 搜索链路各阶段的耗时统计，每个 {@link SearchStage} 对应一个 {@link LatencyHistogram}。
+ * <p>
+ * 使用方式：
+ * <pre>
+ * long start = System.nanoTime();
+ * // ... 执行某个阶段
+ * searchMetrics.recordSince(SearchStage.DECODE, start);
+ * </pre>
+ * 统计结果可以通过 {@link #snapshot(SearchStage)} 获取，或通过 {@link #dumpToLog()} 输出到日志（托盘菜单中也有对应的菜单项）。
+ */
+@Singleton
+@Slf4j
+public class SearchMetrics {
+
+    private final Map<SearchStage, LatencyHistogram> histograms = new EnumMap<>(SearchStage.class);
+
+    public SearchMetrics() {
+        for (SearchStage stage : SearchStage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * 记录某个阶段的一次耗时。
+     *
+     * @param stage 阶段
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(SearchStage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+    }
+
+    /**
+     * 记录某个阶段从 {@code startNanos} 到现在的耗时。
+     *
+     * @param stage      阶段
+     * @param startNanos 阶段开始时的 {@link System#nanoTime()}
+     */
+    public void recordSince(SearchStage stage, long startNanos) {
+        record(stage, System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram.Snapshot snapshot(SearchStage stage) {
+        return histograms.get(stage).snapshot();
+    }
+
+    /**
+     * 清空所有阶段的记录。
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * 将所有阶段的统计结果输出到日志，耗时单位为毫秒。
+     */
+    public void dumpToLog() {
+        StringBuilder sb = new StringBuilder("搜索链路耗时统计 (ms):");
+        sb.append(String.format("%n%-14s %8s %9s %9s %9s %9s %9s %9s",
+                "stage", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        for (SearchStage stage : SearchStage.values()) {
+            LatencyHistogram.Snapshot s = snapshot(stage);
+            sb.append(String.format("%n%-14s %8d %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f",
+                    stage, s.count(), toMillis(s.mean()), toMillis(s.p50()), toMillis(s.p90()),
+                    toMillis(s.p99()), toMillis(s.p999()), toMillis(s.max())));
+        }
+        log.info(sb.toString());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.metrics;
+
+/**
+ * 从按键到结果渲染到屏幕的搜索链路中，分别计时的各个阶段。
+ */
+public enum SearchStage {
+    /**
+     * 最后一次按键到防抖结束、开始搜索
+     */
+    DEBOUNCE,
+    /**
+     * 构建 Everything 查询字符串
+     */
+    BUILD_QUERY,
+    /**
+     * 原生 {@code Everything3_Search} 调用
+     */
+    NATIVE_SEARCH,
+    /**
+     * 逐行解码一页搜索结果
+     */
+    DECODE,
+    /**
+     * 卡片池中没有空闲卡片时，通过 {@code SearchResultCardFactory} 创建一张卡片
+     */
+    CARD_CREATION,
+    /**
+     * 把结果列表放入搜索面板到下一次 JavaFX 脉冲完成布局
+     */
+    FX_ATTACH,
+    /**
+     * 最后一次按键到结果完成布局的总耗时
+     */
+    KEY_TO_RENDER
+}
@@ -0,0 +1,166 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.pinyin;
+
+import java.util.Arrays;
+
+/**
+ * 一组名称的不可变拼音索引，只收录包含汉字的名称。
+ * <p>
+ * 所有名称依次存放在一个 {@code char[]} 中，另外为每个名称保存偏移量、调用方的编号和两个字符位集合：
+ * 名称中所有汉字的所有读音（包括多音字的其它读音）和其它字母数字中出现过的字符，以及可以作为匹配起点的字符，
+ * 即各个读音的首字母和名称中的字母数字。查询时先用位集合排除不可能匹配的名称，再用 {@link PinyinMatcher} 逐个验证，
+ * 几千个名称的查询耗时在一毫秒以内。索引构建后不会被修改，可以被任意线程同时读取。
+ */
+public final class PinyinIndex {
+
+    public static final PinyinIndex EMPTY = new PinyinIndex(new int[0], new int[]{0}, new char[0], new long[0], new long[0]);
+
+    private final int[] docs;
+    private final int[] offsets;
+    private final char[] chars;
+    private final long[] alphabets;
+    private final long[] initials;
+
+    private PinyinIndex(int[] docs, int[] offsets, char[] chars, long[] alphabets, long[] initials) {
+        this.docs = docs;
+        this.offsets = offsets;
+        this.chars = chars;
+        this.alphabets = alphabets;
+        this.initials = initials;
+    }
+
+    /**
+     * 为一组名称构建索引，名称的编号即其在数组中的位置。
+     *
+     * @param names 名称，可以包含 {@code null}
+     * @return 新的索引
+     */
+    public static PinyinIndex build(String[] names) {
+        int count = 0;
+        int length = 0;
+        for (String name : names) {
+            if (name != null && PinyinTable.containsPinyin(name)) {
+                count++;
+                length += name.length();
+            }
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        int[] docs = new int[count];
+        int[] offsets = new int[count + 1];
+        char[] chars = new char[length];
+        long[] alphabets = new long[count];
+        long[] initials = new long[count];
+        int n = 0;
+        int offset = 0;
+        for (int doc = 0; doc < names.length; doc++) {
+            String name = names[doc];
+            if (name == null || !PinyinTable.containsPinyin(name)) {
+                continue;
+            }
+            docs[n] = doc;
+            offsets[n] = offset;
+            name.getChars(0, name.length(), chars, offset);
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                char[][] readings = PinyinTable.readingsOf(c);
+                if (readings != null) {
+                    for (char[] reading : readings) {
+                        initials[n] |= bitOf(reading[0]);
+                        for (char r : reading) {
+                            alphabets[n] |= bitOf(r);
+                        }
+                    }
+                } else if (PinyinMatcher.isAsciiLetterOrDigit(c)) {
+                    initials[n] |= bitOf(c);
+                    alphabets[n] |= bitOf(c);
+                }
+            }
+            offset += name.length();
+            n++;
+        }
+        offsets[count] = offset;
+        return new PinyinIndex(docs, offsets, chars, alphabets, initials);
+    }
+
+    /**
+     * @return 收录的名称数量，即包含汉字的名称数量
+     */
+    public int size() {
+        return docs.length;
+    }
+
+    /**
+     * 搜索可以用拼音匹配查询的名称。
+     *
+     * @param query 查询字符串，包含字母和数字之外的字符时没有结果
+     * @param limit 最多返回的结果数量
+     * @return 匹配的名称编号，从名称开头匹配的在前，其余按编号递增
+     */
+    public int[] search(String query, int limit) {
+        String normalized = PinyinMatcher.normalizeQuery(query);
+        if (normalized == null || limit <= 0 || docs.length == 0) {
+            return new int[0];
+        }
+        long required = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            required |= bitOf(normalized.charAt(i));
+        }
+        long first = bitOf(normalized.charAt(0));
+
+        int[] prefixMatches = new int[Math.min(limit, docs.length)];
+        int[] otherMatches = new int[prefixMatches.length];
+        int prefixCount = 0;
+        int otherCount = 0;
+        for (int n = 0; n < docs.length && prefixCount < limit; n++) {
+            if ((alphabets[n] & required) != required || (initials[n] & first) == 0) {
+                continue;
+            }
+            int index = PinyinMatcher.indexOf(chars, offsets[n], offsets[n + 1], normalized);
+            if (index == offsets[n]) {
+                prefixMatches[prefixCount++] = docs[n];
+            } else if (index >= 0 && otherCount < otherMatches.length) {
+                otherMatches[otherCount++] = docs[n];
+            }
+        }
+        int total = Math.min(limit, prefixCount + otherCount);
+        int[] matches = Arrays.copyOf(prefixMatches, total);
+        System.arraycopy(otherMatches, 0, matches, prefixCount, total - prefixCount);
+        return matches;
+    }
+
+    /**
+     * 字母 a-z 占第 0-25 位，数字占第 26-35 位
+     */
+    private static long bitOf(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1L << (c - 'a');
+        } else if (c >= 'A' && c <= 'Z') {
+            return 1L << (c - 'A');
+        } else if (c >= '0' && c <= '9') {
+            return 1L << (26 + c - '0');
+        }
+        return 0;
+    }
+}
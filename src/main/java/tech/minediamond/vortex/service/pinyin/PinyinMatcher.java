@@ -0,0 +1,140 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.pinyin;
+
+/**
+ * 用拼音全拼、首字母或两者的混合匹配中文名称。
+ * <p>
+ * 查询必须对应名称中一段连续的字符：汉字匹配其任意一个读音的非空前缀（"w"、"wei" 都匹配 "微"），
+ * 字母和数字必须与查询相同（不区分大小写），空格和标点可以跳过。因此 "wx"、"weixin"、"wxin" 都匹配 "微信"，
+ * "yy" 匹配 "QQ音乐"，多音字的每个读音都可以匹配，"yh" 和 "yx" 都匹配 "银行"。
+ * <p>
+ * 匹配时把查询中已匹配到的所有位置保存在一个 long 位集合中，名称中的每个字符只处理一次，
+ * 因此查询最长为 {@value #MAX_QUERY_LENGTH} 个字符。
+ */
+public final class PinyinMatcher {
+
+    /**
+     * 可以按拼音匹配的最长查询
+     */
+    public static final int MAX_QUERY_LENGTH = 63;
+
+    private PinyinMatcher() {
+    }
+
+    /**
+     * 把查询规范化为拼音查询：去掉空白并转为小写。
+     *
+     * @param query 查询字符串
+     * @return 规范化后的查询，查询为空、包含字母和数字之外的字符（例如汉字）或过长时返回 {@code null}
+     */
+    public static String normalizeQuery(String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(query.length());
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (!isAsciiLetterOrDigit(c)) {
+                return null;
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.isEmpty() || sb.length() > MAX_QUERY_LENGTH ? null : sb.toString();
+    }
+
+    /**
+     * 在名称中查找拼音查询。
+     *
+     * @param name  名称
+     * @param query {@link #normalizeQuery(String)} 规范化后的查询
+     * @return 匹配的第一个字符的位置，能从名称开头匹配时总是返回 0，不匹配时返回 -1
+     */
+    public static int indexOf(String name, String query) {
+        return indexOf(name.toCharArray(), 0, name.length(), query);
+    }
+
+    /**
+     * 在 {@code text[from, to)} 中查找拼音查询。
+     *
+     * @return 匹配的第一个字符的位置，能从 {@code from} 开始匹配时总是返回 {@code from}，不匹配时返回 -1
+     * @see #indexOf(String, String)
+     */
+    public static int indexOf(char[] text, int from, int to, String query) {
+        if (query.isEmpty() || query.length() > MAX_QUERY_LENGTH) {
+            return -1;
+        }
+        for (int start = from; start < to; start++) {
+            if (matchesAt(text, start, to, query)) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matchesAt(char[] text, int start, int to, String query) {
+        int length = query.length();
+        long done = 1L << length;
+        long state = 1L;//第 j 位表示查询的前 j 个字符已经匹配
+        for (int i = start; i < to; i++) {
+            char c = text[i];
+            char[][] readings = PinyinTable.readingsOf(c);
+            long next = 0;
+            if (readings != null) {
+                for (long bits = state; bits != 0; bits &= bits - 1) {
+                    int j = Long.numberOfTrailingZeros(bits);
+                    for (char[] reading : readings) {
+                        for (int k = 0; k < reading.length && j + k < length && reading[k] == query.charAt(j + k); k++) {
+                            next |= 1L << (j + k + 1);
+                        }
+                    }
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                char lower = Character.toLowerCase(c);
+                for (long bits = state; bits != 0; bits &= bits - 1) {
+                    int j = Long.numberOfTrailingZeros(bits);
+                    if (query.charAt(j) == lower) {
+                        next |= 1L << (j + 1);
+                    }
+                }
+            } else if (i == start) {
+                return false;//不从分隔符开始匹配
+            } else {
+                next = state;//跳过空格和标点
+            }
+            if ((next & done) != 0) {
+                return true;
+            }
+            if (next == 0) {
+                return false;
+            }
+            state = next;
+        }
+        return false;
+    }
+
+    static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.pinyin;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内置的汉字拼音表，数据来自资源文件 {@value #RESOURCE}，不依赖任何外部服务。
+ * <p>
+ * 拼音不区分声调，ü 写作 v。每个 BMP 字符对应一个 short 编码：0 表示没有拼音，正数为唯一读音的音节编号加一，
+ * 负数指向多音字的读音列表。所有读音以共享的 {@code char[]} 返回，查询时不分配内存。
+ * 表在第一次使用时加载，约占 200 KB。
+ */
+@Slf4j
+public final class PinyinTable {
+
+    static final String RESOURCE = "/pinyin/pinyin.txt";
+
+    private final short[] codes = new short[Character.MAX_VALUE + 1];
+    private char[][][] single = new char[0][][];
+    private char[][][] polyphones = new char[0][][];
+
+    private PinyinTable() {
+    }
+
+    private static final class Holder {
+        private static final PinyinTable INSTANCE = load();
+    }
+
+    /**
+     * 获取一个字符的所有拼音读音，首选读音在前。
+     *
+     * @param c 字符
+     * @return 小写的读音列表，不是汉字或没有收录时返回 {@code null}，返回的数组不可修改
+     */
+    public static char[][] readingsOf(char c) {
+        PinyinTable table = Holder.INSTANCE;
+        short code = table.codes[c];
+        if (code > 0) {
+            return table.single[code - 1];
+        }
+        return code < 0 ? table.polyphones[-code - 1] : null;
+    }
+
+    /**
+     * @param c 字符
+     * @return 该字符是否有拼音
+     */
+    public static boolean hasPinyin(char c) {
+        return Holder.INSTANCE.codes[c] != 0;
+    }
+
+    /**
+     * @param text 文本
+     * @return 文本中是否有带拼音的字符
+     */
+    public static boolean containsPinyin(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (hasPinyin(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把文本中的汉字按首选读音转为拼音，其它字符原样保留，主要用于日志和调试。
+     *
+     * @param text 文本
+     * @return 以空格分隔各个汉字读音的文本，例如 "微信" 为 "wei xin"
+     */
+    public static String toPinyin(CharSequence text) {
+        StringBuilder sb = new StringBuilder(text.length() * 4);
+        boolean afterPinyin = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char[][] readings = readingsOf(c);
+            if (readings != null) {
+                if (!sb.isEmpty() && sb.charAt(sb.length() - 1) != ' ') {
+                    sb.append(' ');
+                }
+                sb.append(readings[0]);
+                afterPinyin = true;
+            } else {
+                if (afterPinyin && c != ' ') {
+                    sb.append(' ');
+                }
+                sb.append(c);
+                afterPinyin = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static PinyinTable load() {
+        PinyinTable table = new PinyinTable();
+        long start = System.nanoTime();
+        try (InputStream in = PinyinTable.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                log.error("找不到拼音表 {}，拼音搜索不可用", RESOURCE);
+                return table;
+            }
+            table.read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            log.info("拼音表已加载，耗时 {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("读取拼音表失败，拼音搜索不可用", e);
+            Arrays.fill(table.codes, (short) 0);
+        }
+        return table;
+    }
+
+    /**
+     * 资源文件每行为 "拼音&lt;TAB&gt;汉字..." 或多音字行 "汉字&lt;TAB&gt;读音 读音..."，以 # 开头的行为注释
+     */
+    private void read(BufferedReader reader) throws IOException {
+        Map<String, Integer> syllableIds = new HashMap<>();
+        List<char[]> syllables = new ArrayList<>();
+        List<char[][]> polyphoneList = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            if (tab <= 0) {
+                continue;
+            }
+            String key = line.substring(0, tab);
+            String value = line.substring(tab + 1);
+            if (key.charAt(0) < 0x80) {
+                int id = syllableIds.computeIfAbsent(key, k -> {
+                    syllables.add(k.toCharArray());
+                    return syllables.size() - 1;
+                });
+                for (int i = 0; i < value.length(); i++) {
+                    codes[value.charAt(i)] = (short) (id + 1);
+                }
+            } else {
+                String[] names = value.trim().split(" ");
+                char[][] readings = new char[names.length][];
+                for (int i = 0; i < names.length; i++) {
+                    String name = names[i];
+                    int id = syllableIds.computeIfAbsent(name, k -> {
+                        syllables.add(k.toCharArray());
+                        return syllables.size() - 1;
+                    });
+                    readings[i] = syllables.get(id);
+                }
+                polyphoneList.add(readings);
+                codes[key.charAt(0)] = (short) -polyphoneList.size();
+            }
+        }
+        single = new char[syllables.size()][][];
+        for (int i = 0; i < single.length; i++) {
+            single[i] = new char[][]{syllables.get(i)};
+        }
+        polyphones = polyphoneList.toArray(new char[0][][]);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.pinyin;
+
+import com.google.inject.Singleton;
+import tech.minediamond.vortex.model.fileData.FileData;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 最近出现在搜索结果中的中文文件名的拼音索引。
+ * <p>
+ * 搜索后端只按字面匹配文件名，输入 "gzbg" 找不到 "工作报告.docx"。{@link tech.minediamond.vortex.service.search.SearchService}
+ * 把每次搜索的首屏文件结果交给这里，名称包含汉字的文件按最近出现的顺序最多保留 {@link #CAPACITY} 个，
+ * 之后的拼音查询可以直接在内存中找到它们，与程序结果一起显示。
+ * <p>
+ * 索引在有新文件加入后的第一次查询时重建，重建几千个名称只需要几毫秒。
+ */
+@Singleton
+public class RecentFilePinyinIndex {
+
+    /**
+     * 最多保留的文件数量
+     */
+    static final int CAPACITY = 2048;
+
+    // 按最近出现的顺序排列，最近的在末尾
+    private final LinkedHashMap<String, FileData> recentFiles = new LinkedHashMap<>(CAPACITY * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileData> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private FileData[] snapshot = new FileData[0];
+    private PinyinIndex index = PinyinIndex.EMPTY;
+    private boolean dirty = false;
+
+    /**
+     * 记录一组搜索结果，只保留名称包含汉字的文件。
+     *
+     * @param results 搜索结果
+     */
+    public synchronized void record(List<? extends FileData> results) {
+        for (FileData result : results) {
+            if (result.getFullPath() != null && result.getFileName() != null && PinyinTable.containsPinyin(result.getFileName())) {
+                recentFiles.put(result.getFullPath(), result);
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * 用拼音搜索最近出现过的文件。
+     *
+     * @param query 查询字符串
+     * @param limit 最多返回的结果数量
+     * @return 从名称开头匹配的在前，其余越近出现的越靠前
+     */
+    public synchronized List<FileData> search(String query, int limit) {
+        if (PinyinMatcher.normalizeQuery(query) == null || recentFiles.isEmpty()) {
+            return List.of();
+        }
+        if (dirty) {
+            rebuild();
+        }
+        int[] docs = index.search(query, limit);
+        List<FileData> matched = new ArrayList<>(docs.length);
+        for (int doc : docs) {
+            matched.add(snapshot[doc]);
+        }
+        return matched;
+    }
+
+    private void rebuild() {
+        List<FileData> files = new ArrayList<>(recentFiles.values());
+        snapshot = new FileData[files.size()];
+        String[] names = new String[files.size()];
+        for (int i = 0; i < names.length; i++) {
+            snapshot[i] = files.get(names.length - 1 - i);//最近的编号最小
+            names[i] = snapshot[i].getFileName();
+        }
+        index = PinyinIndex.build(names);
+        dirty = false;
+    }
+}
@@ -19,33 +19,48 @@
 
 package tech.minediamond.vortex.service.program;
 
-import tech.minediamond.vortex.model.appConfig.GlobalDataStore;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
 import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.sql.SQLException;
 
+@Slf4j
 public class AppLauncher {
 
     private static final String UWP_COMMAND_PREFIX = "shell:AppsFolder\\";
     private static final String EXPLORER_EXECUTABLE = "explorer.exe";
 
-    public static ProgramInfo getProgramInfoByID(String id) throws IOException {
-        ProgramInfo programInfo = new ProgramInfo();
-        boolean found = false;
-        for(ProgramInfo info : GlobalDataStore.programInfos) {
-            if(info.getId().equals(id)) {
-                programInfo = info;
-                found = true;
-            }
+    /**
+     * 在程序目录的当前版本中按 id 查找程序。
+     *
+     * @param catalog 程序目录
+     * @param id      程序 id
+     * @return 对应的程序信息，不存在时返回 {@code null}
+     */
+    public static ProgramInfo getProgramInfoByID(ProgramCatalog catalog, String id) {
+        return catalog.current().getById(id);
+    }
+
+    /**
+     * 获取程序的启动目标，用于在搜索结果中显示和去重
+     *
+     * @param programInfo 程序信息
+     * @return 普通应用为可执行文件的完整路径，UWP 应用为 {@code shell:AppsFolder\<aumid>}
+     */
+    public static String launchTargetOf(ProgramInfo programInfo) {
+        if (programInfo.getSource() == ProgramSource.UWP) {
+            return UWP_COMMAND_PREFIX + programInfo.getProgramName();
         }
-        if(found) {
-            return programInfo;
-        }else {
-            return null;
+        if (programInfo.getInstallLocation() == null || programInfo.getProgramName() == null) {
+            return programInfo.getInstallLocation() != null ? programInfo.getInstallLocation() : programInfo.getDisplayName();
         }
+        return Path.of(programInfo.getInstallLocation(), programInfo.getProgramName()).toString();
     }
 
     public static boolean openApplication(ProgramInfo programInfo) {
@@ -54,22 +69,30 @@ public class AppLauncher {
 
         switch (programInfo.getSource()) {
             case UWP -> {
-                System.out.println("启动UWP应用");
-
                 String aumid = programInfo.getProgramName();
+                log.debug("启动UWP应用: {}", aumid);
                 pb = new ProcessBuilder(EXPLORER_EXECUTABLE, UWP_COMMAND_PREFIX + aumid);
 
             }
             case REGISTRY -> {
-                System.out.println("启动Registry应用");
-
                 Path path = Path.of(programInfo.getInstallLocation(),programInfo.getProgramName());
-                System.out.println(path);
+                log.debug("启动Registry应用: {}", path);
                 pb = new ProcessBuilder(path.toString());
 
                 File workingDirectory = new File(programInfo.getInstallLocation());
                 pb.directory(workingDirectory);
             }
+            case SHORTCUT -> {
+                log.debug("启动快捷方式: {}", programInfo.getPath());
+
+                // 通过资源管理器打开快捷方式本身，保留快捷方式中设置的参数和起始位置
+                if (programInfo.getPath() != null) {
+                    pb = new ProcessBuilder(EXPLORER_EXECUTABLE, programInfo.getPath().toString());
+                } else {
+                    pb = new ProcessBuilder(Path.of(programInfo.getInstallLocation(), programInfo.getProgramName()).toString());
+                    pb.directory(new File(programInfo.getInstallLocation()));
+                }
+            }
             default -> throw new IllegalArgumentException("不支持的 ProgramSource 类型: " + programInfo.getSource());
         }
 
@@ -77,6 +100,7 @@ public class AppLauncher {
             pb.start();
             return true;
         } catch (IOException e) {
+            log.warn("启动程序失败: {}", programInfo.getDisplayName(), e);
             return false;
         }
 
@@ -85,12 +109,13 @@ public class AppLauncher {
     public static void main(String[] args) throws IOException, SQLException {
 
 
-        dataBaseOperate dbo = dataBaseOperate.getInstance();
-        GlobalDataStore.programInfos = dbo.readProgramInfoList();
-        GlobalDataStore.programInfos.forEach(System.out::println);
+        Injector injector = Guice.createInjector();
+        ProgramCatalog catalog = injector.getInstance(ProgramCatalog.class);
+        catalog.publish(injector.getInstance(dataBaseOperate.class).readProgramInfoList());
+        catalog.current().programs().forEach(System.out::println);
         System.out.println("---------------------------------------------------------------");
 
-        System.out.println(getProgramInfoByID("146"));
-        openApplication(getProgramInfoByID("146"));
+        System.out.println(getProgramInfoByID(catalog, "146"));
+        openApplication(getProgramInfoByID(catalog, "146"));
     }
 }
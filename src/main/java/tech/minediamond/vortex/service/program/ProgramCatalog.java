@@ -0,0 +1,154 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.program.ProgramInfo;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 当前已知的全部程序，供搜索、启动和界面读取。
+ * <p>
+ * 程序列表以不可变的 {@link Version} 发布，每次 {@link #publish(List)} 都用一次原子替换换上一个编号更大的新版本。
+ * 读取方通过 {@link #current()} 得到一个完整、一致的版本，不需要加锁，之后的发布也不会影响它。
+ * <p>
+ * 已发布的 {@link ProgramInfo} 会被多个线程同时读取，发布之后不能再修改。
+ */
+@Slf4j
+@Singleton
+public class ProgramCatalog {
+
+    private final AtomicReference<Version> current = new AtomicReference<>(Version.EMPTY);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 程序列表的一个版本
+     *
+     * @param number   版本号，每次发布加一，空目录为 0
+     * @param programs 不可修改的程序列表
+     * @param byId     id -> 程序，没有 id 的程序不在其中
+     */
+    public record Version(long number, List<ProgramInfo> programs, Map<String, ProgramInfo> byId) {
+
+        static final Version EMPTY = new Version(0, List.of(), Map.of());
+
+        /**
+         * @param id 程序 id
+         * @return 对应的程序信息，不存在时返回 {@code null}
+         */
+        public ProgramInfo getById(String id) {
+            return id == null ? null : byId.get(id);
+        }
+
+        public int size() {
+            return programs.size();
+        }
+    }
+
+    /**
+     * 程序列表变化的监听器
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * 在发布新版本的线程中调用，不应执行耗时的操作，需要时自行切换到其它线程。
+         * <p>
+         * 多个线程同时发布时，通知的顺序可能与版本号的顺序不同，需要最新版本时应重新调用 {@link ProgramCatalog#current()}。
+         *
+         * @param previous 被替换的版本
+         * @param current  新发布的版本
+         */
+        void catalogChanged(Version previous, Version current);
+    }
+
+    /**
+     * @return 当前的版本
+     */
+    public Version current() {
+        return current.get();
+    }
+
+    /**
+     * 用新的程序列表替换当前的版本，然后通知所有监听器。
+     *
+     * @param programs 完整的程序列表，会被复制
+     * @return 新发布的版本
+     */
+    public Version publish(List<ProgramInfo> programs) {
+        return publish(null, programs);
+    }
+
+    /**
+     * 只有当前版本仍是 {@code expected} 时才发布，用于基于某个版本计算出的程序列表，避免覆盖其间发布的更新的版本。
+     *
+     * @param expected 计算程序列表时的版本
+     * @param programs 完整的程序列表，会被复制
+     * @return 新发布的版本，当前版本已经变化时返回 {@code null}
+     */
+    public Version publishIfCurrent(Version expected, List<ProgramInfo> programs) {
+        return publish(expected, programs);
+    }
+
+    private Version publish(Version expected, List<ProgramInfo> programs) {
+        List<ProgramInfo> copy = List.copyOf(programs);
+        Map<String, ProgramInfo> byId = new HashMap<>(copy.size() * 2);
+        for (ProgramInfo programInfo : copy) {
+            if (programInfo.getId() != null) {
+                byId.putIfAbsent(programInfo.getId(), programInfo);
+            }
+        }
+        Map<String, ProgramInfo> unmodifiableById = Collections.unmodifiableMap(byId);
+
+        Version previous;
+        Version next;
+        do {
+            previous = current.get();
+            if (expected != null && previous != expected) {
+                return null;
+            }
+            next = new Version(previous.number() + 1, copy, unmodifiableById);
+        } while (!current.compareAndSet(previous, next));
+        log.debug("程序目录已更新到版本 {}，共 {} 个程序", next.number(), next.size());
+        for (Listener listener : listeners) {
+            try {
+                listener.catalogChanged(previous, next);
+            } catch (RuntimeException e) {
+                log.error("程序目录监听器执行失败", e);
+            }
+        }
+        return next;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.program;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 已安装程序的内存目录，供搜索框同时搜索程序和文件。
+ * <p>
+ * 启动时在后台线程读取程序列表并发布到 {@link ProgramCatalog}，优先读取 {@link ProgramCatalogSnapshot}，没有有效的快照时才从本地数据库读取。
+ * 之后的查询只在内存中的 {@link ProgramIndex} 上进行，耗时在微秒级，
+ * 因此 {@link tech.minediamond.vortex.service.search.SearchService} 可以在查询文件之前先显示程序结果。
+ * <p>
+ * {@link ProgramCatalog} 发布新版本时在后台线程构建新的索引，构建完成后原子地替换旧索引，查询始终看到一个完整的索引。
+ * <p>
+ * 在 Windows 上，读取数据库之后还会用 {@link #refresh()} 通过 {@link ProgramDiscovery} 重新扫描发生变化的程序来源并同步到数据库。
+ * 扫描结果是流式解析的，扫描期间新发现的程序会分批加入一个临时索引，不必等待扫描结束就能被搜索到。
+ */
+@Slf4j
+@Singleton
+public class ProgramCatalogService {
+
+    // 扫描期间新发现的程序达到这个数量时第一次发布临时索引，之后每次数量翻倍时再发布，总的构建开销不超过最终索引的两倍
+    static final int FIRST_INTERIM_BATCH = 16;
+
+    private final AtomicReference<ProgramIndex> index = new AtomicReference<>(ProgramIndex.EMPTY);
+    // 当前索引所基于的目录版本，-1 表示当前是临时索引，只在 indexBuilder 线程中访问
+    private long indexedVersion = -1;
+    private final ProgramCatalog catalog;
+    private final dataBaseOperate database;
+    private final ProgramDiscovery discovery;
+    private final ProgramCatalogSnapshot snapshot;
+    private final ExecutorService indexBuilder;
+    private final ExecutorService scanner;
+
+    @Inject
+    public ProgramCatalogService(ProgramCatalog catalog, dataBaseOperate database, ProgramDiscovery discovery,
+                                 ProgramCatalogSnapshot snapshot) {
+        this.catalog = catalog;
+        this.database = database;
+        this.discovery = discovery;
+        this.snapshot = snapshot;
+        indexBuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Program Index Builder");
+            t.setDaemon(true);
+            return t;
+        });
+        scanner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Program Scanner");
+            t.setDaemon(true);
+            return t;
+        });
+        catalog.addListener((previous, current) -> indexBuilder.execute(this::rebuild));
+        indexBuilder.execute(this::load);
+        if (System.getProperty("os.name").toLowerCase().contains("windows")) {
+            refresh();
+        }
+    }
+
+    private void load() {
+        try {
+            // 读取期间扫描可能已经发布了更新的程序列表，此时不再用读到的旧列表覆盖它
+            ProgramCatalog.Version initial = catalog.current();
+            // 快照只有在代数与数据库一致时才可信，读取代数只需要打开数据库和一次单行查询
+            List<ProgramInfo> cached = snapshot.load(database.readGeneration());
+            if (cached != null) {
+                catalog.publishIfCurrent(initial, cached);
+                return;
+            }
+            dataBaseOperate.ProgramList programList = database.readProgramList();
+            if (catalog.publishIfCurrent(initial, programList.programs()) != null) {
+                saveSnapshot(programList);
+            }
+        } catch (Exception e) {
+            log.error("读取程序列表失败", e);
+        }
+    }
+
+    private void saveSnapshot(dataBaseOperate.ProgramList programList) {
+        try {
+            snapshot.save(programList.generation(), programList.programs());
+        } catch (IOException e) {
+            log.warn("保存程序目录快照失败，下次启动将从数据库读取", e);
+        }
+    }
+
+    /**
+     * 把新的程序列表发布到 {@link ProgramCatalog}，索引在后台线程中构建。
+     *
+     * @param programInfos 程序列表
+     * @return 新索引生效时完成的 future
+     */
+    public CompletableFuture<ProgramIndex> update(List<ProgramInfo> programInfos) {
+        catalog.publish(programInfos);
+        // 发布时监听器已经把重建任务放入了同一个单线程的 indexBuilder，这里的任务一定在它之后执行
+        return CompletableFuture.supplyAsync(index::get, indexBuilder);
+    }
+
+    /**
+     * 为目录的最新版本构建索引，在 indexBuilder 线程中执行。连续多次发布时只为最后一个版本构建。
+     */
+    private void rebuild() {
+        ProgramCatalog.Version version = catalog.current();
+        if (version.number() == indexedVersion) {
+            return;
+        }
+        long start = System.nanoTime();
+        ProgramIndex newIndex = ProgramIndex.build(version.programs());
+        indexedVersion = version.number();
+        index.set(newIndex);
+        log.info("程序索引已更新到版本 {}，共 {} 个程序，耗时 {} ms", version.number(), newIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 重新扫描变化标记发生变化的程序来源，同步到数据库后用数据库中的程序列表替换目录内容。
+     * <p>
+     * 扫描期间新发现的程序会分批和当前的程序合并成临时索引，扫描结束前就可以被搜索到，但还没有 id。
+     * 所有来源都没有变化时不会访问 PowerShell，也不会重建索引。
+     *
+     * @return 同步完成、新索引生效时完成的 future，索引没有重建时为当前的索引
+     */
+    public CompletableFuture<ProgramIndex> refresh() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                List<ProgramInfo> current = database.readProgramInfoList();
+                ProgramDiscovery.Result result = discovery.discover(current, database.readSourceTokens(), new InterimPublisher());
+                if (!result.changed()) {
+                    return null;
+                }
+                database.syncSoftwareList(result.programs());
+                database.saveSourceTokens(result.tokens());
+                dataBaseOperate.ProgramList programList = database.readProgramList();
+                saveSnapshot(programList);
+                return programList.programs();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, scanner).thenCompose(programInfos -> programInfos != null ? update(programInfos) : CompletableFuture.completedFuture(index.get()))
+                .whenComplete((newIndex, e) -> {
+                    if (e != null) {
+                        log.error("扫描已安装的程序失败", e);
+                    }
+                });
+    }
+
+    /**
+     * 接收扫描到的程序，在扫描线程中调用。新发现的程序数量每次翻倍时，在索引线程中把它们与当前的程序合并成临时索引。
+     */
+    private final class InterimPublisher implements Consumer<ProgramInfo> {
+        private final List<ProgramInfo> discovered = new ArrayList<>();
+        private int nextPublish = FIRST_INTERIM_BATCH;
+
+        @Override
+        public void accept(ProgramInfo programInfo) {
+            discovered.add(programInfo);
+            if (discovered.size() >= nextPublish) {
+                nextPublish *= 2;
+                List<ProgramInfo> batch = List.copyOf(discovered);
+                indexBuilder.execute(() -> publishInterim(batch));
+            }
+        }
+    }
+
+    private void publishInterim(List<ProgramInfo> discovered) {
+        List<ProgramInfo> current = catalog.current().programs();
+        Set<String> known = new HashSet<>(current.size() * 2);
+        current.forEach(programInfo -> known.add(dataBaseOperate.keyOf(programInfo)));
+        List<ProgramInfo> merged = new ArrayList<>(current);
+        for (ProgramInfo programInfo : discovered) {
+            if (known.add(dataBaseOperate.keyOf(programInfo))) {
+                merged.add(programInfo);
+            }
+        }
+        if (merged.size() == current.size()) {
+            return;//没有新程序，保持当前索引
+        }
+        index.set(ProgramIndex.build(merged));
+        indexedVersion = -1;
+        log.debug("扫描中，临时索引新增 {} 个程序", merged.size() - current.size());
+    }
+
+    /**
+     * @return 当前的程序索引
+     */
+    public ProgramIndex getIndex() {
+        return index.get();
+    }
+
+    /**
+     * @param id 程序 id
+     * @return 对应的程序信息，不存在时返回 {@code null}
+     */
+    public ProgramInfo getProgramById(String id) {
+        return catalog.current().getById(id);
+    }
+
+    /**
+     * 搜索程序。
+     *
+     * @param query 查询字符串
+     * @param limit 最多返回的结果数量
+     * @return 按匹配程度排列的程序结果
+     * @see ProgramIndex#search(String, int)
+     */
+    public List<ProgramResult> search(String query, int limit) {
+        return index.get().search(query, limit);
+    }
+}
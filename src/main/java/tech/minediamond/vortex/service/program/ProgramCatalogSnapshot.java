@@ -0,0 +1,395 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * 程序目录的二进制快照，启动时先读取它，不必从数据库读取每一行就能显示程序结果。数据库仍然是唯一可信的数据来源，
+ * 快照只在每次从数据库读取或同步程序列表之后重新写入。
+ * <p>
+ * 快照记录了写入时数据库中程序表的代数（见 {@link dataBaseOperate#readGeneration()}），每次同步修改程序表时代数加一。
+ * 读取时代数与数据库中的不同就说明快照已经过期，例如同步后还没来得及重写快照程序就退出了，此时视为没有快照。
+ * <p>
+ * 文件格式（小端序）：
+ * <pre>
+ * 头部 {@value #HEADER_SIZE} 字节：魔数 "VXPC"、格式版本、记录数、字符串数、字符串字节数、保留、数据库代数、正文的 CRC32C
+ * 记录：每条 {@value #RECORD_SIZE} 字节，依次为 id、baseName、displayName、programName、version、publisher、
+ *       installLocation、path、source 在字符串表中的下标（-1 表示 null）和标志位（bit 0 为 enabled）
+ * 字符串表：字符串数 + 1 个偏移量，之后是所有字符串的 UTF-8 字节，相同的字符串只保存一次
+ * </pre>
+ * 读取时通过内存映射一次性校验并解码，格式版本或代数不同、长度不符、校验和错误或内容越界时都视为没有快照。
+ * <p>
+ * 每次保存都写入一个编号更大的新文件，而不是覆盖旧文件：Windows 上被映射的文件在映射被回收前不能替换或删除。
+ * 旧文件在保存后尽量删除，删除失败的会在之后的保存中再次删除。
+ */
+@Slf4j
+@Singleton
+public class ProgramCatalogSnapshot {
+
+    public static final Path DEFAULT_DIRECTORY = Path.of("catalog-snapshot");
+
+    static final int MAGIC = 0x43505856;//"VXPC"
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 40;
+    static final int RECORD_SIZE = 40;
+
+    private static final int FIELD_COUNT = 9;
+    private static final int ENABLED_FLAG = 1;
+    private static final String FILE_PREFIX = "programs-";
+    private static final String FILE_SUFFIX = ".snapshot";
+
+    private final Path directory;
+
+    @Inject
+    public ProgramCatalogSnapshot() {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * @param directory 保存快照文件的目录，不存在时在第一次保存时创建
+     */
+    public ProgramCatalogSnapshot(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 读取最新的快照。
+     *
+     * @param generation 数据库中程序表当前的代数
+     * @return 快照中的程序列表，没有快照、快照无效或快照的代数不同时返回 {@code null}
+     */
+    public List<ProgramInfo> load(long generation) {
+        long start = System.nanoTime();
+        Path file;
+        try {
+            file = latestFile().orElse(null);
+        } catch (IOException e) {
+            log.warn("无法读取快照目录 {}", directory, e);
+            return null;
+        }
+        if (file == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            List<ProgramInfo> programs = decode(buffer, generation);
+            log.info("已从快照读取 {} 个程序，耗时 {} ms", programs.size(), (System.nanoTime() - start) / 1_000_000);
+            return programs;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | InvalidSnapshotException e) {
+            log.warn("快照 {} 无效，将从数据库读取: {}", file.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 把程序列表写入一个新的快照文件，然后删除旧的快照。
+     * <p>
+     * 先写入临时文件再重命名，读取时不会看到写了一半的快照。
+     *
+     * @param generation 读取程序列表时数据库中程序表的代数
+     * @param programs   程序列表，应与数据库中该代数的内容相同
+     * @throws IOException 写入失败时抛出，此时会尽量删除所有旧快照，避免之后读到过期的内容
+     */
+    public synchronized void save(long generation, List<ProgramInfo> programs) throws IOException {
+        long start = System.nanoTime();
+        List<Path> old = new ArrayList<>();
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            long sequence = 0;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                for (Path existing : files) {
+                    old.add(existing);
+                    sequence = Math.max(sequence, sequenceOf(existing));
+                }
+            }
+            Path file = directory.resolve(FILE_PREFIX + (sequence + 1) + FILE_SUFFIX);
+            temp = directory.resolve(file.getFileName() + ".tmp");
+            ByteBuffer buffer = encode(generation, programs);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            log.info("快照已保存，共 {} 个程序，{} 字节，耗时 {} ms", programs.size(), buffer.capacity(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            if (temp != null) {
+                old.add(temp);
+            }
+            deleteAll(old);
+            throw e;
+        }
+        deleteAll(old);
+    }
+
+    private static void deleteAll(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("无法删除旧快照 {}，将在下次保存时重试", file, e);
+            }
+        }
+    }
+
+    private Optional<Path> latestFile() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        Path latest = null;
+        long latestSequence = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                long sequence = sequenceOf(file);
+                if (sequence > latestSequence) {
+                    latest = file;
+                    latestSequence = sequence;
+                }
+            }
+        }
+        return Optional.ofNullable(latest);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 把程序列表编码为快照文件的完整内容。
+     *
+     * @param generation 数据库中程序表的代数
+     * @param programs   程序列表
+     * @return 可以直接写入文件的缓冲区，position 为 0
+     */
+    static ByteBuffer encode(long generation, List<ProgramInfo> programs) {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] fields = new int[programs.size() * FIELD_COUNT];
+        int stringBytes = 0;
+        for (int i = 0; i < programs.size(); i++) {
+            ProgramInfo programInfo = programs.get(i);
+            String[] values = {
+                    programInfo.getId(), programInfo.getBaseName(), programInfo.getDisplayName(), programInfo.getProgramName(),
+                    programInfo.getVersion(), programInfo.getPublisher(), programInfo.getInstallLocation(),
+                    Optional.ofNullable(programInfo.getPath()).map(Path::toString).orElse(null),
+                    Optional.ofNullable(programInfo.getSource()).map(Enum::name).orElse(null)
+            };
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                String value = values[f];
+                if (value == null) {
+                    fields[i * FIELD_COUNT + f] = -1;
+                    continue;
+                }
+                Integer index = indexes.get(value);
+                if (index == null) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    index = strings.size();
+                    indexes.put(value, index);
+                    strings.add(bytes);
+                    stringBytes += bytes.length;
+                }
+                fields[i * FIELD_COUNT + f] = index;
+            }
+        }
+
+        int bodySize = programs.size() * RECORD_SIZE + (strings.size() + 1) * Integer.BYTES + stringBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bodySize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(HEADER_SIZE);
+        for (int i = 0; i < programs.size(); i++) {
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                buffer.putInt(fields[i * FIELD_COUNT + f]);
+            }
+            buffer.putInt(Boolean.FALSE.equals(programs.get(i).getEnabled()) ? 0 : ENABLED_FLAG);
+        }
+        int offset = 0;
+        for (byte[] bytes : strings) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] bytes : strings) {
+            buffer.put(bytes);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_SIZE, bodySize);
+        buffer.position(0);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(programs.size()).putInt(strings.size()).putInt(stringBytes)
+                .putInt(0).putLong(generation).putLong(crc.getValue());
+        buffer.position(0);
+        return buffer;
+    }
+
+    /**
+     * 校验并解码快照文件的完整内容。
+     *
+     * @param buffer     快照文件的内容，从 position 0 开始
+     * @param generation 数据库中程序表当前的代数
+     * @return 快照中的程序列表
+     * @throws InvalidSnapshotException 格式版本或代数不同、内容损坏时抛出
+     */
+    static List<ProgramInfo> decode(ByteBuffer buffer, long generation) throws InvalidSnapshotException {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (in.remaining() < HEADER_SIZE || in.getInt(0) != MAGIC) {
+                throw new InvalidSnapshotException("不是程序目录快照");
+            }
+            int version = in.getInt(4);
+            if (version != FORMAT_VERSION) {
+                throw new InvalidSnapshotException("格式版本 " + version + " 与当前版本 " + FORMAT_VERSION + " 不同");
+            }
+            int recordCount = in.getInt(8);
+            int stringCount = in.getInt(12);
+            int stringBytes = in.getInt(16);
+            long snapshotGeneration = in.getLong(24);
+            long checksum = in.getLong(32);
+            if (snapshotGeneration != generation) {
+                throw new InvalidSnapshotException("快照的代数 " + snapshotGeneration + " 与数据库的代数 " + generation + " 不同");
+            }
+            if (recordCount < 0 || stringCount < 0 || stringBytes < 0) {
+                throw new InvalidSnapshotException("头部已损坏");
+            }
+            long expectedSize = HEADER_SIZE + (long) recordCount * RECORD_SIZE + (stringCount + 1L) * Integer.BYTES + stringBytes;
+            if (expectedSize != in.limit()) {
+                throw new InvalidSnapshotException("文件长度 " + in.limit() + " 与头部记录的长度 " + expectedSize + " 不符");
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(in.slice(HEADER_SIZE, in.limit() - HEADER_SIZE));
+            if (crc.getValue() != checksum) {
+                throw new InvalidSnapshotException("校验和不符");
+            }
+
+            String[] strings = decodeStrings(in, HEADER_SIZE + recordCount * RECORD_SIZE, stringCount, stringBytes);
+            ProgramSource[] sources = new ProgramSource[stringCount];
+            List<ProgramInfo> programs = new ArrayList<>(recordCount);
+            int[] fields = new int[FIELD_COUNT];
+            in.position(HEADER_SIZE);
+            for (int i = 0; i < recordCount; i++) {
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    fields[f] = in.getInt();
+                    if (fields[f] < -1 || fields[f] >= stringCount) {
+                        throw new InvalidSnapshotException("第 " + i + " 条记录引用了不存在的字符串");
+                    }
+                }
+                int flags = in.getInt();
+
+                ProgramInfo programInfo = new ProgramInfo();
+                programInfo.setId(stringAt(strings, fields[0]));
+                programInfo.setBaseName(stringAt(strings, fields[1]));
+                programInfo.setDisplayName(stringAt(strings, fields[2]));
+                programInfo.setProgramName(stringAt(strings, fields[3]));
+                programInfo.setVersion(stringAt(strings, fields[4]));
+                programInfo.setPublisher(stringAt(strings, fields[5]));
+                programInfo.setInstallLocation(stringAt(strings, fields[6]));
+                String path = stringAt(strings, fields[7]);
+                programInfo.setPath(path == null ? null : Path.of(path));
+                programInfo.setSource(sourceAt(strings, sources, fields[8]));
+                programInfo.setEnabled((flags & ENABLED_FLAG) != 0);
+                programs.add(programInfo);
+            }
+            return programs;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new InvalidSnapshotException("内容已损坏: " + e);
+        }
+    }
+
+    private static String[] decodeStrings(ByteBuffer in, int offsetsStart, int stringCount, int stringBytes) throws InvalidSnapshotException {
+        int bytesStart = offsetsStart + (stringCount + 1) * Integer.BYTES;
+        byte[] bytes = new byte[stringBytes];
+        in.get(bytesStart, bytes);
+        String[] strings = new String[stringCount];
+        int previous = in.getInt(offsetsStart);
+        if (previous != 0) {
+            throw new InvalidSnapshotException("字符串表已损坏");
+        }
+        for (int i = 0; i < stringCount; i++) {
+            int next = in.getInt(offsetsStart + (i + 1) * Integer.BYTES);
+            if (next < previous || next > stringBytes) {
+                throw new InvalidSnapshotException("字符串表已损坏");
+            }
+            strings[i] = new String(bytes, previous, next - previous, StandardCharsets.UTF_8);
+            previous = next;
+        }
+        return strings;
+    }
+
+    private static String stringAt(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static ProgramSource sourceAt(String[] strings, ProgramSource[] sources, int index) {
+        if (index < 0) {
+            return null;
+        }
+        if (sources[index] == null) {
+            sources[index] = ProgramSource.valueOf(strings[index]);
+        }
+        return sources[index];
+    }
+
+    /**
+     * 快照的格式版本不同或内容损坏
+     */
+    static final class InvalidSnapshotException extends Exception {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        InvalidSnapshotException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 增量发现已安装的程序。
+ * <p>
+ * 每种 {@link ProgramSource} 由一个 {@link ProgramSourceScanner} 负责。每次发现时先计算各个来源的变化标记，
+ * 只有标记与上次不同的来源才会完整扫描，其余来源的程序直接沿用当前目录中的，最后合并成新的程序列表。
+ * <p>
+ * 合并时会去掉与已安装程序启动目标相同的快捷方式，因此当前目录中的快捷方式是去重之后的。有来源重新扫描时，
+ * 没有变化的来源优先使用 {@link ProgramSourceScanner#lastScan()} 得到的完整结果重新去重，
+ * 这样卸载程序后，之前因为与它重复而被去掉的快捷方式会重新出现，而不必等到快捷方式所在的目录变化。
+ * <p>
+ * 本类只在内存中合并，不读写数据库，变化标记和程序列表由调用方保存，因此可以用假的扫描器在任何平台上测试。
+ */
+@Slf4j
+@Singleton
+public class ProgramDiscovery {
+
+    private final List<ProgramSourceScanner> scanners;
+
+    @Inject
+    public ProgramDiscovery(ShortcutScanner shortcuts, RegistryProgramScanner registry, UwpProgramScanner uwp) {
+        // 快捷方式的扫描有缓存，通常最快，排在前面可以尽早显示结果
+        this(List.of(shortcuts, registry, uwp));
+    }
+
+    public ProgramDiscovery(List<? extends ProgramSourceScanner> scanners) {
+        this.scanners = List.copyOf(scanners);
+    }
+
+    /**
+     * 一次发现的结果
+     *
+     * @param programs  合并后的完整程序列表
+     * @param tokens    应保存下来供下次比较的变化标记
+     * @param rescanned 本次完整扫描并成功的来源，为空表示程序列表没有变化
+     */
+    public record Result(List<ProgramInfo> programs, Map<ProgramSource, String> tokens, Set<ProgramSource> rescanned) {
+
+        public boolean changed() {
+            return !rescanned.isEmpty();
+        }
+    }
+
+    /**
+     * 重新扫描变化标记与上次不同的来源，并把扫描结果与当前的程序合并。
+     * <p>
+     * 扫描失败的来源保留当前的程序和上次的标记，下次仍会重新扫描。
+     *
+     * @param current        当前目录中的程序
+     * @param previousTokens 上次保存的变化标记，没有记录的来源总是重新扫描
+     * @param onProgram      扫描中每得到一个程序就立即调用一次，在调用线程中执行
+     * @return 发现的结果
+     * @throws InterruptedException 扫描被中断时抛出
+     */
+    public Result discover(List<ProgramInfo> current, Map<ProgramSource, String> previousTokens,
+                           Consumer<ProgramInfo> onProgram) throws InterruptedException {
+        long start = System.nanoTime();
+        Map<ProgramSource, List<ProgramInfo>> scanned = new EnumMap<>(ProgramSource.class);
+        Map<ProgramSource, String> tokens = new EnumMap<>(ProgramSource.class);
+        tokens.putAll(previousTokens);
+
+        for (ProgramSourceScanner scanner : scanners) {
+            ProgramSource source = scanner.source();
+            String token = changeTokenOf(scanner);
+            if (token != null && token.equals(previousTokens.get(source))) {
+                log.debug("{} 没有变化，跳过扫描", source);
+                continue;
+            }
+            try {
+                long scanStart = System.nanoTime();
+                List<ProgramInfo> programs = scanner.scan(onProgram);
+                scanned.put(source, programs);
+                if (token == null) {
+                    tokens.remove(source);
+                } else {
+                    tokens.put(source, token);
+                }
+                log.info("{} 重新扫描完成，共 {} 个程序，耗时 {} ms", source, programs.size(), (System.nanoTime() - scanStart) / 1_000_000);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("扫描 {} 失败，保留当前的程序", source, e);
+            }
+        }
+
+        if (scanned.isEmpty()) {
+            log.info("所有程序来源都没有变化，耗时 {} ms", (System.nanoTime() - start) / 1_000_000);
+            return new Result(current, tokens, Set.of());
+        }
+        Map<ProgramSource, List<ProgramInfo>> sources = new EnumMap<>(scanned);
+        for (ProgramSourceScanner scanner : scanners) {
+            if (!scanned.containsKey(scanner.source())) {
+                List<ProgramInfo> lastScan = lastScanOf(scanner);
+                if (lastScan != null) {
+                    sources.put(scanner.source(), lastScan);
+                }
+            }
+        }
+        List<ProgramInfo> programs = merge(current, sources);
+        log.info("程序发现完成，重新扫描了 {}，共 {} 个程序，耗时 {} ms",
+                scanned.keySet(), programs.size(), (System.nanoTime() - start) / 1_000_000);
+        return new Result(programs, tokens, EnumSet.copyOf(scanned.keySet()));
+    }
+
+    private static List<ProgramInfo> lastScanOf(ProgramSourceScanner scanner) {
+        try {
+            return scanner.lastScan();
+        } catch (Exception e) {
+            log.debug("无法得到 {} 上次的扫描结果，沿用当前的程序", scanner.source(), e);
+            return null;
+        }
+    }
+
+    private static String changeTokenOf(ProgramSourceScanner scanner) {
+        try {
+            return scanner.changeToken();
+        } catch (Exception e) {
+            log.debug("无法计算 {} 的变化标记", scanner.source(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 用给出的来源替换当前程序中对应来源的部分，再去掉与其它程序启动目标相同的快捷方式。
+     *
+     * @param current 当前的程序
+     * @param scanned 重新扫描或取回了上次扫描结果的来源及其完整的程序列表
+     * @return 合并后的程序列表
+     */
+    static List<ProgramInfo> merge(List<ProgramInfo> current, Map<ProgramSource, List<ProgramInfo>> scanned) {
+        List<ProgramInfo> installed = new ArrayList<>(current.size());
+        List<ProgramInfo> shortcuts = new ArrayList<>();
+        for (ProgramInfo programInfo : current) {
+            if (!scanned.containsKey(programInfo.getSource())) {
+                (programInfo.getSource() == ProgramSource.SHORTCUT ? shortcuts : installed).add(programInfo);
+            }
+        }
+        scanned.forEach((source, programs) -> (source == ProgramSource.SHORTCUT ? shortcuts : installed).addAll(programs));
+        return mergeShortcuts(installed, shortcuts);
+    }
+
+    /**
+     * 把快捷方式加入已安装的程序列表，启动目标已在列表中的快捷方式会被忽略。
+     *
+     * @param installed 注册表和 UWP 中的程序
+     * @param shortcuts 快捷方式对应的程序
+     * @return 合并后的程序列表
+     */
+    static List<ProgramInfo> mergeShortcuts(List<ProgramInfo> installed, List<ProgramInfo> shortcuts) {
+        Set<String> targets = new HashSet<>(installed.size() * 2);
+        Set<String> keys = new HashSet<>(installed.size() * 2);
+        for (ProgramInfo programInfo : installed) {
+            targets.add(AppLauncher.launchTargetOf(programInfo).toLowerCase(Locale.ROOT));
+            keys.add(dataBaseOperate.keyOf(programInfo));
+        }
+        List<ProgramInfo> merged = new ArrayList<>(installed);
+        for (ProgramInfo shortcut : shortcuts) {
+            if (targets.add(AppLauncher.launchTargetOf(shortcut).toLowerCase(Locale.ROOT))
+                    && keys.add(dataBaseOperate.keyOf(shortcut))) {
+                merged.add(shortcut);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramResult;
+import tech.minediamond.vortex.service.pinyin.PinyinIndex;
+import tech.minediamond.vortex.service.search.ResultRanker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 已安装程序的不可变索引。
+ * <p>
+ * 每个已启用的程序按显示名称排序后分配一个编号，索引包含：
+ * <ul>
+ *     <li>id 到程序信息的哈希表</li>
+ *     <li>n-gram 倒排表：显示名称、基础名称、程序名称（UWP 为 AUMID）和发行商中长度为 1 到 3 的所有子串到程序编号的映射</li>
+ *     <li>首字母缩写倒排表：缩写中长度至少为 2 的所有子串到程序编号的映射，用于 "vsc" 或 "vs code" 匹配 Visual Studio Code 这样的查询</li>
+ *     <li>中文名称的 {@link PinyinIndex}，用于 "wx" 或 "weixin" 匹配微信这样的查询</li>
+ * </ul>
+ * 查询时取最短的倒排表作为候选，再逐个验证和打分，数千个程序的目录中查询耗时在微秒级。
+ * 目录变化时由 {@link ProgramCatalogService} 在后台构建新的索引并整体替换，已有的索引不会被修改，可以被任意线程同时读取。
+ */
+public final class ProgramIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final int MIN_ACRONYM_LENGTH = 2;
+    private static final int[] NO_DOCS = new int[0];
+    // 名称之外的字段（发行商、程序名称）匹配时的分数，低于名称匹配，高于只有路径匹配
+    private static final double OTHER_FIELD_MATCH = ResultRanker.PATH_MATCH + 0.05;
+
+    public static final ProgramIndex EMPTY = build(List.of());
+
+    private final ProgramResult[] results;
+    private final String[] lowerNames;
+    private final String[] haystacks;
+    private final Map<String, ProgramInfo> byId;
+    private final Map<String, int[]> grams;
+    private final Map<String, int[]> acronyms;
+    private final PinyinIndex pinyin;
+
+    private ProgramIndex(ProgramResult[] results, String[] lowerNames, String[] haystacks, Map<String, ProgramInfo> byId,
+                         Map<String, int[]> grams, Map<String, int[]> acronyms, PinyinIndex pinyin) {
+        this.results = results;
+        this.lowerNames = lowerNames;
+        this.haystacks = haystacks;
+        this.byId = byId;
+        this.grams = grams;
+        this.acronyms = acronyms;
+        this.pinyin = pinyin;
+    }
+
+    /**
+     * 为一组程序构建索引，未启用或没有名称的程序不会出现在搜索结果中，但仍可以通过 id 找到。
+     *
+     * @param programInfos 程序列表
+     * @return 新的索引
+     */
+    public static ProgramIndex build(Collection<ProgramInfo> programInfos) {
+        Map<String, ProgramInfo> byId = new HashMap<>(programInfos.size() * 2);
+        List<ProgramResult> searchable = new ArrayList<>(programInfos.size());
+        for (ProgramInfo programInfo : programInfos) {
+            if (programInfo.getId() != null) {
+                byId.putIfAbsent(programInfo.getId(), programInfo);
+            }
+            if (Boolean.FALSE.equals(programInfo.getEnabled())) {
+                continue;
+            }
+            ProgramResult result = new ProgramResult(programInfo, AppLauncher.launchTargetOf(programInfo));
+            if (result.getFileName() != null) {
+                searchable.add(result);
+            }
+        }
+        searchable.sort(Comparator.comparing(ProgramResult::getFileName, String.CASE_INSENSITIVE_ORDER));
+
+        int size = searchable.size();
+        ProgramResult[] results = searchable.toArray(new ProgramResult[0]);
+        String[] lowerNames = new String[size];
+        String[] haystacks = new String[size];
+        Map<String, IntBuffer> gramBuffers = new HashMap<>();
+        Map<String, IntBuffer> acronymBuffers = new HashMap<>();
+        for (int doc = 0; doc < size; doc++) {
+            ProgramInfo info = results[doc].getProgramInfo();
+            lowerNames[doc] = results[doc].getFileName().toLowerCase(Locale.ROOT);
+            haystacks[doc] = haystackOf(lowerNames[doc], info);
+
+            String haystack = haystacks[doc];
+            for (int i = 0; i < haystack.length(); i++) {
+                for (int n = 1; n <= MAX_GRAM && i + n <= haystack.length(); n++) {
+                    if (haystack.charAt(i + n - 1) == '\n') {
+                        break;//n-gram 不跨越字段
+                    }
+                    gramBuffers.computeIfAbsent(haystack.substring(i, i + n), k -> new IntBuffer()).addDistinct(doc);
+                }
+            }
+            String acronym = ResultRanker.acronymOf(lowerNames[doc]);
+            for (int i = 0; i < acronym.length(); i++) {
+                for (int j = i + MIN_ACRONYM_LENGTH; j <= acronym.length(); j++) {
+                    acronymBuffers.computeIfAbsent(acronym.substring(i, j), k -> new IntBuffer()).addDistinct(doc);
+                }
+            }
+        }
+        return new ProgramIndex(results, lowerNames, haystacks, Map.copyOf(byId), toArrays(gramBuffers), toArrays(acronymBuffers),
+                PinyinIndex.build(lowerNames));
+    }
+
+    private static String haystackOf(String lowerName, ProgramInfo info) {
+        StringBuilder sb = new StringBuilder(lowerName);
+        for (String field : new String[]{info.getBaseName(), info.getProgramName(), info.getPublisher()}) {
+            if (field != null && !field.isEmpty()) {
+                sb.append('\n').append(field.toLowerCase(Locale.ROOT));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, IntBuffer> buffers) {
+        Map<String, int[]> arrays = new HashMap<>(buffers.size() * 2);
+        buffers.forEach((key, buffer) -> arrays.put(key, buffer.toArray()));
+        return arrays;
+    }
+
+    /**
+     * @param id 程序 id
+     * @return 对应的程序信息，不存在时返回 {@code null}
+     */
+    public ProgramInfo getById(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * @return 可搜索的程序数量
+     */
+    public int size() {
+        return results.length;
+    }
+
+    /**
+     * 搜索名称（或其它字段）包含所有查询词，或首字母缩写以查询开头，或拼音匹配查询的程序。
+     * <p>
+     * 有多个查询词时，名称不包含的查询词也可以是名称中连续几个词的首字母，例如 "vs code" 匹配 Visual Studio Code，
+     * 匹配规则见 {@link ResultRanker#nameMatchScore(String, String[])}。
+     *
+     * @param query 查询字符串
+     * @param limit 最多返回的结果数量
+     * @return 按匹配程度排列的程序结果，匹配程度相同时按名称排列
+     */
+    public List<ProgramResult> search(String query, int limit) {
+        String[] terms = ResultRanker.terms(query);
+        if (terms.length == 0 || limit <= 0 || results.length == 0) {
+            return List.of();
+        }
+
+        // 每个查询词的候选是包含它的程序和首字母缩写中有它的程序，取最短的一个
+        int[] candidates = null;
+        for (String term : terms) {
+            int[] postings = union(postingsOf(term), acronyms.getOrDefault(term, NO_DOCS));
+            if (candidates == null || postings.length < candidates.length) {
+                candidates = postings;
+            }
+        }
+        int[] pinyinCandidates = pinyin.search(query, limit);
+
+        // 只保留分数最高的 limit 个结果，分数相同时编号小（名称靠前）的优先
+        TopK top = new TopK(Math.min(limit, candidates.length + pinyinCandidates.length));
+        for (int doc : candidates) {
+            double score = score(doc, terms);
+            if (score > ResultRanker.PATH_MATCH) {
+                top.offer(doc, score);
+            }
+        }
+        for (int doc : pinyinCandidates) {
+            if (Arrays.binarySearch(candidates, doc) < 0) {//已在上面打过分
+                top.offer(doc, ResultRanker.nameMatchScore(lowerNames[doc], terms));
+            }
+        }
+
+        List<ProgramResult> matched = new ArrayList<>(top.size);
+        for (int i = 0; i < top.size; i++) {
+            matched.add(results[top.docs[i]]);
+        }
+        return matched;
+    }
+
+    private double score(int doc, String[] terms) {
+        double score = ResultRanker.nameMatchScore(lowerNames[doc], terms);
+        if (score > ResultRanker.PATH_MATCH) {
+            return score;
+        }
+        String haystack = haystacks[doc];
+        for (String term : terms) {
+            if (!haystack.contains(term)) {
+                return ResultRanker.PATH_MATCH;
+            }
+        }
+        return OTHER_FIELD_MATCH;
+    }
+
+    /**
+     * 获取可能包含某个查询词的程序编号，结果按编号递增。较长的查询词取其所有 3-gram 中最短的倒排表。
+     */
+    private int[] postingsOf(String term) {
+        if (term.length() <= MAX_GRAM) {
+            return grams.getOrDefault(term, NO_DOCS);
+        }
+        int[] shortest = null;
+        for (int i = 0; i + MAX_GRAM <= term.length(); i++) {
+            int[] postings = grams.getOrDefault(term.substring(i, i + MAX_GRAM), NO_DOCS);
+            if (shortest == null || postings.length < shortest.length) {
+                shortest = postings;
+            }
+        }
+        return shortest;
+    }
+
+    /**
+     * 合并两个递增的编号数组，结果仍然递增且没有重复
+     */
+    private static int[] union(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b;
+        }
+        int[] merged = new int[a.length + b.length];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            merged[size++] = next;
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * 按分数从高到低保存前 k 个结果，k 很小，插入排序即可
+     */
+    private static final class TopK {
+        private final int[] docs;
+        private final double[] scores;
+        private int size = 0;
+
+        TopK(int k) {
+            docs = new int[k];
+            scores = new double[k];
+        }
+
+        void offer(int doc, double score) {
+            int k = docs.length;
+            if (k == 0 || (size == k && !better(doc, score, docs[k - 1], scores[k - 1]))) {
+                return;
+            }
+            int i = size < k ? size++ : k - 1;
+            while (i > 0 && better(doc, score, docs[i - 1], scores[i - 1])) {
+                docs[i] = docs[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            docs[i] = doc;
+            scores[i] = score;
+        }
+
+        private static boolean better(int doc, double score, int otherDoc, double otherScore) {
+            return score > otherScore || (score == otherScore && doc < otherDoc);
+        }
+    }
+
+    /**
+     * 构建倒排表时使用的可增长 int 数组，文档按编号递增加入
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[4];
+        private int size = 0;
+
+        void addDistinct(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
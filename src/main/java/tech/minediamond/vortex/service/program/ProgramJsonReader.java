@@ -0,0 +1,107 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * 流式读取程序扫描脚本输出的 JSON。
+ * <p>
+ * 扫描脚本每扫描到一个程序就输出一行 JSON 对象，这里用 {@link JsonParser} 依次读取顶层的每个值，
+ * 也兼容把整个管道交给 {@code ConvertTo-Json} 时输出的数组（只有一个程序时只输出这个对象）。
+ * 每读完一个对象就规范化并交给调用方，不需要先把整个输出读入内存，
+ * 调用方可以在扫描结束前就开始处理已经扫描到的程序。
+ */
+public final class ProgramJsonReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private ProgramJsonReader() {
+    }
+
+    /**
+     * 读取输入流中的所有程序，被 {@link #normalize(ProgramInfo)} 过滤掉的程序不会交给 {@code sink}。
+     *
+     * @param in   扫描脚本的输出，读取完毕后不会关闭
+     * @param sink 按输出顺序接收每个程序
+     * @return 交给 {@code sink} 的程序数量
+     * @throws IOException 读取失败或输出不是合法的 JSON 时抛出
+     */
+    public static int read(InputStream in, Consumer<ProgramInfo> sink) throws IOException {
+        int count = 0;
+        try (JsonParser parser = MAPPER.getFactory().createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    ProgramInfo programInfo = MAPPER.readValue(parser, ProgramInfo.class);
+                    if (normalize(programInfo)) {
+                        sink.accept(programInfo);
+                        count++;
+                    }
+                } else if (token != JsonToken.START_ARRAY && token != JsonToken.END_ARRAY && token != JsonToken.VALUE_NULL) {
+                    parser.skipChildren();//不是程序对象的值
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 规范化一个扫描到的程序：
+     * <ul>
+     *     <li>显示名称默认为基础名称</li>
+     *     <li>空的安装位置视为没有安装位置</li>
+     *     <li>注册表中的程序必须有程序名称和安装位置，安装位置以 "\" 结尾</li>
+     * </ul>
+     *
+     * @param programInfo 扫描到的程序，会被原地修改
+     * @return 程序是否应该保留
+     */
+    static boolean normalize(ProgramInfo programInfo) {
+        if (programInfo.getBaseName() == null || programInfo.getBaseName().isBlank()) {
+            return false;
+        }
+        programInfo.setDisplayName(programInfo.getBaseName());
+        if (programInfo.getInstallLocation() != null && programInfo.getInstallLocation().isEmpty()) {
+            programInfo.setInstallLocation(null);
+        }
+        if (programInfo.getSource() == ProgramSource.REGISTRY) {
+            if (programInfo.getProgramName() == null || programInfo.getInstallLocation() == null) {
+                return false;
+            }
+            if (!programInfo.getInstallLocation().endsWith("\\")) {
+                programInfo.setInstallLocation(programInfo.getInstallLocation() + "\\");
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 一种程序来源的扫描器，由 {@link ProgramDiscovery} 调用。
+ * <p>
+ * 完整扫描通常很慢，因此每个扫描器还要提供一个廉价的变化标记，例如注册表项的最后写入时间、应用包的数量或目录的修改时间。
+ * 标记与上次扫描时相同的来源不会重新扫描。
+ */
+public interface ProgramSourceScanner {
+
+    /**
+     * @return 扫描得到的程序的来源，每个扫描器的来源各不相同
+     */
+    ProgramSource source();
+
+    /**
+     * 计算当前的变化标记，应在几毫秒内完成。
+     * <p>
+     * 来源中的程序发生变化时标记也应该变化；标记变化而程序没有变化只会多扫描一次。
+     *
+     * @return 变化标记，无法判断时返回 {@code null}，此时总是重新扫描
+     * @throws Exception 计算失败时抛出，效果与返回 {@code null} 相同
+     */
+    String changeToken() throws Exception;
+
+    /**
+     * 完整扫描这个来源中的程序。
+     *
+     * @param onProgram 每得到一个程序就立即调用一次，在调用线程中执行
+     * @return 扫描到的所有程序，来源都是 {@link #source()}
+     * @throws Exception 扫描失败时抛出，这个来源的程序保持不变
+     */
+    List<ProgramInfo> scan(Consumer<ProgramInfo> onProgram) throws Exception;
+
+    /**
+     * 不重新扫描，得到上次完整扫描的结果。
+     * <p>
+     * 目录中保存的是合并去重之后的程序，去掉的程序不在其中。其它来源变化时，{@link ProgramDiscovery} 用这个方法取回
+     * 没有变化的来源的完整结果重新去重，使因为重复而被去掉的程序在重复消失后能重新出现。
+     *
+     * @return 上次扫描的结果，无法得到时返回 {@code null}，此时沿用当前目录中这个来源的程序
+     * @throws Exception 读取失败时抛出，效果与返回 {@code null} 相同
+     */
+    default List<ProgramInfo> lastScan() throws Exception {
+        return null;
+    }
+}
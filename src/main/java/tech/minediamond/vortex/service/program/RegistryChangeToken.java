@@ -0,0 +1,89 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import com.sun.jna.platform.win32.Advapi32Util;
+import com.sun.jna.platform.win32.Win32Exception;
+import com.sun.jna.platform.win32.WinNT;
+import com.sun.jna.platform.win32.WinReg;
+
+/**
+ * 根据注册表项的最后写入时间计算 {@link ProgramSourceScanner#changeToken()}，只读取注册表项的元数据，不读取值。
+ * <p>
+ * 新增或删除子项会更新父项的最后写入时间，但修改子项中的值只会更新子项自己的，因此需要时也要遍历一层子项。
+ */
+final class RegistryChangeToken {
+
+    private final StringBuilder token = new StringBuilder();
+
+    /**
+     * 加入一个注册表项的子项数量和最后写入时间，注册表项不存在时记为缺失。
+     *
+     * @param root        根项
+     * @param path        注册表项的路径
+     * @param withSubKeys 是否同时加入每个子项的最后写入时间中最大的一个
+     * @return this
+     */
+    RegistryChangeToken add(WinReg.HKEY root, String path, boolean withSubKeys) {
+        token.append(path).append('=');
+        WinReg.HKEY key;
+        try {
+            key = Advapi32Util.registryGetKey(root, path, WinNT.KEY_READ).getValue();
+        } catch (Win32Exception e) {
+            token.append("missing;");
+            return this;
+        }
+        try {
+            Advapi32Util.InfoKey info = Advapi32Util.registryQueryInfoKey(key, 0);
+            long lastWrite = info.lpftLastWriteTime.toTime();
+            token.append(info.lpcSubKeys.getValue()).append(',').append(lastWrite);
+            if (withSubKeys) {
+                long latest = 0;
+                for (String subKey : Advapi32Util.registryGetKeys(key)) {
+                    latest = Math.max(latest, lastWriteTime(key, subKey));
+                }
+                token.append(',').append(latest);
+            }
+            token.append(';');
+        } finally {
+            Advapi32Util.registryCloseKey(key);
+        }
+        return this;
+    }
+
+    private static long lastWriteTime(WinReg.HKEY parent, String subKey) {
+        try {
+            WinReg.HKEY key = Advapi32Util.registryGetKey(parent, subKey, WinNT.KEY_READ).getValue();
+            try {
+                return Advapi32Util.registryQueryInfoKey(key, 0).lpftLastWriteTime.toTime();
+            } finally {
+                Advapi32Util.registryCloseKey(key);
+            }
+        } catch (Win32Exception e) {
+            return 0;//子项在遍历期间被删除或没有读取权限
+        }
+    }
+
+    @Override
+    public String toString() {
+        return token.toString();
+    }
+}
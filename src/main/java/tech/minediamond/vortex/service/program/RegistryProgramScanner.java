@@ -0,0 +1,61 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import com.google.inject.Singleton;
+import com.sun.jna.platform.win32.WinReg;
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 扫描注册表卸载列表中的程序。
+ * <p>
+ * 变化标记由三个卸载列表及其每个子项的最后写入时间组成，安装、卸载和更新程序都会改变它。
+ */
+@Singleton
+public class RegistryProgramScanner implements ProgramSourceScanner {
+
+    private static final String UNINSTALL_KEY = "Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall";
+    private static final String WOW64_UNINSTALL_KEY = "Software\\Wow6432Node\\Microsoft\\Windows\\CurrentVersion\\Uninstall";
+
+    @Override
+    public ProgramSource source() {
+        return ProgramSource.REGISTRY;
+    }
+
+    @Override
+    public String changeToken() {
+        return new RegistryChangeToken()
+                .add(WinReg.HKEY_LOCAL_MACHINE, UNINSTALL_KEY, true)
+                .add(WinReg.HKEY_LOCAL_MACHINE, WOW64_UNINSTALL_KEY, true)
+                .add(WinReg.HKEY_CURRENT_USER, UNINSTALL_KEY, true)
+                .toString();
+    }
+
+    @Override
+    public List<ProgramInfo> scan(Consumer<ProgramInfo> onProgram) throws IOException, InterruptedException {
+        return findApplications.runScript(findApplications.REGISTRY_SCRIPT, onProgram);
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import mslinks.ShellLink;
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+import tech.minediamond.vortex.service.database.SqliteStore;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * 扫描开始菜单和桌面上的快捷方式，把指向可执行文件的快捷方式作为程序加入目录。
+ * <p>
+ * 很多便携软件和手动安装的程序不会出现在注册表的卸载列表中，但通常会在开始菜单或桌面留下快捷方式。
+ * <p>
+ * 快捷方式由 mslinks 在一个有界线程池中并行解析，解析结果按路径、修改时间和大小缓存在数据库的 {@code shortcut} 表中，
+ * 之后的扫描只解析新增或变化的快捷方式。
+ * <p>
+ * 作为 {@link ProgramSourceScanner} 时扫描 {@link #defaultRoots()}，变化标记由这些目录及其子目录的修改时间，
+ * 以及其中每个快捷方式的路径、修改时间和大小组成。目录的修改时间只反映文件的新增、删除和重命名，
+ * 因此还要包含快捷方式本身的属性，修改已有快捷方式的目标同样会触发重新扫描。计算标记只读取文件属性，不解析快捷方式。
+ */
+@Slf4j
+@Singleton
+public class ShortcutScanner implements ProgramSourceScanner {
+
+    static final int MAX_PARSER_THREADS = 4;
+
+    private static final String LINK_EXTENSION = ".lnk";
+    private static final String EXECUTABLE_EXTENSION = ".exe";
+    // 卸载程序的快捷方式不作为程序显示
+    private static final String[] UNINSTALLER_KEYWORDS = {"uninstall", "unins0", "卸载"};
+    // 64 位 FNV-1a 哈希的初始值和乘数
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final SqliteStore store;
+
+    @Inject
+    public ShortcutScanner(SqliteStore store) {
+        this.store = store;
+    }
+
+    /**
+     * 一次扫描的结果
+     *
+     * @param programs 快捷方式对应的程序，已按启动目标去重
+     * @param parsed   本次重新解析的快捷方式数量
+     * @param reused   直接使用缓存结果的快捷方式数量
+     */
+    public record ScanResult(List<ProgramInfo> programs, int parsed, int reused) {
+    }
+
+    // 缓存中的一条记录，target 为 null 表示快捷方式不指向程序或无法解析
+    private record CachedLink(long mtime, long size, String target) {
+    }
+
+    private record LinkFile(Path path, long mtime, long size) {
+    }
+
+    /**
+     * @return 当前用户和所有用户的开始菜单程序目录以及桌面目录，不存在的目录会在扫描时跳过
+     */
+    public static List<Path> defaultRoots() {
+        List<Path> roots = new ArrayList<>();
+        addRoot(roots, System.getenv("ProgramData"), "Microsoft\\Windows\\Start Menu\\Programs");
+        addRoot(roots, System.getenv("APPDATA"), "Microsoft\\Windows\\Start Menu\\Programs");
+        addRoot(roots, System.getenv("PUBLIC"), "Desktop");
+        addRoot(roots, System.getenv("USERPROFILE"), "Desktop");
+        return roots;
+    }
+
+    private static void addRoot(List<Path> roots, String base, String child) {
+        if (base != null && !base.isBlank()) {
+            roots.add(Path.of(base, child));
+        }
+    }
+
+    @Override
+    public ProgramSource source() {
+        return ProgramSource.SHORTCUT;
+    }
+
+    @Override
+    public String changeToken() throws IOException {
+        return linkToken(defaultRoots());
+    }
+
+    @Override
+    public List<ProgramInfo> scan(Consumer<ProgramInfo> onProgram) throws SQLException, InterruptedException {
+        return scan(defaultRoots(), onProgram).programs();
+    }
+
+    @Override
+    public List<ProgramInfo> lastScan() throws SQLException {
+        return cachedPrograms(defaultRoots());
+    }
+
+    /**
+     * 计算目录及其所有子目录的修改时间，以及其中所有快捷方式的路径、修改时间和大小的哈希，只读取文件属性。
+     * <p>
+     * 每个目录和快捷方式单独求哈希后相加，结果与遍历顺序无关。
+     *
+     * @param roots 要检查的目录，不存在的目录也会影响结果
+     * @return 目录数量、快捷方式数量和哈希组成的标记
+     */
+    static String linkToken(List<Path> roots) throws IOException {
+        int[] counts = {0, 0};//目录数量、快捷方式数量
+        long[] state = {0};
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                state[0] += mix(FNV_OFFSET, root.toString().hashCode());
+                continue;
+            }
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    counts[0]++;
+                    state[0] += mix(mix(FNV_OFFSET, dir.toString().hashCode()), attrs.lastModifiedTime().toMillis());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(LINK_EXTENSION)) {
+                        counts[1]++;
+                        long hash = mix(mix(FNV_OFFSET, file.toString().hashCode()), attrs.lastModifiedTime().toMillis());
+                        state[0] += mix(hash, attrs.size());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return counts[0] + ":" + counts[1] + ":" + Long.toHexString(state[0]);
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash ^ (value & 0xFF)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    /**
+     * 扫描目录下的所有快捷方式，并把缓存更新为本次扫描的结果，不再存在的快捷方式会从缓存中删除。
+     * <p>
+     * 多个快捷方式指向同一个程序时只保留最先扫描到的一个，因此开始菜单应排在桌面之前。
+     *
+     * @param roots     要扫描的目录，按顺序扫描
+     * @param onProgram 每得到一个程序就立即调用一次，在调用线程中执行
+     * @return 扫描结果
+     * @throws SQLException 读写缓存失败时抛出
+     */
+    public ScanResult scan(List<Path> roots, Consumer<ProgramInfo> onProgram) throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+        Map<String, CachedLink> cache = readCache();
+        List<LinkFile> links = new ArrayList<>();
+        for (Path root : roots) {
+            collectLinks(root, links);
+        }
+
+        // 修改时间或大小变化的快捷方式交给线程池解析，其余的直接使用缓存
+        List<Future<String>> pending = new ArrayList<>(links.size());
+        ExecutorService parsers = null;
+        int reused = 0;
+        for (LinkFile link : links) {
+            CachedLink cached = cache.get(link.path().toString());
+            if (cached != null && cached.mtime() == link.mtime() && cached.size() == link.size()) {
+                pending.add(null);
+                reused++;
+                continue;
+            }
+            if (parsers == null) {
+                parsers = newParserPool();
+            }
+            pending.add(parsers.submit(() -> parseTarget(link.path())));
+        }
+
+        List<ProgramInfo> programs = new ArrayList<>();
+        Map<String, CachedLink> changed = new HashMap<>();
+        Set<String> targets = new HashSet<>();
+        try {
+            for (int i = 0; i < links.size(); i++) {
+                LinkFile link = links.get(i);
+                String key = link.path().toString();
+                String target;
+                if (pending.get(i) == null) {
+                    target = cache.get(key).target();
+                } else {
+                    target = pending.get(i).get();
+                    changed.put(key, new CachedLink(link.mtime(), link.size(), target));
+                }
+                ProgramInfo programInfo = addProgram(programs, targets, link.path(), target);
+                if (programInfo != null) {
+                    onProgram.accept(programInfo);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("解析快捷方式失败", e.getCause());
+        } finally {
+            if (parsers != null) {
+                parsers.shutdownNow();
+            }
+        }
+
+        Set<String> removed = new HashSet<>(cache.keySet());
+        links.forEach(link -> removed.remove(link.path().toString()));
+        writeCache(changed, removed);
+        log.info("快捷方式扫描完成，共 {} 个快捷方式，{} 个程序，解析 {} 个，使用缓存 {} 个，耗时 {} ms",
+                links.size(), programs.size(), changed.size(), reused, (System.nanoTime() - start) / 1_000_000);
+        return new ScanResult(programs, changed.size(), reused);
+    }
+
+    /**
+     * 不访问文件系统，用缓存得到上次 {@link #scan(List, Consumer)} 的程序列表。
+     * <p>
+     * 每次扫描后缓存中正好是扫描到的快捷方式，这里按与扫描相同的顺序（目录的顺序，目录内按路径）转换和去重，结果与上次扫描相同。
+     *
+     * @param roots 上次扫描的目录，不在这些目录下的缓存记录会被忽略
+     * @return 上次扫描得到的程序
+     * @throws SQLException 读取缓存失败时抛出
+     */
+    public List<ProgramInfo> cachedPrograms(List<Path> roots) throws SQLException {
+        Map<String, CachedLink> cache = readCache();
+        List<ProgramInfo> programs = new ArrayList<>();
+        Set<String> targets = new HashSet<>();
+        for (Path root : roots) {
+            Path absoluteRoot = root.toAbsolutePath();
+            List<Path> links = new ArrayList<>();
+            for (String path : cache.keySet()) {
+                Path link = Path.of(path);
+                if (link.startsWith(absoluteRoot)) {
+                    links.add(link);
+                }
+            }
+            links.sort(Comparator.naturalOrder());
+            for (Path link : links) {
+                addProgram(programs, targets, link, cache.get(link.toString()).target());
+            }
+        }
+        return programs;
+    }
+
+    // 把快捷方式转换为程序加入列表，启动目标已在列表中时忽略，返回加入的程序
+    private static ProgramInfo addProgram(List<ProgramInfo> programs, Set<String> targets, Path link, String target) {
+        ProgramInfo programInfo = toProgramInfo(link, target);
+        if (programInfo == null || !targets.add(target.toLowerCase(Locale.ROOT))) {
+            return null;
+        }
+        programs.add(programInfo);
+        return programInfo;
+    }
+
+    private static ExecutorService newParserPool() {
+        int threads = Math.min(MAX_PARSER_THREADS, Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Shortcut Parser");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static void collectLinks(Path root, List<LinkFile> links) {
+        if (!Files.isDirectory(root)) {
+            log.debug("快捷方式目录不存在，跳过: {}", root);
+            return;
+        }
+        List<LinkFile> found = new ArrayList<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(LINK_EXTENSION)) {
+                        found.add(new LinkFile(file.toAbsolutePath(), attrs.lastModifiedTime().toMillis(), attrs.size()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    log.debug("无法访问 {}", file, e);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("扫描快捷方式目录失败: {}", root, e);
+        }
+        // 目录遍历顺序与文件系统有关，排序后同一个程序的多个快捷方式总是保留同一个
+        found.sort(Comparator.comparing(LinkFile::path));
+        links.addAll(found);
+    }
+
+    /**
+     * 解析快捷方式的目标，在解析线程中执行。
+     *
+     * @return 目标路径，快捷方式无法解析或没有目标时返回 {@code null}
+     */
+    private static String parseTarget(Path link) {
+        try {
+            String target = new ShellLink(link).resolveTarget();
+            return target == null || target.isBlank() ? null : target;
+        } catch (Exception e) {
+            log.debug("无法解析快捷方式 {}", link, e);
+            return null;
+        }
+    }
+
+    /**
+     * 把指向可执行文件的快捷方式转换为程序信息。
+     * <p>
+     * 快捷方式的目标是 Windows 路径，这里只按字符串处理，不依赖当前系统的路径格式。
+     *
+     * @param link   快捷方式文件
+     * @param target 快捷方式的目标
+     * @return 程序信息，快捷方式不指向程序或指向卸载程序时返回 {@code null}
+     */
+    static ProgramInfo toProgramInfo(Path link, String target) {
+        if (target == null || !target.toLowerCase(Locale.ROOT).endsWith(EXECUTABLE_EXTENSION)) {
+            return null;
+        }
+        int separator = Math.max(target.lastIndexOf('\\'), target.lastIndexOf('/'));
+        if (separator < 0) {
+            return null;
+        }
+        String linkName = link.getFileName().toString();
+        String name = linkName.substring(0, linkName.length() - LINK_EXTENSION.length()).strip();
+        String programName = target.substring(separator + 1);
+        if (name.isEmpty() || isUninstaller(name) || isUninstaller(programName)) {
+            return null;
+        }
+
+        ProgramInfo programInfo = new ProgramInfo();
+        programInfo.setBaseName(name);
+        programInfo.setDisplayName(name);
+        programInfo.setProgramName(programName);
+        programInfo.setInstallLocation(target.substring(0, separator + 1));
+        programInfo.setSource(ProgramSource.SHORTCUT);
+        programInfo.setPath(link);
+        return programInfo;
+    }
+
+    private static boolean isUninstaller(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String keyword : UNINSTALLER_KEYWORDS) {
+            if (lower.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, CachedLink> readCache() throws SQLException {
+        return store.read(conn -> {
+            Map<String, CachedLink> cache = new HashMap<>();
+            try (ResultSet rs = store.prepare("SELECT path, mtime, size, target FROM shortcut").executeQuery()) {
+                while (rs.next()) {
+                    cache.put(rs.getString(1), new CachedLink(rs.getLong(2), rs.getLong(3), rs.getString(4)));
+                }
+            }
+            return cache;
+        });
+    }
+
+    private void writeCache(Map<String, CachedLink> changed, Set<String> removed) throws SQLException {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        store.transaction(conn -> {
+            PreparedStatement upsert = store.prepare("INSERT INTO shortcut(path, mtime, size, target) VALUES (?, ?, ?, ?) "
+                    + "ON CONFLICT(path) DO UPDATE SET mtime = excluded.mtime, size = excluded.size, target = excluded.target");
+            for (Map.Entry<String, CachedLink> entry : changed.entrySet()) {
+                upsert.setString(1, entry.getKey());
+                upsert.setLong(2, entry.getValue().mtime());
+                upsert.setLong(3, entry.getValue().size());
+                upsert.setString(4, entry.getValue().target());
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+
+            PreparedStatement delete = store.prepare("DELETE FROM shortcut WHERE path = ?");
+            for (String path : removed) {
+                delete.setString(1, path);
+                delete.addBatch();
+            }
+            delete.executeBatch();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import com.google.inject.Singleton;
+import com.sun.jna.platform.win32.WinReg;
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 扫描当前用户已安装的 UWP 应用。
+ * <p>
+ * 变化标记是当前用户应用包仓库的子项数量和最后写入时间。每个应用包的每个版本都是一个子项，
+ * 安装、卸载和更新应用都会增删子项，不必启动 PowerShell 调用 {@code Get-AppxPackage}。
+ */
+@Singleton
+public class UwpProgramScanner implements ProgramSourceScanner {
+
+    private static final String PACKAGE_REPOSITORY_KEY =
+            "Software\\Classes\\Local Settings\\Software\\Microsoft\\Windows\\CurrentVersion\\AppModel\\Repository\\Packages";
+
+    @Override
+    public ProgramSource source() {
+        return ProgramSource.UWP;
+    }
+
+    @Override
+    public String changeToken() {
+        return new RegistryChangeToken()
+                .add(WinReg.HKEY_CURRENT_USER, PACKAGE_REPOSITORY_KEY, false)
+                .toString();
+    }
+
+    @Override
+    public List<ProgramInfo> scan(Consumer<ProgramInfo> onProgram) throws IOException, InterruptedException {
+        return findApplications.runScript(findApplications.UWP_SCRIPT, onProgram);
+    }
+}
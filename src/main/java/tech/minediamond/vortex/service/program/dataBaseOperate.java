@@ -19,59 +19,29 @@
 
 package tech.minediamond.vortex.service.program;
 
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
 import tech.minediamond.vortex.model.program.ProgramInfo;
 import tech.minediamond.vortex.model.program.ProgramSource;
+import tech.minediamond.vortex.service.database.SqliteStore;
 
 import java.nio.file.Path;
 import java.sql.*;
 import java.util.*;
 
+/**
+ * 程序目录在本地数据库中的读写操作，数据库连接由 {@link SqliteStore} 管理。
+ */
+@Slf4j
+@Singleton
 public class dataBaseOperate {
-    private static final String DB_URL = "jdbc:sqlite:installed_software.db";
-
-    // 1. 将构造函数设为私有，防止外部直接 new
-    private dataBaseOperate() {
-        // 在实例被创建时，确保表结构存在
-        createTable();
-    }
-
-    // 2. 创建一个私有的静态内部类来持有单例实例
-    private static class SingletonHolder {
-        private static final dataBaseOperate INSTANCE = new dataBaseOperate();
-    }
-
-    // 3. 提供一个公共的静态方法来获取这个唯一的实例
-    public static dataBaseOperate getInstance() {
-        return SingletonHolder.INSTANCE;
-    }
-
-    private Connection connect() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
-    }
 
-    /**
-     * 创建软件信息表 (如果不存在)
-     */
-    public void createTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS software (\n"
-                + "id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
-                + "baseName TEXT NOT NULL,\n"
-                + "displayName TEXT,\n"
-                + "programName TEXT,\n"
-                + "version TEXT,\n"
-                + "publisher TEXT,\n"
-                + "installLocation TEXT,\n"
-                + "source TEXT,\n"
-                + "enabled TEXT,\n"
-                + "path TEXT\n"
-                + ");";
+    private final SqliteStore store;
 
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-        } catch (SQLException e) {
-            System.err.println("Error creating table: " + e.getMessage());
-        }
+    @Inject
+    public dataBaseOperate(SqliteStore store) {
+        this.store = store;
     }
 
     /**
@@ -80,217 +50,275 @@ public class dataBaseOperate {
     public void insertSoftwareList(List<ProgramInfo> programInfoList) throws SQLException {
         String sql = "INSERT INTO software(baseName, displayName, version, publisher, installLocation, enabled) VALUES(?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = connect()) {
-            // 关闭自动提交，开启事务
-            conn.setAutoCommit(false);
-
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                for (ProgramInfo software : programInfoList) {
-                    pstmt.setString(1, software.getBaseName());
-                    pstmt.setString(2, software.getDisplayName());
-                    pstmt.setString(3, software.getVersion());
-                    pstmt.setString(4, software.getPublisher());
-                    pstmt.setString(5, software.getInstallLocation());
-                    pstmt.setString(6, software.getEnabled().toString());
-                    pstmt.addBatch();
-                }
-                pstmt.executeBatch();
-                conn.commit(); // 提交事务
-                System.out.println(programInfoList.size() + " records inserted/replaced successfully.");
-            } catch (SQLException e) {
-                conn.rollback(); // 如果出错，回滚事务
-                System.err.println("Transaction rolled back. Error: " + e.getMessage());
+        store.transaction(conn -> {
+            PreparedStatement pstmt = store.prepare(sql);
+            for (ProgramInfo software : programInfoList) {
+                pstmt.setString(1, software.getBaseName());
+                pstmt.setString(2, software.getDisplayName());
+                pstmt.setString(3, software.getVersion());
+                pstmt.setString(4, software.getPublisher());
+                pstmt.setString(5, software.getInstallLocation());
+                pstmt.setString(6, software.getEnabled().toString());
+                pstmt.addBatch();
             }
-        }
+            pstmt.executeBatch();
+            bumpGeneration();
+            return null;
+        });
+        log.info("{} records inserted/replaced successfully.", programInfoList.size());
     }
 
-    // 在 dataBaseOperate.java 中
-
     /**
      * 同步软件列表到数据库，处理新增、更新和删除。
-     * 使用 displayName + version 作为唯一标识来查找记录。
-     * 任何字段（包括 installLocation）的变化都会触发更新。
+     * <p>
+     * 使用 displayName + installLocation 作为唯一标识（installLocation 为空字符串和 null 视为相同）：
+     * <ol>
+     *     <li>一次查询读出整张表，按标识放入哈希表，同一标识有多条记录时只保留 id 最小的一条</li>
+     *     <li>在内存中比较扫描得到的字段的内容哈希，得到需要新增、更新和删除的记录</li>
+     *     <li>在一个事务中批量执行 {@code INSERT ... ON CONFLICT(id) DO UPDATE}（新增时 id 为 null）和 {@code DELETE}</li>
+     * </ol>
+     * 更新时保留数据库中的 enabled，即用户禁用的程序重新扫描后仍然是禁用的。
+     * <p>
+     * 有任何记录变化时，在同一个事务中把程序表的代数加一，见 {@link #readGeneration()}。
      *
      * @param latestProgramList 最新的软件信息列表
+     * @return 同步结果
      * @throws SQLException 如果发生数据库错误
      */
-    public void syncSoftwareList(List<ProgramInfo> latestProgramList) throws SQLException {
-        // SQL 语句
-        String selectWithVersionSql = "SELECT * FROM software WHERE displayName = ? AND installLocation = ?";
-        String selectWithoutVersionSql = "SELECT * FROM software WHERE displayName = ? AND installLocation IS NULL";
-        String insertSql = "INSERT INTO software(baseName, displayName, programName, version, publisher, installLocation, source, enabled, path) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        // 更新时，我们更新所有可能变化的字段
-        String updateSql = "UPDATE software SET baseName = ?, programName = ?,publisher = ?, version = ?, source = ?, enabled = ?, path = ? WHERE id = ?";
-
-        Connection conn = null;
-        try {
-            conn = connect();
-            conn.setAutoCommit(false); // 开启事务
-
-            // 预编译所有需要的语句
-            PreparedStatement selectWithVersionStmt = conn.prepareStatement(selectWithVersionSql);
-            PreparedStatement selectWithoutVersionStmt = conn.prepareStatement(selectWithoutVersionSql);
-            PreparedStatement insertStmt = conn.prepareStatement(insertSql);
-            PreparedStatement updateStmt = conn.prepareStatement(updateSql);
-
-            int insertedCount = 0;
-            int updatedCount = 0;
-
-            // 1. 处理新增和更新
-            for (ProgramInfo newProgram : latestProgramList) {
-                // 用“钥匙”查找数据库中的记录
-                PreparedStatement currentSelectStmt;
-                if (newProgram.getInstallLocation() != null && !newProgram.getInstallLocation().isEmpty()) {
-                    // 情况一：版本号存在
-                    currentSelectStmt = selectWithVersionStmt;
-                    currentSelectStmt.setString(1, newProgram.getDisplayName());
-                    currentSelectStmt.setString(2, newProgram.getInstallLocation());
-                } else {
-                    // 情况二：版本号为 null 或为空字符串
-                    currentSelectStmt = selectWithoutVersionStmt;
-                    currentSelectStmt.setString(1, newProgram.getDisplayName());
-                }
-                ResultSet rs = currentSelectStmt.executeQuery();
-
-                if (rs.next()) { // 找到了匹配的记录
-                    long dbId = rs.getLong("id");
-
-                    // 从数据库记录创建一个 ProgramInfo 对象，用于比较
-                    ProgramInfo dbProgram = new ProgramInfo();
-                    dbProgram.setBaseName(rs.getString("baseName"));
-                    dbProgram.setDisplayName(rs.getString("displayName"));
-                    dbProgram.setProgramName(rs.getString("programName"));
-                    dbProgram.setVersion(rs.getString("version"));
-                    dbProgram.setPublisher(rs.getString("publisher"));
-                    dbProgram.setInstallLocation(rs.getString("installLocation"));
-                    dbProgram.setEnabled(Boolean.parseBoolean(rs.getString("enabled")));
-                    dbProgram.setPath(Optional.ofNullable((rs.getString("path"))).map(Path::of).orElse(null));
-
-
-                    if (!newProgram.equals(dbProgram)) {
-
-                        updateStmt.setString(1, newProgram.getBaseName());
-                        updateStmt.setString(2, newProgram.getProgramName());
-                        updateStmt.setString(3, newProgram.getPublisher());
-                        updateStmt.setString(4, newProgram.getVersion());
-                        updateStmt.setString(5, newProgram.getSource().toString());
-                        updateStmt.setString(6, newProgram.getEnabled().toString());
-                        updateStmt.setString(7, Optional.ofNullable(newProgram.getPath()).map(Path::toString).orElse(null));
-                        updateStmt.setLong(8, dbId); // 用主键 id 来更新，最精确
+    public SyncResult syncSoftwareList(List<ProgramInfo> latestProgramList) throws SQLException {
+        String selectSql = "SELECT id, baseName, displayName, programName, version, publisher, installLocation, source, path FROM software ORDER BY id";
+        String upsertSql = "INSERT INTO software(id, baseName, displayName, programName, version, publisher, installLocation, source, enabled, path) "
+                + "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                + "ON CONFLICT(id) DO UPDATE SET baseName = excluded.baseName, programName = excluded.programName, version = excluded.version, "
+                + "publisher = excluded.publisher, installLocation = excluded.installLocation, source = excluded.source, path = excluded.path";
+        String deleteSql = "DELETE FROM software WHERE id = ?";
 
-                        updateStmt.addBatch();
-                        updatedCount++;
+        long start = System.nanoTime();
+        SyncResult result = store.transaction(conn -> {
+            // 1. 一次读出现有记录
+            Map<String, long[]> existing = new HashMap<>();//标识 -> {id, 内容哈希}
+            List<Long> idsToDelete = new ArrayList<>();
+            try (ResultSet rs = store.prepare(selectSql).executeQuery()) {
+                while (rs.next()) {
+                    long id = rs.getLong("id");
+                    String key = keyOf(rs.getString("displayName"), rs.getString("installLocation"));
+                    long hash = contentHash(rs.getString("baseName"), rs.getString("programName"), rs.getString("version"),
+                            rs.getString("publisher"), rs.getString("installLocation"), rs.getString("source"), rs.getString("path"));
+                    if (existing.putIfAbsent(key, new long[]{id, hash}) != null) {
+                        idsToDelete.add(id);//重复的记录
                     }
+                }
+            }
 
-
-                } else { // 数据库中没有这条记录
-                    // 执行插入
-                    insertStmt.setString(1, newProgram.getBaseName());
-                    insertStmt.setString(2, newProgram.getDisplayName());
-                    insertStmt.setString(3, newProgram.getProgramName());
-                    insertStmt.setString(4, newProgram.getVersion());
-                    insertStmt.setString(5, newProgram.getPublisher());
-                    insertStmt.setString(6, newProgram.getInstallLocation());
-                    insertStmt.setString(7, newProgram.getSource().toString());
-                    insertStmt.setString(8, newProgram.getEnabled().toString());
-                    insertStmt.setString(9, Optional.ofNullable(newProgram.getPath()).map(Path::toString).orElse(null));
-
-                    insertStmt.addBatch();
-                    insertedCount++;
+            // 2. 在内存中计算差异
+            List<ProgramInfo> toInsert = new ArrayList<>();
+            List<ProgramInfo> toUpdate = new ArrayList<>();
+            List<Long> updateIds = new ArrayList<>();
+            Set<String> latestKeys = new HashSet<>(latestProgramList.size() * 2);
+            for (ProgramInfo program : latestProgramList) {
+                String key = keyOf(program);
+                if (!latestKeys.add(key)) {
+                    continue;//扫描结果中重复的程序
+                }
+                long[] row = existing.get(key);
+                if (row == null) {
+                    toInsert.add(program);
+                } else if (row[1] != contentHashOf(program)) {
+                    toUpdate.add(program);
+                    updateIds.add(row[0]);
                 }
-                rs.close();
             }
+            existing.forEach((key, row) -> {
+                if (!latestKeys.contains(key)) {
+                    idsToDelete.add(row[0]);
+                }
+            });
 
-            // 执行所有累积的插入和更新操作
-            insertStmt.executeBatch();
-            updateStmt.executeBatch();
+            // 3. 批量写入，由 transaction() 提交
+            PreparedStatement upsertStmt = store.prepare(upsertSql);
+            for (ProgramInfo program : toInsert) {
+                bindUpsert(upsertStmt, null, program);
+                upsertStmt.addBatch();
+            }
+            for (int i = 0; i < toUpdate.size(); i++) {
+                bindUpsert(upsertStmt, updateIds.get(i), toUpdate.get(i));
+                upsertStmt.addBatch();
+            }
+            upsertStmt.executeBatch();
+            PreparedStatement deleteStmt = store.prepare(deleteSql);
+            for (Long id : idsToDelete) {
+                deleteStmt.setLong(1, id);
+                deleteStmt.addBatch();
+            }
+            deleteStmt.executeBatch();
+            if (!toInsert.isEmpty() || !toUpdate.isEmpty() || !idsToDelete.isEmpty()) {
+                bumpGeneration();
+            }
+            return new SyncResult(toInsert.size(), toUpdate.size(), idsToDelete.size());
+        });
+        log.info("同步完成！新增: {}, 更新: {}, 删除: {}，耗时 {} ms",
+                result.inserted(), result.updated(), result.deleted(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
 
-            // 2. 处理删除 (这部分逻辑对于完整同步至关重要)
-            //int deletedCount = handleDelete(conn, latestProgramList);
+    // 只能在修改程序表的事务中调用
+    private void bumpGeneration() throws SQLException {
+        store.prepare("UPDATE catalog_generation SET generation = generation + 1 WHERE id = 0").executeUpdate();
+    }
 
-            // 3. 提交事务
-            conn.commit();
-            System.out.println("同步完成！新增: " + insertedCount + ", 更新: " + updatedCount);
+    /**
+     * 读取程序表的代数。程序表的每次修改都在同一个事务中把代数加一，代数相同说明程序表没有变化。
+     *
+     * @return 程序表当前的代数
+     * @see ProgramCatalogSnapshot
+     */
+    public long readGeneration() throws SQLException {
+        return store.read(conn -> generation());
+    }
 
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw e;
-        } finally {
-            if (conn != null) {
-                conn.setAutoCommit(true);
-                conn.close();
-            }
+    private long generation() throws SQLException {
+        try (ResultSet rs = store.prepare("SELECT generation FROM catalog_generation WHERE id = 0").executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
         }
     }
 
-    public ArrayList<ProgramInfo> readProgramInfoList() throws SQLException {
-        String readSQL= "SELECT * FROM software";
-        ArrayList<ProgramInfo> programInfoList = new ArrayList<>();
-        try (Connection conn = connect();
-        Statement stmt = conn.createStatement();
-        ResultSet rs = stmt.executeQuery(readSQL)) {
-            while (rs.next()) {
-                ProgramInfo programInfo = new ProgramInfo();
-                programInfo.setBaseName(rs.getString("baseName"));
-                programInfo.setDisplayName(rs.getString("displayName"));
-                programInfo.setProgramName(rs.getString("programName"));
-                programInfo.setVersion(rs.getString("version"));
-                programInfo.setPublisher(rs.getString("publisher"));
-                programInfo.setInstallLocation(rs.getString("installLocation"));
-                programInfo.setSource(ProgramSource.valueOf(rs.getString("source")));
-                programInfo.setEnabled(Boolean.parseBoolean(rs.getString("enabled")));
-                programInfo.setPath(Optional.ofNullable(rs.getString("path")).map(Path::of).orElse(null));
-                programInfo.setEnabled(Boolean.parseBoolean(rs.getString("enabled")));
-                programInfo.setId(rs.getString("id"));
-                programInfoList.add(programInfo);
-            }
-        }
-        return programInfoList;
+    /**
+     * 程序表中的全部程序和读取时程序表的代数
+     */
+    public record ProgramList(long generation, ArrayList<ProgramInfo> programs) {
     }
 
     /**
-     * 一个辅助方法，用于处理删除逻辑
+     * 一次同步中新增、更新和删除的记录数量
      */
-    private int handleDelete(Connection conn, List<ProgramInfo> latestProgramList) throws SQLException {
-        // 创建一个新列表中所有软件的唯一标识符集合
-        Set<String> latestKeys = new HashSet<>();
-        for (ProgramInfo p : latestProgramList) {
-            // 使用和查询时完全相同的“钥匙”
-            latestKeys.add(p.getDisplayName() + "::" + p.getVersion());
+    public record SyncResult(int inserted, int updated, int deleted) {
+    }
+
+    private static void bindUpsert(PreparedStatement stmt, Long id, ProgramInfo program) throws SQLException {
+        if (id == null) {
+            stmt.setNull(1, Types.INTEGER);
+        } else {
+            stmt.setLong(1, id);
         }
+        stmt.setString(2, program.getBaseName());
+        stmt.setString(3, program.getDisplayName());
+        stmt.setString(4, program.getProgramName());
+        stmt.setString(5, program.getVersion());
+        stmt.setString(6, program.getPublisher());
+        stmt.setString(7, program.getInstallLocation());
+        stmt.setString(8, Optional.ofNullable(program.getSource()).map(Enum::name).orElse(null));
+        stmt.setString(9, String.valueOf(!Boolean.FALSE.equals(program.getEnabled())));
+        stmt.setString(10, Optional.ofNullable(program.getPath()).map(Path::toString).orElse(null));
+    }
 
-        List<Long> idsToDelete = new ArrayList<>();
-        // 查询数据库中所有的 displayName, version 和 id
-        String selectAllSql = "SELECT id, displayName, displayVersion FROM software";
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(selectAllSql)) {
+    /**
+     * 程序在数据库中的唯一标识，由 displayName 和 installLocation 组成，installLocation 为空字符串和 null 视为相同
+     */
+    static String keyOf(ProgramInfo program) {
+        return keyOf(program.getDisplayName(), program.getInstallLocation());
+    }
 
-            while (rs.next()) {
-                String dbKey = rs.getString("displayName") + "::" + rs.getString("version");
-                if (!latestKeys.contains(dbKey)) {
-                    // 这个数据库记录在新列表中不存在，准备删除
-                    idsToDelete.add(rs.getLong("id"));
-                }
-            }
-        }
+    private static String keyOf(String displayName, String installLocation) {
+        return displayName + "\0" + (installLocation == null ? "" : installLocation);
+    }
 
-        if (idsToDelete.isEmpty()) {
-            return 0;
-        }
+    private static long contentHashOf(ProgramInfo program) {
+        return contentHash(program.getBaseName(), program.getProgramName(), program.getVersion(), program.getPublisher(),
+                program.getInstallLocation(), Optional.ofNullable(program.getSource()).map(Enum::name).orElse(null),
+                Optional.ofNullable(program.getPath()).map(Path::toString).orElse(null));
+    }
 
-        // 批量删除
-        String deleteSql = "DELETE FROM software WHERE id = ?";
-        try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
-            for (Long id : idsToDelete) {
-                deleteStmt.setLong(1, id);
-                deleteStmt.addBatch();
+    /**
+     * 扫描得到的字段的 64 位 FNV-1a 哈希，null 和空字符串不同
+     */
+    private static long contentHash(String... fields) {
+        long hash = 0xcbf29ce484222325L;
+        for (String field : fields) {
+            if (field == null) {
+                hash = (hash ^ 0xFFFF) * 0x100000001b3L;
+                continue;
+            }
+            for (int i = 0; i < field.length(); i++) {
+                hash = (hash ^ field.charAt(i)) * 0x100000001b3L;
             }
-            int[] result = deleteStmt.executeBatch();
-            return result.length;
+            hash = (hash ^ 0xFFFE) * 0x100000001b3L;//字段分隔
         }
+        return hash;
     }
 
+    /**
+     * 读取每种程序来源上次扫描时的变化标记。
+     *
+     * @return 来源 -> 变化标记，没有记录的来源不在其中
+     * @see ProgramDiscovery
+     */
+    public Map<ProgramSource, String> readSourceTokens() throws SQLException {
+        return store.read(conn -> {
+            Map<ProgramSource, String> tokens = new EnumMap<>(ProgramSource.class);
+            try (ResultSet rs = store.prepare("SELECT source, token FROM program_source").executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        tokens.put(ProgramSource.valueOf(rs.getString("source")), rs.getString("token"));
+                    } catch (IllegalArgumentException e) {
+                        log.debug("忽略未知的程序来源 {}", rs.getString("source"));
+                    }
+                }
+            }
+            return tokens;
+        });
+    }
 
+    /**
+     * 用新的变化标记替换保存的全部标记，应在扫描结果同步到数据库之后调用。
+     *
+     * @param tokens 来源 -> 变化标记
+     */
+    public void saveSourceTokens(Map<ProgramSource, String> tokens) throws SQLException {
+        store.transaction(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DELETE FROM program_source");
+            }
+            PreparedStatement insert = store.prepare("INSERT INTO program_source(source, token) VALUES (?, ?)");
+            for (Map.Entry<ProgramSource, String> entry : tokens.entrySet()) {
+                insert.setString(1, entry.getKey().name());
+                insert.setString(2, entry.getValue());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            return null;
+        });
+    }
 
+    public ArrayList<ProgramInfo> readProgramInfoList() throws SQLException {
+        return readProgramList().programs();
+    }
 
+    /**
+     * 在同一次读取中读出全部程序和程序表的代数，二者总是对应的。
+     *
+     * @return 程序列表和代数
+     */
+    public ProgramList readProgramList() throws SQLException {
+        String readSQL = "SELECT * FROM software";
+        return store.read(conn -> {
+            ArrayList<ProgramInfo> programInfoList = new ArrayList<>();
+            try (ResultSet rs = store.prepare(readSQL).executeQuery()) {
+                while (rs.next()) {
+                    ProgramInfo programInfo = new ProgramInfo();
+                    programInfo.setBaseName(rs.getString("baseName"));
+                    programInfo.setDisplayName(rs.getString("displayName"));
+                    programInfo.setProgramName(rs.getString("programName"));
+                    programInfo.setVersion(rs.getString("version"));
+                    programInfo.setPublisher(rs.getString("publisher"));
+                    programInfo.setInstallLocation(rs.getString("installLocation"));
+                    programInfo.setSource(ProgramSource.valueOf(rs.getString("source")));
+                    programInfo.setPath(Optional.ofNullable(rs.getString("path")).map(Path::of).orElse(null));
+                    programInfo.setEnabled(Boolean.parseBoolean(rs.getString("enabled")));
+                    programInfo.setId(rs.getString("id"));
+                    programInfoList.add(programInfo);
+                }
+            }
+            return new ProgramList(generation(), programInfoList);
+        });
+    }
 }
@@ -19,74 +19,120 @@
 
 package tech.minediamond.vortex.service.program;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import tech.minediamond.vortex.model.appConfig.GlobalDataStore;
+import com.google.inject.Guice;
+import lombok.extern.slf4j.Slf4j;
 import tech.minediamond.vortex.model.program.ProgramInfo;
-import tech.minediamond.vortex.model.program.ProgramSource;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
+/**
+ * 通过 PowerShell 扫描注册表和 UWP 中已安装的程序。
+ */
+@Slf4j
 public class findApplications {
-    public static void getInstalledPrograms() throws IOException, InterruptedException {
+    // 进程结束后等待错误流读完的最长时间
+    private static final long STDERR_JOIN_MILLIS = 1000;
+
+    /**
+     * 注册表卸载列表中的程序，排除系统组件
+     */
+    static final String REGISTRY_SCRIPT = """
+                (Get-ItemProperty HKLM:\\Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*, HKLM:\\Software\\Wow6432Node\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*, HKCU:\\Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\* -ErrorAction SilentlyContinue).Where({
+                                $_.DisplayName -and -not $_.SystemComponent
+                            })|
+                    Select-Object @{Name="baseName"; Expression={$_.DisplayName}},
+                                  @{Name="programName"; Expression={
+                                              if ($_.DisplayIcon) {
+                                                  $cleanedPath = ($_.DisplayIcon -split ',')[0].Trim('"')
+                                                  $fileName = Split-Path -Path $cleanedPath -Leaf
+                                                  if ($fileName -like '*.exe') {
+                                                      $fileName
+                                                  } else {
+                                                      $null
+                                                  }
+                                              } else {
+                                                 $null
+                                              }
+                                  }},
+                                  @{Name="version"; Expression={$_.DisplayVersion}},
+                                  @{Name="publisher"; Expression={$_.Publisher}},
+                                  @{Name="installLocation"; Expression={$_.InstallLocation}},
+                                  @{Name="source"; Expression={"REGISTRY"}}
+            """;
+
+    /**
+     * 已安装的 UWP 应用，对每个应用调用 {@code Get-AppxPackageManifest} 读取显示名称，这是扫描中最耗时的部分
+     */
+    static final String UWP_SCRIPT = """
+                (Get-AppxPackage -PackageTypeFilter Main).Where({
+                            $_.Name -notlike 'ms-resource:*' -and $_.DisplayName -notlike 'ms-resource:*'
+                        })|
+                Select-Object @{Name="baseName"; Expression={$manifest = $_ | Get-AppxPackageManifest
+                        $cleanName = $manifest.Package.Properties.DisplayName
+                         if ($cleanName -and $cleanName -notlike 'ms-resource:*') {
+                             $cleanName
+                         } else {
+                             $_.Name
+                         }
+                     }},
+                  @{Name="programName"; Expression={"$($_.PackageFamilyName)!App"}},
+                  @{Name="publisher"; Expression={$_.Publisher}},
+                  @{Name="installLocation"; Expression={$_.InstallLocation}},
+                  @{Name="source"; Expression={"UWP"}}
+            """;
+
+    /**
+     * 扫描注册表和 UWP 中已安装的程序，扫描脚本的输出由 {@link ProgramJsonReader} 流式解析。
+     *
+     * @param onProgram 每解析出一个程序就立即调用一次，在调用线程中执行，此时扫描可能还没有结束
+     * @return 扫描到的所有程序，按基础名称排序
+     */
+    public static List<ProgramInfo> getInstalledPrograms(Consumer<ProgramInfo> onProgram) throws IOException, InterruptedException {
+        return runScript(REGISTRY_SCRIPT + UWP_SCRIPT, onProgram);
+    }
+
+    /**
+     * 在 PowerShell 中执行扫描脚本，把脚本输出的对象转换为 JSON 后流式解析。
+     * <p>
+     * 每个对象单独转换为一行 JSON：{@code ConvertTo-Json} 会收集管道中的全部对象，直到管道结束才输出，
+     * 如果对整个管道调用一次，扫描结束前不会有任何输出。
+     * <p>
+     * 标准输出只包含 JSON，错误流单独读取并记录到日志：个别条目出错（例如某个应用包的清单无权访问）只是非终止错误，
+     * 不影响其余程序的解析，也不会使退出码变为非 0；只有终止错误才会使脚本以退出码 1 结束。
+     *
+     * @param script    输出程序对象的脚本，例如 {@link #REGISTRY_SCRIPT}、{@link #UWP_SCRIPT}
+     * @param onProgram 每解析出一个程序就立即调用一次，在调用线程中执行，此时扫描可能还没有结束
+     * @return 扫描到的所有程序，按基础名称排序
+     */
+    static List<ProgramInfo> runScript(String script, Consumer<ProgramInfo> onProgram) throws IOException, InterruptedException {
         // PowerShell 命令
         String command = """
                 chcp 65001 | Out-Null
                 [Console]::OutputEncoding = [System.Text.Encoding]::UTF8;
                 $OutputEncoding = [System.Text.Encoding]::UTF8
 
-                & {
-                    (Get-ItemProperty HKLM:\\Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*, HKLM:\\Software\\Wow6432Node\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*, HKCU:\\Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\* -ErrorAction SilentlyContinue).Where({
-                                    $_.DisplayName -and -not $_.SystemComponent
-                                })|
-                        Select-Object @{Name="baseName"; Expression={$_.DisplayName}},
-                                      @{Name="programName"; Expression={
-                                                  if ($_.DisplayIcon) {
-                                                      $cleanedPath = ($_.DisplayIcon -split ',')[0].Trim('"')
-                                                      $fileName = Split-Path -Path $cleanedPath -Leaf
-                                                      if ($fileName -like '*.exe') {
-                                                          $fileName
-                                                      } else {
-                                                          $null
-                                                      }
-                                                  } else {
-                                                     $null
-                                                  }
-                                      }},
-                                      @{Name="version"; Expression={$_.DisplayVersion}},
-                                      @{Name="publisher"; Expression={$_.Publisher}},
-                                      @{Name="installLocation"; Expression={$_.InstallLocation}},
-                                      @{Name="source"; Expression={"REGISTRY"}}
-                                      
-                    (Get-AppxPackage -PackageTypeFilter Main).Where({
-                                $_.Name -notlike 'ms-resource:*' -and $_.DisplayName -notlike 'ms-resource:*'
-                            })|
-                    Select-Object @{Name="baseName"; Expression={$manifest = $_ | Get-AppxPackageManifest
-                            $cleanName = $manifest.Package.Properties.DisplayName
-                             if ($cleanName -and $cleanName -notlike 'ms-resource:*') {
-                                 $cleanName
-                             } else {
-                                 $_.Name
-                             }
-                         }},
-                      @{Name="programName"; Expression={"$($_.PackageFamilyName)!App"}},
-                      @{Name="publisher"; Expression={$_.Publisher}},
-                      @{Name="installLocation"; Expression={$_.InstallLocation}},
-                      @{Name="source"; Expression={"UWP"}}
-                
-                } | ConvertTo-Json -Compress
-                
-        """;
+                try {
+                    & {
+                """ + script + """
+                    } | ForEach-Object { $_ | ConvertTo-Json -Compress }
+                } catch {
+                    Write-Error $_
+                    exit 1
+                }
+                exit 0
+                """;
 
         LocalTime time = LocalTime.now();
         ProcessBuilder pb = new ProcessBuilder(
@@ -96,67 +142,60 @@ public class findApplications {
                 "-"
         );
 
-        // 将错误流重定向到标准输出流
-        pb.redirectErrorStream(true);
-
         Process process = pb.start();
+        // 错误流不能混入标准输出的 JSON，在单独的线程中读取并记录，避免缓冲区写满后阻塞 PowerShell
+        Thread stderrReader = new Thread(() -> logErrors(process.getErrorStream()), "PowerShell Stderr");
+        stderrReader.setDaemon(true);
+        stderrReader.start();
 
         // 通过 stdin 将脚本写入 PowerShell 进程
         try (OutputStreamWriter writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
             writer.write(command);
         }
 
-        // 现在只需要读取一个流
-        String jsonOutput;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-            jsonOutput = reader.lines().collect(Collectors.joining());
+        // 标准输出中只有 JSON，边读边解析
+        List<ProgramInfo> programs = new ArrayList<>();
+        try (InputStream in = process.getInputStream()) {
+            ProgramJsonReader.read(in, programInfo -> {
+                programs.add(programInfo);
+                onProgram.accept(programInfo);
+            });
+        } catch (IOException | RuntimeException e) {
+            process.destroy();
+            throw e;
         }
 
         // 等待进程结束并检查退出码
         int exitCode = process.waitFor();
+        stderrReader.join(STDERR_JOIN_MILLIS);
         if (exitCode != 0) {
             throw new RuntimeException("PowerShell 命令执行失败，退出码: " + exitCode);
         }
 
-        System.out.println("jsonOutput: " + jsonOutput);
-
-        LocalTime time2 = LocalTime.now();
-        System.out.println("powershell执行时间:" + Duration.between(time, time2).toMillis() + "ms");
-
-        ObjectMapper mapper = new ObjectMapper();
-        List<ProgramInfo> programs = mapper.readValue(jsonOutput,new TypeReference<List<ProgramInfo>>(){});
-
-
         programs.sort(Comparator.comparing(ProgramInfo::getBaseName, Comparator.nullsLast(String::compareToIgnoreCase)));
-        programs.removeIf((programInfo) ->{
-            return (programInfo.getSource() == ProgramSource.REGISTRY && (programInfo.getProgramName() == null || programInfo.getInstallLocation() == null || programInfo.getInstallLocation().equals("")));
-        });
-        for (ProgramInfo programInfo : programs) {
-
-            programInfo.setDisplayName(programInfo.getBaseName());
-            if(programInfo.getInstallLocation() != null && programInfo.getInstallLocation().equals("")){
-                programInfo.setInstallLocation(null);
-            }
+        log.info("扫描到 {} 个程序，耗时 {} ms", programs.size(), Duration.between(time, LocalTime.now()).toMillis());
+        return programs;
+    }
 
-            if(programInfo.getSource() == ProgramSource.REGISTRY && !programInfo.getInstallLocation().endsWith("\\")){
-                programInfo.setInstallLocation(programInfo.getInstallLocation() + "\\");
+    private static void logErrors(InputStream stderr) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stderr, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    log.warn("PowerShell: {}", line);
+                }
             }
+        } catch (IOException e) {
+            log.debug("读取 PowerShell 错误输出失败", e);
         }
-
-        GlobalDataStore.programInfos.addAll(programs);
-
-        LocalTime time3 = LocalTime.now();
-        System.out.println("数据处理时间:" + Duration.between(time2, time3).toMillis() + "ms");
-
-
     }
 
     public static void main(String[] args) throws IOException, InterruptedException, SQLException {
         LocalTime start = LocalTime.now();
-        getInstalledPrograms();
-        GlobalDataStore.programInfos.forEach(System.out::println);
-        dataBaseOperate db = dataBaseOperate.getInstance();
-        db.syncSoftwareList(GlobalDataStore.programInfos);
+        List<ProgramInfo> programs = getInstalledPrograms(programInfo -> {});
+        programs.forEach(System.out::println);
+        dataBaseOperate db = Guice.createInjector().getInstance(dataBaseOperate.class);
+        db.syncSoftwareList(programs);
         LocalTime end = LocalTime.now();
         System.out.println("程序运行总时间: " + Duration.between(start, end).toMillis() + "ms");
     }
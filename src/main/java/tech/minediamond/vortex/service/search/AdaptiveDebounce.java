@@ -0,0 +1,124 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import javafx.beans.property.IntegerProperty;
+
+import java.util.Arrays;
+
+/**
+ * 自适应的搜索防抖。
+ * <p>
+ * 根据最近几次搜索的耗时和用户的按键间隔决定每次按键后等待多久再发起搜索：
+ * <ul>
+ *     <li>输入第一个字符，或者停顿超过最大延迟后再次输入时，立即搜索</li>
+ *     <li>后端的响应比用户打字快时，每次按键都立即搜索，过期的搜索会被 {@link SearchService} 取消</li>
+ *     <li>后端比打字慢（例如数据库仍在加载）时，在连续输入期间等待略长于平常的按键间隔，把一串按键合并为一次搜索</li>
+ * </ul>
+ * 延迟始终限制在 {@link tech.minediamond.vortex.model.appConfig.AppConfig} 中配置的上下限之间。
+ * 只能在 JavaFX 应用线程中使用。
+ */
+public class AdaptiveDebounce {
+
+    // 参与计算的最近搜索耗时数量
+    private static final int LATENCY_WINDOW = 16;
+    // 连续输入时等待的时间相对于平常按键间隔的倍数
+    private static final double BURST_INTERVAL_FACTOR = 1.5;
+    // 按键间隔的指数移动平均的权重
+    private static final double INTERVAL_SMOOTHING = 0.3;
+
+    private final IntegerProperty minMillis;
+    private final IntegerProperty maxMillis;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private final long[] sortBuffer = new long[LATENCY_WINDOW];
+    private int latencyCount = 0;
+    private int latencyNext = 0;
+
+    private long lastKeyNanos = -1;
+    private double typicalIntervalNanos = -1;
+
+    /**
+     * @param minMillis 最小延迟（毫秒）
+     * @param maxMillis 最大延迟（毫秒）
+     */
+    public AdaptiveDebounce(IntegerProperty minMillis, IntegerProperty maxMillis) {
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * 记录一次按键，并返回发起搜索前应等待的时间。
+     *
+     * @param keyword  按键后的搜索关键词
+     * @param nowNanos 按键时的 {@link System#nanoTime()}
+     * @return 应等待的时间（毫秒），为 0 时应立即搜索
+     */
+    public long onKey(String keyword, long nowNanos) {
+        long minNanos = Math.max(0, minMillis.get()) * 1_000_000L;
+        long maxNanos = Math.max(minNanos, maxMillis.get() * 1_000_000L);
+
+        long interval = lastKeyNanos < 0 ? Long.MAX_VALUE : nowNanos - lastKeyNanos;
+        lastKeyNanos = nowNanos;
+
+        // 第一个字符或停顿之后的按键：立即搜索，停顿不计入平常的按键间隔
+        if (keyword == null || keyword.length() <= 1 || interval >= maxNanos) {
+            return toMillis(minNanos);
+        }
+        typicalIntervalNanos = typicalIntervalNanos < 0
+                ? interval
+                : typicalIntervalNanos + INTERVAL_SMOOTHING * (interval - typicalIntervalNanos);
+
+        // 后端能在下一次按键前给出结果时，不需要合并按键
+        long latency = recentLatencyNanos();
+        if (latency <= typicalIntervalNanos) {
+            return toMillis(minNanos);
+        }
+        long delay = (long) (typicalIntervalNanos * BURST_INTERVAL_FACTOR);
+        return toMillis(Math.max(minNanos, Math.min(maxNanos, delay)));
+    }
+
+    /**
+     * 记录一次搜索从发起到文件结果的第一页返回的耗时，见 {@link SearchService#setOnFileQueryLatency(java.util.function.LongConsumer)}。
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordSearchLatency(long nanos) {
+        latencies[latencyNext] = nanos;
+        latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+    }
+
+    /**
+     * @return 最近几次搜索耗时的 p90，没有记录时为 0
+     */
+    long recentLatencyNanos() {
+        if (latencyCount == 0) {
+            return 0;
+        }
+        System.arraycopy(latencies, 0, sortBuffer, 0, latencyCount);
+        Arrays.sort(sortBuffer, 0, latencyCount);
+        return sortBuffer[(int) Math.ceil(latencyCount * 0.9) - 1];
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+}
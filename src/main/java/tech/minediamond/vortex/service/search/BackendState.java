@@ -17,17 +17,30 @@
  * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
  */
 
-package tech.minediamond.vortex.model.appConfig;
+package tech.minediamond.vortex.service.search;
 
-import lombok.Getter;
-import lombok.Setter;
-import tech.minediamond.vortex.model.program.ProgramInfo;
-
-import java.util.ArrayList;
-
-@Getter
-@Setter
-public class GlobalDataStore {
-    //存放全局的应用信息数据
-    public static ArrayList<ProgramInfo> programInfos = new ArrayList<>();
+/**
+ * 搜索后端的连接状态，由 {@link EverythingSupervisor} 维护。
+ */
+public enum BackendState {
+    /**
+     * 正在启动后端进程或首次连接
+     */
+    STARTING,
+    /**
+     * 已连接且索引已加载，可以查询
+     */
+    CONNECTED,
+    /**
+     * 已连接，但 Everything 仍在构建索引
+     */
+    DB_LOADING,
+    /**
+     * 曾经连接成功，但连接或探测失败，正在重连
+     */
+    DEGRADED,
+    /**
+     * 多次重连失败，仍会以最大间隔继续尝试
+     */
+    DOWN
 }
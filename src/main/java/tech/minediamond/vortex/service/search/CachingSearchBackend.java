@@ -0,0 +1,183 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.ResultPage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 为 {@link SearchBackend} 增加查询结果缓存的装饰器。
+ * <p>
+ * 用户输入时经常反复输入、删除同一段前缀，缓存可以让这些重复查询不再经过一次完整的 JNA 调用。
+ * 缓存以规范化后的查询（见 {@link EverythingQuery#normalized()}）和页面位置为键，按最近最少使用淘汰，
+ * 同时受条目数量和估算内存占用的限制，每个条目在 {@link #TTL_NANOS} 后过期，以免长时间显示已经变化的文件系统。
+ * <p>
+ * 后端重新连接（健康状态由 {@code false} 变为 {@code true}）时清空缓存，因为重连前后的索引可能不同。
+ * 后端不可用时返回的空页和被取消的查询不会被缓存。
+ */
+@Singleton
+@Slf4j
+public class CachingSearchBackend implements SearchBackend {
+
+    /**
+     * 最多缓存的页面数量
+     */
+    public static final int MAX_ENTRIES = 256;
+    /**
+     * 缓存结果估算占用的最大字节数
+     */
+    public static final long MAX_BYTES = 16L * 1024 * 1024;
+    /**
+     * 缓存条目的存活时间
+     */
+    public static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // 每个 FileData 对象本身及其字段的估算开销（不含字符串内容）
+    private static final int FILE_DATA_OVERHEAD_BYTES = 160;
+
+    private record PageKey(EverythingQuery query, int offset, int count) {
+    }
+
+    private record Entry(ResultPage page, long bytes, long createdAt) {
+    }
+
+    private final SearchBackend delegate;
+    // accessOrder 为 true 时迭代顺序即为最近最少使用的顺序
+    private final LinkedHashMap<PageKey, Entry> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    @Inject
+    public CachingSearchBackend(SearchBackend delegate) {
+        this.delegate = delegate;
+        delegate.getSearchServiceHealthProperty().addListener((observable, oldValue, newValue) -> {
+            if (!oldValue && newValue) {
+                log.info("搜索后端已重新连接，清空搜索结果缓存");
+                invalidateAll();
+            }
+        });
+    }
+
+    @Override
+    public ResultPage queryPage(EverythingQuery query, int offset, int count, CancellationToken token) {
+        PageKey key = new PageKey(query.normalized(), offset, count);
+        synchronized (this) {
+            Entry entry = cache.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.createdAt() < TTL_NANOS) {
+                    hitCount++;
+                    log.debug("搜索结果缓存命中 '{}'，命中 {} 次，未命中 {} 次", key.query().query(), hitCount, missCount);
+                    return entry.page();
+                }
+                remove(key);
+            }
+            missCount++;
+        }
+
+        ResultPage page = delegate.queryPage(query, offset, count, token);
+        if (!delegate.getSearchServiceHealthProperty().get()) {
+            return page;
+        }
+        ResultPage cachedPage = new ResultPage(List.copyOf(page.results()), page.offset(), page.totalCount());
+        long bytes = estimateBytes(cachedPage);
+        if (bytes <= MAX_BYTES) {
+            synchronized (this) {
+                remove(key);
+                cache.put(key, new Entry(cachedPage, bytes, System.nanoTime()));
+                cachedBytes += bytes;
+                evict();
+            }
+        }
+        return cachedPage;
+    }
+
+    @Override
+    public ReadOnlyBooleanProperty getSearchServiceHealthProperty() {
+        return delegate.getSearchServiceHealthProperty();
+    }
+
+    @Override
+    public CompletableFuture<Void> readiness() {
+        return delegate.readiness();
+    }
+
+    /**
+     * 清空所有缓存条目，命中统计保持不变。
+     */
+    public synchronized void invalidateAll() {
+        cache.clear();
+        cachedBytes = 0;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private void remove(PageKey key) {
+        Entry removed = cache.remove(key);
+        if (removed != null) {
+            cachedBytes -= removed.bytes();
+        }
+    }
+
+    // 按最近最少使用的顺序淘汰，直到条目数量和估算内存都在限制以内
+    private void evict() {
+        Iterator<Map.Entry<PageKey, Entry>> iterator = cache.entrySet().iterator();
+        while ((cache.size() > MAX_ENTRIES || cachedBytes > MAX_BYTES) && iterator.hasNext()) {
+            cachedBytes -= iterator.next().getValue().bytes();
+            iterator.remove();
+        }
+    }
+
+    private static long estimateBytes(ResultPage page) {
+        long bytes = 0;
+        for (FileData fileData : page.results()) {
+            bytes += FILE_DATA_OVERHEAD_BYTES;
+            bytes += fileData.getFullPath() == null ? 0 : 2L * fileData.getFullPath().length();
+            bytes += fileData.getFileName() == null ? 0 : 2L * fileData.getFileName().length();
+        }
+        return bytes;
+    }
+}
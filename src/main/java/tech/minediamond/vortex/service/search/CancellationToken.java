@@ -0,0 +1,54 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 搜索的取消标记，由发起搜索的一方提供，搜索后端在解码结果等耗时步骤之间检查。
+ * <p>
+ * 取消是协作式的：后端只在检查点响应取消，正在进行的原生调用会先执行完毕。
+ * 在 {@link SearchService} 中，标记来自当前的 {@link javafx.concurrent.Task#isCancelled()}，
+ * 用户继续输入触发新的搜索时，被取代的搜索会在下一个检查点停止。
+ */
+@FunctionalInterface
+public interface CancellationToken {
+
+    /**
+     * 永远不会被取消的标记
+     */
+    CancellationToken NONE = () -> false;
+
+    /**
+     * @return 搜索是否已被取消
+     */
+    boolean isCancelled();
+
+    /**
+     * 检查点：如果搜索已被取消，则抛出 {@link CancellationException} 终止搜索。
+     *
+     * @throws CancellationException 搜索已被取消时抛出
+     */
+    default void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("搜索已取消");
+        }
+    }
+}
@@ -127,6 +127,14 @@ public interface Everything3 extends StdCallLibrary {
      */
     void Everything3_SetSearchViewportCount(EverythingSearchState search_state, WinDef.DWORD count);
 
+    /**
+     * 设置视口的起始位置，即返回的第一个结果在全部结果中的索引，用于分页查询。
+     *
+     * @param search_state 搜索状态句柄。
+     * @param offset       视口第一个结果的从零开始的索引。
+     */
+    void Everything3_SetSearchViewportOffset(EverythingSearchState search_state, WinDef.DWORD offset);
+
     /**
      * 添加搜索时要获取的属性 ,属性见{@link PropertyType}
      *
@@ -202,6 +210,14 @@ public interface Everything3 extends StdCallLibrary {
      */
     WinDef.DWORD Everything3_GetResultListViewportCount(EverythingResultList result_list);
 
+    /**
+     * 获取本次搜索命中的结果总数（不受视口限制）。
+     *
+     * @param result_list 结果列表句柄。
+     * @return 结果总数。
+     */
+    WinDef.DWORD Everything3_GetResultListCount(EverythingResultList result_list);
+
     /**
      * 获取指定索引处结果的完整路径和名称。
      *
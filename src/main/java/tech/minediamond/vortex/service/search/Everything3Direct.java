@@ -0,0 +1,84 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+/**
+ * Everything3_x64.dll 中逐条读取结果的函数的 JNA 直接映射（direct mapping）。
+ * <p>
+ * 与 {@link Everything3} 的接口映射不同，直接映射的参数全部是基本类型或 {@link Pointer}，
+ * 调用时不会为参数装箱、也不经过反射代理，适合在解码结果时对每一行反复调用。
+ * 连接、配置和执行搜索等每次查询只调用一次的函数仍然使用 {@link Everything3}。
+ * <p>
+ * SDK 中的 {@code SIZE_T} 在 x64 下为 64 位，这里映射为 {@code long}；{@code DWORD} 映射为 {@code int}。
+ * 句柄通过 {@link com.sun.jna.PointerType#getPointer()} 传入。
+ * <p>
+ * DLL 在该类首次使用时才加载，因此只要不执行 Everything 查询，在其他平台上也不会加载失败。
+ */
+final class Everything3Direct {
+
+    static {
+        Native.register("Everything3_x64");
+    }
+
+    private Everything3Direct() {
+    }
+
+    /**
+     * 获取当前结果列表视口中的结果数量。
+     *
+     * @param resultList 结果列表句柄
+     * @return 结果数量
+     */
+    static native long Everything3_GetResultListViewportCount(Pointer resultList);
+
+    /**
+     * 将结果的文本属性以 UTF-16 写入缓冲区。
+     *
+     * @param resultList          结果列表句柄
+     * @param resultIndex         结果在视口中从零开始的索引
+     * @param propertyId          属性值，见 {@link Everything3.PropertyType}
+     * @param buffer              接收文本的缓冲区
+     * @param bufferSizeInWchars  缓冲区能容纳的宽字符数量（含结尾的 NUL）
+     * @return 文本的宽字符长度（不含结尾的 NUL）
+     */
+    static native long Everything3_GetResultPropertyTextW(Pointer resultList, long resultIndex, int propertyId, Pointer buffer, long bufferSizeInWchars);
+
+    /**
+     * 获取结果的文件大小（单位: Byte）。
+     *
+     * @param resultList  结果列表句柄
+     * @param resultIndex 结果在视口中从零开始的索引
+     * @return 文件大小
+     */
+    static native long Everything3_GetResultSize(Pointer resultList, long resultIndex);
+
+    /**
+     * 获取结果的 BYTE 类型属性。
+     *
+     * @param resultList  结果列表句柄
+     * @param resultIndex 结果在视口中从零开始的索引
+     * @param propertyId  属性值，见 {@link Everything3.PropertyType}
+     * @return 属性值
+     */
+    static native byte Everything3_GetResultPropertyBYTE(Pointer resultList, long resultIndex, int propertyId);
+}
@@ -0,0 +1,234 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import com.sun.jna.WString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Everything 客户端连接和搜索状态的小型对象池，使多个查询可以并行执行，且不必每次查询都重新建立连接和配置搜索状态。
+ * <p>
+ * 池中的每个 {@link Lease} 持有：
+ * <ul>
+ *     <li>一个由 {@code Everything3_ConnectW} 建立的客户端连接</li>
+ *     <li>一个由 {@code Everything3_CreateSearchState} 创建、并已添加好所需属性请求的搜索状态</li>
+ *     <li>一个自己的 {@link ResultDecoder} 解码缓冲区</li>
+ * </ul>
+ * 同一时间一个租约只被一个线程使用，用完后通过 {@link #release(Lease, boolean)} 归还。
+ * <p>
+ * 借出数量由一个许可数为池大小的 {@link Semaphore} 限制：借出前先取得许可，归还时无论租约是放回池中还是被销毁都会释放许可，
+ * 因此等待的线程总能在有位置空出时被唤醒。
+ * <p>
+ * 池有一个代数（generation），{@link #invalidate()} 会使代数加一，例如 Everything 实例重启后旧连接全部失效；
+ * 属于旧代数的租约在归还时直接销毁，不再放回池中。
+ */
+@Slf4j
+public class EverythingClientPool {
+
+    /**
+     * 池中最多同时存在的租约数量
+     */
+    public static final int DEFAULT_MAX_SIZE = 3;
+
+    /**
+     * 一个可供单个线程独占使用的 Everything 客户端和搜索状态。
+     */
+    public static final class Lease {
+        private final Everything3.EverythingClient client;
+        private final Everything3.EverythingSearchState searchState;
+        private final ResultDecoder decoder = new ResultDecoder();
+        private final long generation;
+
+        private Lease(Everything3.EverythingClient client, Everything3.EverythingSearchState searchState, long generation) {
+            this.client = client;
+            this.searchState = searchState;
+            this.generation = generation;
+        }
+
+        public Everything3.EverythingClient client() {
+            return client;
+        }
+
+        /**
+         * @return 已添加好属性请求的搜索状态，使用者只需设置搜索文本和视口
+         */
+        public Everything3.EverythingSearchState searchState() {
+            return searchState;
+        }
+
+        ResultDecoder decoder() {
+            return decoder;
+        }
+    }
+
+    private final Everything3 lib;
+    private final String instanceName;
+    private final int maxSize;
+    private final BlockingQueue<Lease> idle;
+    private final Semaphore permits;//每个借出的租约占用一个许可
+
+    // 以下字段受 this 保护
+    private long generation = 0;
+    private boolean closed = false;
+
+    public EverythingClientPool(Everything3 lib, String instanceName) {
+        this(lib, instanceName, DEFAULT_MAX_SIZE);
+    }
+
+    public EverythingClientPool(Everything3 lib, String instanceName, int maxSize) {
+        this.lib = lib;
+        this.instanceName = instanceName;
+        this.maxSize = maxSize;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * 借出一个租约。已借出的租约达到上限时等待其他线程归还，之后优先复用属于当前代数的空闲租约，没有则新建一个。
+     *
+     * @param timeout 整个借出过程的最长等待时间
+     * @param unit    时间单位
+     * @return 借出的租约；连接失败、池已关闭或等待超时时返回 {@code null}
+     * @throws InterruptedException 等待时被中断
+     */
+    public Lease acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!permits.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        Lease lease = null;
+        try {
+            long currentGeneration;
+            synchronized (this) {
+                if (closed) {
+                    return null;
+                }
+                currentGeneration = generation;
+            }
+            lease = pollCurrent();
+            if (lease == null) {
+                lease = create(currentGeneration);
+            }
+            return lease;
+        } finally {
+            if (lease == null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 归还租约。
+     *
+     * @param lease  要归还的租约，为 {@code null} 时不做任何事
+     * @param broken 租约是否已不可用（如连接断开），不可用的租约会被销毁
+     */
+    public void release(Lease lease, boolean broken) {
+        if (lease == null) {
+            return;
+        }
+        try {
+            if (broken || isStale(lease) || !idle.offer(lease)) {
+                destroy(lease);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return 是否有租约正被借出使用
+     */
+    public boolean hasLeasesOut() {
+        return permits.availablePermits() < maxSize;
+    }
+
+    /**
+     * 使当前所有租约失效：空闲的租约立即销毁，借出中的租约在归还时销毁。
+     */
+    public void invalidate() {
+        synchronized (this) {
+            generation++;
+        }
+        drainIdle();
+    }
+
+    /**
+     * 关闭连接池，销毁所有空闲租约，之后借出的租约在归还时销毁，也不能再借出新的租约。
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            generation++;
+        }
+        drainIdle();
+    }
+
+    // 取出一个属于当前代数的空闲租约，顺便销毁遇到的旧租约
+    private Lease pollCurrent() {
+        Lease lease;
+        while ((lease = idle.poll()) != null) {
+            if (!isStale(lease)) {
+                return lease;
+            }
+            destroy(lease);
+        }
+        return null;
+    }
+
+    private void drainIdle() {
+        Lease lease;
+        while ((lease = idle.poll()) != null) {
+            destroy(lease);
+        }
+    }
+
+    private synchronized boolean isStale(Lease lease) {
+        return closed || lease.generation != generation;
+    }
+
+    private Lease create(long leaseGeneration) {
+        Everything3.EverythingClient client = lib.Everything3_ConnectW(new WString(instanceName));
+        if (client == null) {
+            return null;
+        }
+        Everything3.EverythingSearchState searchState = lib.Everything3_CreateSearchState();
+        if (searchState == null) {
+            log.error("创建搜索状态失败");
+            lib.Everything3_DestroyClient(client);
+            return null;
+        }
+        //设置搜索内容，之后每次查询复用
+        lib.Everything3_AddSearchPropertyRequest(searchState, Everything3.PropertyType.FULL_PATH.getID());
+        lib.Everything3_AddSearchPropertyRequest(searchState, Everything3.PropertyType.SIZE.getID());
+        lib.Everything3_AddSearchPropertyRequest(searchState, Everything3.PropertyType.IS_FOLDER.getID());
+        log.debug("已创建新的 Everything 客户端连接");
+        return new Lease(client, searchState, leaseGeneration);
+    }
+
+    private void destroy(Lease lease) {
+        lib.Everything3_DestroySearchState(lease.searchState);
+        lib.Everything3_DestroyClient(lease.client);
+    }
+}
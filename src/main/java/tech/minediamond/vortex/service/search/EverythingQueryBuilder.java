@@ -36,23 +36,26 @@ import java.util.Optional;
  *     <li>{@link #searchFor(String)} - 设置搜索关键词</li>
  *     <li>{@link #inFolders(List)} - 指定在哪些文件夹中执行搜索</li>
  *     <li>{@link #mode(SearchMode)} - 设置搜索模式（文件/文件夹/全部）</li>
+ *     <li>{@link #cancelWith(CancellationToken)} - 设置取消标记，使搜索可以被中途取消</li>
  * </ul>
  * <p>
- * 构建完成后，通过{@code query()}发起请求，并返回一个{@code List<FileData>}
+ * 构建完成后，通过{@code query()}发起请求，并返回一个{@code List<FileData>}；
+ * 或者通过{@code stream()}获取一个{@link ResultPager}，分页取回结果
  *
- * @see EverythingService
+ * @see SearchBackend
  */
 public class EverythingQueryBuilder {
 
-    EverythingService everythingService;
+    SearchBackend searchBackend;
 
     private String query;
     private SearchMode searchMode = SearchMode.ALL;
     private List<Path> targetFolders = Collections.emptyList();
+    private CancellationToken token = CancellationToken.NONE;
 
-    // 构造函数接收 Service
-    public EverythingQueryBuilder(EverythingService everythingService) {
-        this.everythingService = everythingService;
+    // 构造函数接收搜索后端
+    public EverythingQueryBuilder(SearchBackend searchBackend) {
+        this.searchBackend = searchBackend;
     }
 
     // Fluent API
@@ -90,6 +93,17 @@ public class EverythingQueryBuilder {
         return this;
     }
 
+    /**
+     * 设置取消标记，搜索后端会在解码结果的过程中检查该标记，被取消时抛出 {@link java.util.concurrent.CancellationException}。
+     *
+     * @param token 取消标记，为 {@code null} 时表示不可取消
+     * @return 当前构建器实例，用于链式调用
+     */
+    public EverythingQueryBuilder cancelWith(CancellationToken token) {
+        this.token = (token == null) ? CancellationToken.NONE : token;
+        return this;
+    }
+
     /**
      * 构建查询参数对象。
      *
@@ -110,6 +124,33 @@ public class EverythingQueryBuilder {
         if (query == null || query.trim().isEmpty()) {
             return Collections.emptyList();
         }
-        return everythingService.query(build());
+        return searchBackend.query(build(), token);
+    }
+
+    /**
+     * 创建按页取回结果的翻页器。
+     * <p>
+     * 调用本方法时不会发起查询，每次调用 {@link ResultPager#next()} 才查询一页。
+     * 如果查询关键词为空或仅包含空白字符，则返回一个没有任何结果的翻页器。
+     *
+     * @return 本次查询的翻页器
+     */
+    public ResultPager stream() {
+        return stream(ResultPager.FIRST_PAGE_SIZE, ResultPager.PAGE_SIZE);
+    }
+
+    /**
+     * 创建按页取回结果的翻页器，并指定首页和之后每页的结果数量。
+     *
+     * @param firstPageSize 首页的结果数量
+     * @param pageSize      之后每页的结果数量
+     * @return 本次查询的翻页器
+     * @see #stream()
+     */
+    public ResultPager stream(int firstPageSize, int pageSize) {
+        if (query == null || query.trim().isEmpty()) {
+            return ResultPager.empty(build());
+        }
+        return new ResultPager(searchBackend, build(), firstPageSize, pageSize, token);
     }
 }
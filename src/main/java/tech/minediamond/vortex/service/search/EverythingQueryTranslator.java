@@ -0,0 +1,115 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.SearchMode;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 将 {@link EverythingQuery} 翻译为 Everything 查询语法的字符串。
+ * <p>
+ * 从 {@link EverythingService} 中独立出来，使其不依赖 Everything 实例，可以单独测试和做基准测试。
+ */
+@Slf4j
+final class EverythingQueryTranslator {
+
+    private static final Pattern FORBIDDEN_CHAR_PATTERN = Pattern.compile(
+            Pattern.quote("\"") + "|" +
+                    Pattern.quote("*") + "|" +
+                    Pattern.quote("?") + "|" +
+                    Pattern.quote("<") + "|" +
+                    Pattern.quote(">") + "|" +
+                    Pattern.quote("|")
+    );
+
+    private EverythingQueryTranslator() {
+    }
+
+    /**
+     * 将查询参数翻译为 Everything 的查询字符串。
+     *
+     * @param query 查询参数
+     * @return Everything 查询字符串
+     */
+    static String buildQueryString(EverythingQuery query) {
+        StringBuilder queryString = new StringBuilder();
+
+        // 添加路径查询部分
+        if(query.targetFolders().isPresent()){
+            String pathQueryPart = buildPathQueryPart(query);
+            queryString.append(pathQueryPart).append(" ");
+        }
+
+        // 添加搜索模式部分
+        if (query.searchMode().isPresent()) {
+            String searchModeQueryPart = buildSearchModeQueryPart(query);
+            queryString.append(searchModeQueryPart);
+        }
+
+        // 添加关键词部分：以空格分隔的多个词，Everything 要求所有词都命中
+        queryString.append(String.join(" ", keywordTerms(query.query())));
+
+        return queryString.toString();
+    }
+
+    /**
+     * 把查询关键词拆分为发送给 Everything 的词：先去除保留字符，再按空白拆分。
+     * <p>
+     * 这些词以空格连接后不加引号发送，Everything 把它们视为"与"关系，每个词都要在文件名中命中（包含 {@code \} 的词匹配完整路径）。
+     * {@link InMemorySearchBackend} 和 {@link PrefixRefiner} 使用同一套拆分，保证与实际查询的语义一致。
+     *
+     * @param keywords 用户输入的关键词
+     * @return 拆分后的词，没有有效字符时返回空数组
+     */
+    static String[] keywordTerms(String keywords) {
+        String stripped = keywords == null ? "" : stripForbiddenChars(keywords).trim();
+        return stripped.isEmpty() ? new String[0] : stripped.split("\\s+");
+    }
+
+    // 去除 Everything 查询语法中的保留字符
+    static String stripForbiddenChars(String text) {
+        return FORBIDDEN_CHAR_PATTERN.matcher(text).replaceAll("");
+    }
+
+    // 构建搜索路径部分字符串
+    private static String buildPathQueryPart(EverythingQuery query) {
+        List<Path> targetFolders = query.targetFolders().orElseGet(ArrayList::new);
+        String body = targetFolders.stream()
+                .map(Path::toString)
+                .collect(Collectors.joining("|"));
+        String pathQueryPart = "ancestor:" + body;
+        log.debug("搜索路径关键词: {}",pathQueryPart);
+        return pathQueryPart;
+    }
+
+    // 构建搜索描述部分字符串
+    private static String buildSearchModeQueryPart(EverythingQuery query) {
+        SearchMode searchMode = query.searchMode().orElse(SearchMode.ALL);
+        log.debug("searchMode关键词: {}",searchMode.getQueryPrefix());
+        return searchMode.getQueryPrefix();
+    }
+}
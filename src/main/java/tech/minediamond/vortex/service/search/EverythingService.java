@@ -21,7 +21,7 @@ package tech.minediamond.vortex.service.search;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.sun.jna.Native;
+import com.sun.jna.Pointer;
 import com.sun.jna.WString;
 import com.sun.jna.platform.win32.WinDef;
 import javafx.beans.property.ReadOnlyBooleanProperty;
@@ -30,23 +30,24 @@ import lombok.extern.slf4j.Slf4j;
 import tech.minediamond.vortex.model.fileData.FileData;
 import tech.minediamond.vortex.model.fileData.FileType;
 import tech.minediamond.vortex.model.search.EverythingQuery;
-import tech.minediamond.vortex.model.search.SearchMode;
+import tech.minediamond.vortex.model.search.ResultPage;
+import tech.minediamond.vortex.service.metrics.SearchMetrics;
+import tech.minediamond.vortex.service.metrics.SearchStage;
 
 import java.io.IOException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * 提供与Everything搜索引擎的交互功能的服务类。
  * <p>
  * 该服务负责启动、连接和查询Everything实例，使应用能够利用Everything的高效文件搜索能力。
  * 服务会在初始化时自动启动并连接到一个独立的Everything实例。
+ * 每次查询从 {@link EverythingClientPool} 借用一个连接和预先配置好的搜索状态，因此可以在多个线程中并行查询。
  * <p>
  * 使用示例：
  * <pre>
@@ -58,74 +59,68 @@ import java.util.stream.Collectors;
  *     .query();
  * </pre>
  *
+ * @see SearchBackend
  * @see EverythingQueryBuilder
  * @see FileData
  */
 @Singleton
 @Slf4j
-public class EverythingService {
+public class EverythingService implements SearchBackend {
 
-    private static final int MAX_PATH = 32767;
+    private static final int FULL_PATH_PROPERTY_ID = Everything3.PropertyType.FULL_PATH.getID().intValue();
+    private static final int IS_FOLDER_PROPERTY_ID = Everything3.PropertyType.IS_FOLDER.getID().intValue();
     private static final String EVERYTHING_PATH = Paths.get("everything\\Everything64.exe").toFile().getAbsolutePath();
-    private static final Pattern FORBIDDEN_CHAR_PATTERN = Pattern.compile(
-            Pattern.quote("\"") + "|" +
-                    Pattern.quote("*") + "|" +
-                    Pattern.quote("?") + "|" +
-                    Pattern.quote("<") + "|" +
-                    Pattern.quote(">") + "|" +
-                    Pattern.quote("|")
-    );
 
-    private Everything3.EverythingClient client = null;
+    private static final String INSTANCE_NAME = "vortex_backend";
+    // 等待其他查询归还连接的最长时间
+    private static final long ACQUIRE_TIMEOUT_MILLIS = 2000;
+
     private final Everything3 lib = Everything3.INSTANCE;
-    private Thread linkEverythingThread;
-    private final Runnable linkEverythingRunnable;
-    private Process everythingProcess;
+    private final EverythingClientPool clientPool = new EverythingClientPool(lib, INSTANCE_NAME);
+    private final EverythingSupervisor supervisor;
+    private volatile Process everythingProcess;
+    private final SearchMetrics searchMetrics;
     private final ReadOnlyBooleanWrapper searchServiceHealthProperty = new ReadOnlyBooleanWrapper(false);//供外部调用
 
 
     @Inject
-    public EverythingService() throws IOException, InterruptedException {
-        linkEverythingRunnable = () -> {
-            try {
-                TimeUnit.SECONDS.sleep(1);
-                for (int i = 0; i < 20; i++) {
-                    boolean linkSuccess = linkEverythingInstance();
-                    if (linkSuccess) {
-                        log.info("everything连接成功");
-                        return;
-                    } else {
-                        TimeUnit.MILLISECONDS.sleep(400);
-                    }
-                }
-                log.warn("连接失败");
-            } catch (InterruptedException e) {
-                log.warn("linkEverythingThread被中断");
+    public EverythingService(SearchMetrics searchMetrics) throws IOException {
+        this.searchMetrics = searchMetrics;
+        supervisor = new EverythingSupervisor(lib, clientPool, new EverythingSupervisor.ProcessControl() {
+            @Override
+            public boolean isAlive() {
+                return everythingProcess != null && everythingProcess.isAlive();
             }
-        };
 
-        linkEverythingThread = new Thread(linkEverythingRunnable);
-        StartEverythingInstance();
-        connectEverythingInstance();
-        searchServiceHealthProperty.addListener((observable,oldValue,newValue) -> {
-            if (!newValue){
-                connectEverythingInstance();
+            @Override
+            public void start() throws IOException {
+                StartEverythingInstance();
             }
-        });
+        }, state -> searchServiceHealthProperty.set(state == BackendState.CONNECTED));
+        StartEverythingInstance();
+        supervisor.start();
     }
 
+    @Override
     public ReadOnlyBooleanProperty getSearchServiceHealthProperty(){
         return searchServiceHealthProperty.getReadOnlyProperty();
     }
 
+    @Override
+    public CompletableFuture<Void> readiness() {
+        return supervisor.readiness();
+    }
 
     /**
-     * 创建并返回一个查询构建器，用于构建搜索请求。
-     *
-     * @return 一个新的EverythingQueryBuilder实例，支持流式API
+     * @return 后端当前的连接状态
      */
-    public EverythingQueryBuilder QueryBuilder() {
-        return new EverythingQueryBuilder(this);
+    public BackendState getBackendState() {
+        return supervisor.getState();
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        stopEverythingInstance();
     }
 
     /**
@@ -136,7 +131,7 @@ public class EverythingService {
      * @throws IOException 启动进程失败时抛出
      */
     public void StartEverythingInstance() throws IOException {
-        ProcessBuilder pb = new ProcessBuilder(EVERYTHING_PATH, "-instance", "vortex_backend");
+        ProcessBuilder pb = new ProcessBuilder(EVERYTHING_PATH, "-instance", INSTANCE_NAME);
         pb.redirectErrorStream(true);
         pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
         pb.redirectError(ProcessBuilder.Redirect.DISCARD);
@@ -146,205 +141,116 @@ public class EverythingService {
     /**
      * 停止并关闭Everything实例。
      * <p>
-     * 如果已连接到实例，会先销毁客户端连接，然后关闭实例。
+     * 会先停止监管、关闭连接池并销毁客户端连接，然后关闭实例。
      *
      * @throws IOException 执行关闭命令失败时抛出
      */
     public void stopEverythingInstance() throws IOException {
-        if (client != null) {
-            lib.Everything3_DestroyClient(client);
-        }
-        if (linkEverythingThread != null && linkEverythingThread.isAlive()) {
-            linkEverythingThread.interrupt();
-        }
-        ProcessBuilder pb = new ProcessBuilder(EVERYTHING_PATH, "-exit", "-instance", "vortex_backend");
+        supervisor.stop();
+        clientPool.close();
+        ProcessBuilder pb = new ProcessBuilder(EVERYTHING_PATH, "-exit", "-instance", INSTANCE_NAME);
         pb.redirectErrorStream(true);
         pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
         pb.redirectError(ProcessBuilder.Redirect.DISCARD);
         pb.start();
     }
 
-    /**
-     * 连接到正在运行的Everything实例(尝试多次，异步执行)。
-     */
-    public void connectEverythingInstance() {
-        log.debug("尝试连接/重新连接EverythingInstance");
-        if (everythingProcess == null || !everythingProcess.isAlive()) {//当everything未运行
-            log.debug("everything未运行");
-            try {
-                client = null;
-                StartEverythingInstance();
-                if (!linkEverythingThread.isAlive()){
-                    startLinkEverythingThread();
-                }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        } else {//当everything已运行
-            if (!linkEverythingThread.isAlive()){
-                startLinkEverythingThread();
-            }
-        }
-        log.debug("执行到这里了");
-    }
-
-    private void startLinkEverythingThread(){
-        linkEverythingThread = new Thread(linkEverythingRunnable);
-        linkEverythingThread.setName("Link Everything Instance Thread");
-        linkEverythingThread.start();
-    }
+    @Override
+    public ResultPage queryPage(EverythingQuery query, int offset, int count, CancellationToken token) {
 
-    /**
-     * 连接到正在运行的Everything实例(仅尝试一次)。
-     *
-     * @return Everything客户端句柄，连接失败时返回null
-     */
-    public boolean linkEverythingInstance() {
-        client = lib.Everything3_ConnectW(new WString("vortex_backend"));
-        if (client != null) {
-            searchServiceHealthProperty.set(true);
-            return true;
+        // 后端未就绪时直接返回，由 EverythingSupervisor 负责重连
+        if (supervisor.getState() != BackendState.CONNECTED) {
+            return ResultPage.empty(offset);
         }
-        return false;
-    }
-
-    public List<FileData> query(EverythingQuery query) {
 
-        // 防御性检查
-        if (!searchServiceHealthProperty.get()){
-            return Collections.emptyList();
+        EverythingClientPool.Lease lease;
+        try {
+            lease = clientPool.acquire(ACQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("等待 Everything 连接时被中断");
         }
-
-        if (client == null) {
+        if (lease == null) {
             log.error("无法执行查询：Everything 服务未连接。");
-            searchServiceHealthProperty.set(false);
-            return Collections.emptyList();
+            supervisor.reportFailure("无法获取连接");
+            return ResultPage.empty(offset);
         }
 
-        if (!lib.Everything3_IsDBLoaded(client)) {
+        if (!lib.Everything3_IsDBLoaded(lease.client())) {
             log.error("无法执行查询：Everything数据库未加载。");
-            searchServiceHealthProperty.set(false);
-            return Collections.emptyList();
+            clientPool.release(lease, false);
+            supervisor.reportFailure("数据库未加载");
+            return ResultPage.empty(offset);
         }
 
-        Everything3.EverythingSearchState searchState = null;
+        Everything3.EverythingSearchState searchState = lease.searchState();
         Everything3.EverythingResultList resultList = null;
+        boolean broken = false;
         List<FileData> results = new ArrayList<>();
+        long totalCount;
         try {
-            // 创建和配置搜索条件
-            searchState = lib.Everything3_CreateSearchState();
-            if (searchState == null) {
-                log.error("无法执行查询：创建搜索失败。");
-                return Collections.emptyList();
-            }
-            // 设置返回结果的最大数量
-            lib.Everything3_SetSearchViewportCount(searchState, new WinDef.DWORD(200));
-            //设置搜索内容
-            lib.Everything3_AddSearchPropertyRequest(searchState, Everything3.PropertyType.FULL_PATH.getID());
-            lib.Everything3_AddSearchPropertyRequest(searchState, Everything3.PropertyType.SIZE.getID());
-            lib.Everything3_AddSearchPropertyRequest(searchState, Everything3.PropertyType.FILE_NAME.getID());
-            lib.Everything3_AddSearchPropertyRequest(searchState, Everything3.PropertyType.IS_FOLDER.getID());
+            // 设置本页的起始位置和最大数量，属性请求已在连接池中配置好
+            lib.Everything3_SetSearchViewportOffset(searchState, new WinDef.DWORD(offset));
+            lib.Everything3_SetSearchViewportCount(searchState, new WinDef.DWORD(count));
 
             // 设置搜索关键字
-            String finalQueryString = buildQueryString(query);
+            long stageStart = System.nanoTime();
+            String finalQueryString = EverythingQueryTranslator.buildQueryString(query);
+            searchMetrics.recordSince(SearchStage.BUILD_QUERY, stageStart);
 
             //执行搜索
-            log.info("正在执行搜索 '{}'...", query);
-            log.info("搜索词: {}", finalQueryString);
+            log.debug("正在执行搜索 '{}'...", query);
+            log.debug("搜索词: {}", finalQueryString);
             lib.Everything3_SetSearchTextW(searchState, new WString(finalQueryString));
-            resultList = lib.Everything3_Search(client, searchState);
+            token.throwIfCancelled();
+            stageStart = System.nanoTime();
+            resultList = lib.Everything3_Search(lease.client(), searchState);
+            searchMetrics.recordSince(SearchStage.NATIVE_SEARCH, stageStart);
             if (resultList == null) {
                 log.error("搜索执行失败。");
+                broken = true;
+                supervisor.reportFailure("搜索执行失败");
+                return ResultPage.empty(offset);
             }
             //遍历和处理结果
-            WinDef.DWORD numResults = lib.Everything3_GetResultListViewportCount(resultList);
-            log.info("找到 {} 个结果:", numResults.intValue());
-
-            char[] buffer = new char[MAX_PATH];
-            WinDef.DWORD resultListIndex = new WinDef.DWORD();
-            WinDef.DWORD maxPathLength = new WinDef.DWORD(MAX_PATH);
-            for (int i = 0; i < numResults.intValue(); i++) {//遍历搜索结果
-                FileData fileData = new FileData();
-                resultListIndex.setValue(i);
-                //获取搜索结果的完整路径
-                lib.Everything3_GetResultPropertyTextW(resultList, resultListIndex, Everything3.PropertyType.FULL_PATH.getID(), buffer, maxPathLength);
-                String pathname = Native.toString(buffer);
-                fileData.setFullPath(pathname);
-
-                //获取搜索结果的名称
-                lib.Everything3_GetResultPropertyTextW(resultList, resultListIndex, Everything3.PropertyType.FILE_NAME.getID(), buffer, maxPathLength);
-                String filename = Native.toString(buffer);
-                fileData.setFileName(filename);
-
-                //获取搜索结果的大小(单位:Byte)
-                //这里直接将返回的无符号int64转换为long，但是考虑到无符号int64达到最大位需要文件8EB以上的大小，因此直接赋值问题不大
-                long size = lib.Everything3_GetResultSize(resultList, resultListIndex);
-                fileData.setSize(size);
-
-                //获取文件的类型
-                byte type = lib.Everything3_GetResultPropertyBYTE(resultList, resultListIndex, Everything3.PropertyType.IS_FOLDER.getID());
-                int intType = type & 0xFF;
-                if (intType != 0) {
-                    fileData.setType(FileType.FOLDER);
-                } else {
-                    fileData.setType(FileType.FILE);
-                }
-
-                results.add(fileData);
+            stageStart = System.nanoTime();
+            Pointer resultListPointer = resultList.getPointer();
+            int numResults = (int) Everything3Direct.Everything3_GetResultListViewportCount(resultListPointer);
+            totalCount = lib.Everything3_GetResultListCount(resultList).longValue();
+            log.debug("共 {} 个结果，返回第 {} 个起的 {} 个", totalCount, offset, numResults);
+
+            ResultDecoder decoder = lease.decoder();
+            for (int i = 0; i < numResults; i++) {//遍历搜索结果
+                token.throwIfCancelled();//搜索已被取代时不再解码剩余的结果，资源在 finally 中释放
+                results.add(decodeResult(resultListPointer, i, decoder));
             }
+            searchMetrics.recordSince(SearchStage.DECODE, stageStart);
         } finally {
             if (resultList != null) {
                 lib.Everything3_DestroyResultList(resultList);
             }
-            if (searchState != null) {
-                lib.Everything3_DestroySearchState(searchState);
-            }
+            clientPool.release(lease, broken);
         }
-        searchServiceHealthProperty.set(true);
-        log.debug(results.toString());
-        return results;
-    }
-
-    // 构建查询字符串
-    private String buildQueryString(EverythingQuery query) {
-        StringBuilder queryString = new StringBuilder();
-
-        // 添加路径查询部分
-        if(query.targetFolders().isPresent()){
-            String pathQueryPart = buildPathQueryPart(query);
-            queryString.append(pathQueryPart).append(" ");
-        }
-
-        // 添加搜索模式部分
-        if (query.searchMode().isPresent()) {
-            String searchModeQueryPart = buildSearchModeQueryPart(query);
-            queryString.append(searchModeQueryPart);
-        }
-
-        // 添加关键词部分
-        String queryKeywords = "\"" + query.query() + "\"";
-        queryKeywords = FORBIDDEN_CHAR_PATTERN.matcher(queryKeywords).replaceAll("");
-        queryString.append(queryKeywords);
-
-        return queryString.toString();
-    }
-
-    //构建搜索路径部分字符串
-    private String buildPathQueryPart(EverythingQuery query) {
-        List<Path> targetFolders = query.targetFolders().orElseGet(ArrayList::new);
-        String body = targetFolders.stream()
-                .map(Path::toString)
-                .collect(Collectors.joining("|"));
-        String pathQueryPart = "ancestor:" + body;
-        log.debug("搜索路径关键词: {}",pathQueryPart);
-        return pathQueryPart;
+        return new ResultPage(results, offset, totalCount);
     }
 
-    //构建搜索描述部分字符串
-    private String buildSearchModeQueryPart(EverythingQuery query) {
-        SearchMode searchMode = query.searchMode().orElse(SearchMode.ALL);
-        log.debug("searchMode关键词: {}",searchMode.getQueryPrefix());
-        return searchMode.getQueryPrefix();
+    // 解码一行结果，每行三次原生调用，文件名由完整路径得出
+    private static FileData decodeResult(Pointer resultList, int index, ResultDecoder decoder) {
+        FileData fileData = new FileData();
+        //获取搜索结果的完整路径和名称
+        long length = Everything3Direct.Everything3_GetResultPropertyTextW(resultList, index, FULL_PATH_PROPERTY_ID, decoder.buffer(), ResultDecoder.CAPACITY_IN_CHARS);
+        String pathname = decoder.decode(length);
+        fileData.setFullPath(pathname);
+        fileData.setFileName(ResultDecoder.fileNameOf(pathname));
+
+        //获取搜索结果的大小(单位:Byte)
+        //这里直接将返回的无符号int64转换为long，但是考虑到无符号int64达到最大位需要文件8EB以上的大小，因此直接赋值问题不大
+        fileData.setSize(Everything3Direct.Everything3_GetResultSize(resultList, index));
+
+        //获取文件的类型
+        byte type = Everything3Direct.Everything3_GetResultPropertyBYTE(resultList, index, IS_FOLDER_PROPERTY_ID);
+        fileData.setType((type & 0xFF) != 0 ? FileType.FOLDER : FileType.FILE);
+        return fileData;
     }
 
 }
@@ -0,0 +1,241 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 负责 Everything 后端的启动、连接和健康探测。
+ * <p>
+ * 所有工作都在一个单线程的 {@link ScheduledExecutorService} 中执行，状态转换如下：
+ * <ul>
+ *     <li>{@link BackendState#STARTING} / {@link BackendState#DEGRADED} / {@link BackendState#DOWN} - 确保进程在运行并尝试连接，
+ *     失败时按指数退避（上限 {@link #MAX_BACKOFF_MILLIS}）重试，连续失败 {@link #DOWN_AFTER_FAILURES} 次后进入 DOWN</li>
+ *     <li>{@link BackendState#DB_LOADING} - 已连接但索引未加载，每 {@link #DB_LOADING_PROBE_MILLIS} 毫秒探测一次</li>
+ *     <li>{@link BackendState#CONNECTED} - 每 {@link #PROBE_INTERVAL_MILLIS} 毫秒通过 {@code Everything3_IsDBLoaded} 探测一次</li>
+ * </ul>
+ * 查询失败时调用 {@link #reportFailure(String)}，立即安排一次重连，而不是由查询线程自己重连。
+ * <p>
+ * {@link #readiness()} 返回的 future 在进入 CONNECTED 时完成，离开 CONNECTED 后换成新的未完成的 future，
+ * 调用方可以在后台线程中等待它，而不必轮询或阻塞 JavaFX 应用线程。
+ */
+@Slf4j
+public class EverythingSupervisor {
+
+    public static final long INITIAL_BACKOFF_MILLIS = 200;
+    public static final long MAX_BACKOFF_MILLIS = 10_000;
+    public static final int DOWN_AFTER_FAILURES = 8;
+    public static final long DB_LOADING_PROBE_MILLIS = 500;
+    public static final long PROBE_INTERVAL_MILLIS = 5_000;
+
+    /**
+     * 后端进程的控制方式
+     */
+    public interface ProcessControl {
+        boolean isAlive();
+
+        void start() throws IOException;
+    }
+
+    private final Everything3 lib;
+    private final EverythingClientPool clientPool;
+    private final ProcessControl processControl;
+    private final Consumer<BackendState> stateListener;
+    private final ScheduledExecutorService scheduler;
+
+    // 以下字段只在调度线程中写入
+    private volatile BackendState state = BackendState.STARTING;
+    private volatile CompletableFuture<Void> ready = new CompletableFuture<>();
+    private int failures = 0;
+    private long generation = 0;//每次安排新的检查时加一，使之前安排的检查失效
+
+    public EverythingSupervisor(Everything3 lib, EverythingClientPool clientPool, ProcessControl processControl, Consumer<BackendState> stateListener) {
+        this.lib = lib;
+        this.clientPool = clientPool;
+        this.processControl = processControl;
+        this.stateListener = stateListener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Everything Supervisor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 开始监管，立即安排第一次连接。
+     */
+    public void start() {
+        scheduler.execute(() -> schedule(0));
+    }
+
+    /**
+     * 停止监管，不再重连和探测。
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public BackendState getState() {
+        return state;
+    }
+
+    /**
+     * @return 后端进入 {@link BackendState#CONNECTED} 时完成的 future
+     */
+    public CompletableFuture<Void> readiness() {
+        return ready;
+    }
+
+    /**
+     * 查询线程报告后端不可用，监管线程会立即重新检查连接。
+     *
+     * @param reason 失败原因，用于日志
+     */
+    public void reportFailure(String reason) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.execute(() -> {
+            if (state == BackendState.CONNECTED) {
+                log.warn("搜索后端报告失败：{}", reason);
+                transition(BackendState.DEGRADED);
+                schedule(0);
+            }
+        });
+    }
+
+    // 安排下一次检查，之前安排的检查失效
+    private void schedule(long delayMillis) {
+        long scheduledGeneration = ++generation;
+        scheduler.schedule(() -> {
+            if (scheduledGeneration == generation) {
+                check();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void check() {
+        try {
+            switch (state) {
+                case STARTING, DEGRADED, DOWN -> connect();
+                case DB_LOADING, CONNECTED -> probe();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("检查搜索后端状态时出错", e);
+            onFailure();
+        }
+    }
+
+    private void connect() throws InterruptedException {
+        if (!processControl.isAlive()) {
+            try {
+                log.info("Everything 未运行，正在启动");
+                processControl.start();
+            } catch (IOException e) {
+                log.error("启动 Everything 失败", e);
+                onFailure();
+                return;
+            }
+        }
+        clientPool.invalidate();
+        EverythingClientPool.Lease lease = clientPool.acquire(0, TimeUnit.MILLISECONDS);
+        if (lease == null) {
+            onFailure();
+            return;
+        }
+        boolean dbLoaded = lib.Everything3_IsDBLoaded(lease.client());
+        clientPool.release(lease, false);
+        log.info("everything连接成功");
+        failures = 0;
+        onProbe(dbLoaded);
+    }
+
+    private void probe() throws InterruptedException {
+        if (!processControl.isAlive()) {
+            log.warn("探测 Everything 失败：进程已退出");
+            transition(BackendState.DEGRADED);
+            schedule(0);
+            return;
+        }
+        EverythingClientPool.Lease lease = clientPool.acquire(0, TimeUnit.MILLISECONDS);
+        if (lease == null) {
+            // 所有连接都被查询借出时视为健康，稍后再探测
+            if (clientPool.hasLeasesOut()) {
+                schedule(PROBE_INTERVAL_MILLIS);
+                return;
+            }
+            log.warn("探测 Everything 失败：无法连接");
+            transition(BackendState.DEGRADED);
+            schedule(0);
+            return;
+        }
+        boolean dbLoaded = lib.Everything3_IsDBLoaded(lease.client());
+        clientPool.release(lease, false);
+        onProbe(dbLoaded);
+    }
+
+    private void onProbe(boolean dbLoaded) {
+        if (dbLoaded) {
+            transition(BackendState.CONNECTED);
+            schedule(PROBE_INTERVAL_MILLIS);
+        } else {
+            transition(BackendState.DB_LOADING);
+            schedule(DB_LOADING_PROBE_MILLIS);
+        }
+    }
+
+    private void onFailure() {
+        failures++;
+        if (failures >= DOWN_AFTER_FAILURES) {
+            if (state != BackendState.DOWN) {
+                log.warn("连续 {} 次连接 Everything 失败", failures);
+            }
+            transition(BackendState.DOWN);
+        } else if (state == BackendState.CONNECTED || state == BackendState.DB_LOADING) {
+            transition(BackendState.DEGRADED);
+        }
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(failures - 1, 16));
+        schedule(backoff);
+    }
+
+    private void transition(BackendState newState) {
+        BackendState oldState = state;
+        if (oldState == newState) {
+            return;
+        }
+        state = newState;
+        log.info("搜索后端状态: {} -> {}", oldState, newState);
+        if (newState == BackendState.CONNECTED) {
+            ready.complete(null);
+        } else if (ready.isDone()) {
+            ready = new CompletableFuture<>();
+        }
+        stateListener.accept(newState);
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import com.google.inject.Inject;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.fileData.FileType;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.ResultPage;
+import tech.minediamond.vortex.model.search.SearchMode;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * 纯 Java 实现的内存搜索后端，不依赖 Everything 和 Windows。
+ * <p>
+ * 构造时会根据给定的种子生成一份确定性的合成语料（默认一百万条路径），相同的规模和种子总是生成完全相同的语料，
+ * 因此可以在 Linux CI 上对整个搜索链路做延迟、吞吐测量和回归测试。
+ * <p>
+ * 查询语义与 {@link EverythingService} 发送给 Everything 的查询字符串保持一致，关键词的拆分与查询字符串共用
+ * {@link EverythingQueryTranslator#keywordTerms(String)}：
+ * <ul>
+ *     <li>关键词去除保留字符后按空白拆分为多个词，所有词都需要命中；每个词不区分大小写，在文件名中做子串匹配，包含 {@code \} 的词改为匹配完整路径</li>
+ *     <li>{@link SearchMode} 限定只返回文件或文件夹</li>
+ *     <li>目标文件夹等价于 {@code ancestor:} 修饰符，只返回位于这些文件夹之下的结果</li>
+ * </ul>
+ * 为了让百万级语料保持紧凑，文件名全部存放在一个 {@code char[]} 中，通过偏移量数组访问，目录路径只保存一份。
+ * <p>
+ * 通过 {@code -Dvortex.search.backend=memory} 启用，语料规模可用 {@code -Dvortex.search.memory.size} 调整。
+ */
+@Slf4j
+public class InMemorySearchBackend implements SearchBackend {
+
+    public static final String BACKEND_NAME = "memory";
+    public static final String CORPUS_SIZE_PROPERTY = "vortex.search.memory.size";
+    public static final int DEFAULT_CORPUS_SIZE = 1_000_000;
+    public static final long DEFAULT_SEED = 20250101L;
+
+    private static final String[] ROOTS = {"C:", "D:", "E:"};
+    private static final String[] WORDS = {
+            "report", "project", "vortex", "invoice", "photo", "backup", "config", "notes", "draft", "summary",
+            "budget", "design", "music", "video", "readme", "license", "install", "setup", "data", "cache",
+            "server", "client", "build", "release", "test", "sample", "archive", "download", "document", "image",
+            "lecture", "homework", "thesis", "resume", "contract", "meeting", "plan", "schedule", "travel", "recipe",
+            "game", "save", "screenshot", "wallpaper", "font", "driver", "update", "patch", "module", "library",
+            "source", "script", "template", "theme", "plugin", "profile", "history", "export", "import", "log"
+    };
+    private static final String[] EXTENSIONS = {
+            "txt", "docx", "xlsx", "pptx", "pdf", "jpg", "png", "mp3", "mp4", "zip",
+            "java", "py", "md", "json", "xml", "exe", "dll", "ini", "log", "csv"
+    };
+
+    @Getter
+    private final int corpusSize;
+    @Getter
+    private final long seed;
+
+    // 目录表：每个目录只保存一份完整路径
+    private final String[] dirPaths;
+    // 条目表：每个条目是一个文件或文件夹
+    private final int[] parentDir;
+    private final int[] entryDir;//文件夹条目对应的目录下标，文件为 -1
+    private final long[] sizes;
+    private final int[] nameOffsets;//第 i 个条目的名称位于 nameChars[nameOffsets[i], nameOffsets[i + 1])
+    private final char[] nameChars;
+
+    private final ReadOnlyBooleanWrapper searchServiceHealthProperty = new ReadOnlyBooleanWrapper(true);
+
+    @Inject
+    public InMemorySearchBackend() {
+        this(Integer.getInteger(CORPUS_SIZE_PROPERTY, DEFAULT_CORPUS_SIZE), DEFAULT_SEED);
+    }
+
+    /**
+     * 生成指定规模的合成语料。
+     *
+     * @param corpusSize 条目总数（文件与文件夹之和）
+     * @param seed       随机种子，相同的规模和种子生成相同的语料
+     */
+    public InMemorySearchBackend(int corpusSize, long seed) {
+        if (corpusSize < ROOTS.length) {
+            throw new IllegalArgumentException("语料规模过小: " + corpusSize);
+        }
+        this.corpusSize = corpusSize;
+        this.seed = seed;
+
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        int dirCount = Math.max(ROOTS.length, corpusSize / 16);
+
+        dirPaths = new String[dirCount];
+        parentDir = new int[corpusSize];
+        entryDir = new int[corpusSize];
+        sizes = new long[corpusSize];
+        nameOffsets = new int[corpusSize + 1];
+        StringBuilder names = new StringBuilder(corpusSize * 14);
+
+        // 先生成目录，每个目录同时作为一个文件夹条目
+        for (int d = 0; d < dirCount; d++) {
+            String name;
+            if (d < ROOTS.length) {
+                name = ROOTS[d];
+                dirPaths[d] = name;
+                parentDir[d] = -1;
+            } else {
+                int parent = random.nextInt(d);
+                name = capitalize(pick(random, WORDS)) + (random.nextInt(4) == 0 ? " " + random.nextInt(100) : "");
+                dirPaths[d] = dirPaths[parent] + "\\" + name;
+                parentDir[d] = parent;
+            }
+            entryDir[d] = d;
+            nameOffsets[d] = names.length();
+            names.append(name);
+        }
+
+        // 再生成文件，文件只放在非根目录下（语料过小没有非根目录时放在根目录下）。
+        // 同一目录下的文件连续存放，和真实文件系统的枚举顺序一致，按路径匹配时父目录路径也能留在缓存中
+        int firstParent = dirCount > ROOTS.length ? ROOTS.length : 0;
+        for (int i = dirCount; i < corpusSize; i++) {
+            parentDir[i] = firstParent + random.nextInt(dirCount - firstParent);
+        }
+        Arrays.sort(parentDir, dirCount, corpusSize);
+        for (int i = dirCount; i < corpusSize; i++) {
+            entryDir[i] = -1;
+            sizes[i] = random.nextLong(1L << 32);
+            nameOffsets[i] = names.length();
+            names.append(pick(random, WORDS));
+            if (random.nextBoolean()) {
+                names.append('_').append(pick(random, WORDS));
+            }
+            if (random.nextInt(3) == 0) {
+                names.append('_').append(random.nextInt(1000));
+            }
+            names.append('.').append(pick(random, EXTENSIONS));
+        }
+        nameOffsets[corpusSize] = names.length();
+        nameChars = new char[names.length()];
+        names.getChars(0, names.length(), nameChars, 0);
+
+        log.info("内存搜索后端已生成 {} 条合成路径（{} 个目录），耗时 {} ms",
+                corpusSize, dirCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public ReadOnlyBooleanProperty getSearchServiceHealthProperty() {
+        return searchServiceHealthProperty.getReadOnlyProperty();
+    }
+
+    @Override
+    public ResultPage queryPage(EverythingQuery query, int offset, int count, CancellationToken token) {
+        String[] keywords = EverythingQueryTranslator.keywordTerms(query.query());
+        if (keywords.length == 0) {
+            return ResultPage.empty(offset);
+        }
+        String keyword = String.join(" ", keywords).toLowerCase(Locale.ROOT);
+        Term[] terms = Arrays.stream(keywords).map(term -> toTerm(term.toLowerCase(Locale.ROOT))).toArray(Term[]::new);
+        SearchMode searchMode = query.searchMode().orElse(SearchMode.ALL);
+        boolean[] allowedDirs = resolveAllowedDirs(query.targetFolders().orElse(Collections.emptyList()));
+
+        List<FileData> results = new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < corpusSize; i++) {
+            if ((i & 0xFFF) == 0) {//每扫描 4096 条检查一次取消
+                token.throwIfCancelled();
+            }
+            boolean isFolder = entryDir[i] >= 0;
+            if ((searchMode == SearchMode.FILES_ONLY && isFolder) || (searchMode == SearchMode.FOLDERS_ONLY && !isFolder)) {
+                continue;
+            }
+            if (allowedDirs != null && (parentDir[i] < 0 || !allowedDirs[parentDir[i]])) {
+                continue;
+            }
+            if (!matches(i, terms)) {
+                continue;
+            }
+            if (total >= offset && results.size() < count) {
+                results.add(toFileData(i));
+            }
+            total++;
+        }
+        log.debug("内存搜索 '{}' 命中 {} 条，返回第 {} 条起的 {} 条", keyword, total, offset, results.size());
+        return new ResultPage(results, offset, total);
+    }
+
+    /**
+     * 查询中的一个词。包含 {@code \} 的词需要匹配完整路径，此时预先计算出哪些目录的路径本身已经包含该词。
+     */
+    private record Term(char[] chars, boolean[] dirContains) {
+    }
+
+    private Term toTerm(String term) {
+        if (term.indexOf('\\') < 0) {
+            return new Term(term.toCharArray(), null);
+        }
+        boolean[] dirContains = new boolean[dirPaths.length];
+        for (int d = 0; d < dirPaths.length; d++) {
+            dirContains[d] = dirPaths[d].toLowerCase(Locale.ROOT).contains(term);
+        }
+        return new Term(term.toCharArray(), dirContains);
+    }
+
+    private boolean matches(int i, Term[] terms) {
+        for (Term term : terms) {
+            boolean matched = term.dirContains() != null
+                    ? pathContains(i, term)
+                    : containsIgnoreCase(nameChars, nameOffsets[i], nameOffsets[i + 1], term.chars());
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 计算每个目录是否位于目标文件夹之下，目标文件夹为空时返回 {@code null} 表示不限制。
+     */
+    private boolean[] resolveAllowedDirs(List<Path> targetFolders) {
+        if (targetFolders.isEmpty()) {
+            return null;
+        }
+        String[] prefixes = targetFolders.stream()
+                .map(path -> path.toString().replace('/', '\\').toLowerCase(Locale.ROOT))
+                .map(prefix -> prefix.endsWith("\\") ? prefix.substring(0, prefix.length() - 1) : prefix)
+                .toArray(String[]::new);
+        boolean[] allowed = new boolean[dirPaths.length];
+        for (int d = 0; d < dirPaths.length; d++) {
+            String dir = dirPaths[d].toLowerCase(Locale.ROOT);
+            for (String prefix : prefixes) {
+                if (dir.equals(prefix) || (dir.startsWith(prefix) && dir.charAt(prefix.length()) == '\\')) {
+                    allowed[d] = true;
+                    break;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    private FileData toFileData(int i) {
+        FileData fileData = new FileData();
+        String name = new String(nameChars, nameOffsets[i], nameOffsets[i + 1] - nameOffsets[i]);
+        fileData.setFileName(name);
+        fileData.setFullPath(fullPath(i));
+        if (entryDir[i] >= 0) {
+            fileData.setType(FileType.FOLDER);
+        } else {
+            fileData.setType(FileType.FILE);
+            fileData.setSize(sizes[i]);
+        }
+        return fileData;
+    }
+
+    private String fullPath(int i) {
+        if (entryDir[i] >= 0) {
+            return dirPaths[entryDir[i]];
+        }
+        return dirPaths[parentDir[i]] + "\\" + new String(nameChars, nameOffsets[i], nameOffsets[i + 1] - nameOffsets[i]);
+    }
+
+    // 在条目的完整路径中查找词，不拼接字符串：文件的完整路径视为 "父目录路径\文件名"，
+    // 父目录部分已预先计算，这里只需检查文件名和跨越分隔符的位置
+    private boolean pathContains(int i, Term term) {
+        if (entryDir[i] >= 0) {
+            return term.dirContains()[entryDir[i]];
+        }
+        if (term.dirContains()[parentDir[i]]) {
+            return true;
+        }
+        char[] pattern = term.chars();
+        int nameStart = nameOffsets[i];
+        int nameEnd = nameOffsets[i + 1];
+        if (containsIgnoreCase(nameChars, nameStart, nameEnd, pattern)) {
+            return true;
+        }
+        String dir = dirPaths[parentDir[i]];
+        int dirLength = dir.length();
+        int length = dirLength + 1 + nameEnd - nameStart;
+        outer:
+        for (int start = Math.max(0, dirLength - pattern.length + 1); start <= Math.min(dirLength, length - pattern.length); start++) {
+            for (int j = 0; j < pattern.length; j++) {
+                int index = start + j;
+                char c = index < dirLength ? dir.charAt(index) : index == dirLength ? '\\' : nameChars[nameStart + index - dirLength - 1];
+                if (fold(c) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // 在 text[from, to) 中查找小写的 pattern，pattern 必须已经是小写
+    private static boolean containsIgnoreCase(char[] text, int from, int to, char[] pattern) {
+        int last = to - pattern.length;
+        outer:
+        for (int start = from; start <= last; start++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (fold(text[start + j]) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static char fold(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        return c < 128 ? c : Character.toLowerCase(c);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在查询只是变长时，在本地过滤上一次的结果，而不是重新向后端查询。
+ * <p>
+ * 用户输入 "repo" → "repor" → "report" 时，新查询的结果一定是上一次结果的子集，
+ * 前提是上一次的结果是完整的（没有被视口截断），且搜索模式和目标文件夹没有变化。
+ * 此外还会记住没有任何结果的查询，以其为前缀的查询直接判定为未找到。
+ * <p>
+ * 只有当新查询的每个关键词都只包含字母、数字和 {@code . _ -} 时才会在本地过滤，
+ * 其他字符（如路径分隔符、{@code !}、{@code :}）在 Everything 中有特殊含义，
+ * 会改变匹配方式，此时一律交给后端查询。
+ * <p>
+ * 本地过滤的关键词拆分与发送给后端的查询字符串相同（见 {@link EverythingQueryTranslator#keywordTerms(String)}），
+ * 多个词之间是"与"关系，文件名需要包含每一个词。
+ */
+@Slf4j
+public class PrefixRefiner {
+
+    /**
+     * 记录的结果的存活时间，超时后文件系统可能已经变化
+     */
+    public static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    /**
+     * 最多记住的无结果查询数量
+     */
+    public static final int MAX_EMPTY_PREFIXES = 64;
+
+    private record Snapshot(EverythingQuery query, List<FileData> results, long createdAt) {
+    }
+
+    private Snapshot lastComplete;
+    // 无结果的查询及其记录时间，按插入顺序淘汰
+    private final LinkedHashMap<EverythingQuery, Long> emptyPrefixes = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<EverythingQuery, Long> eldest) {
+            return size() > MAX_EMPTY_PREFIXES;
+        }
+    };
+
+    /**
+     * 尝试在本地得到查询的完整结果。
+     *
+     * @param query 查询参数
+     * @return 可以在本地得出时返回完整结果（可能为空列表，表示未找到），否则返回 {@link Optional#empty()}，需要向后端查询
+     */
+    public synchronized Optional<List<FileData>> refine(EverythingQuery query) {
+        EverythingQuery normalized = query.normalized();
+        if (!isRefinable(normalized.query())) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+
+        for (Map.Entry<EverythingQuery, Long> entry : emptyPrefixes.entrySet()) {
+            if (now - entry.getValue() < TTL_NANOS && extendsQuery(normalized, entry.getKey())) {
+                log.debug("'{}' 以无结果的查询 '{}' 为前缀，直接判定为未找到", normalized.query(), entry.getKey().query());
+                return Optional.of(List.of());
+            }
+        }
+
+        Snapshot snapshot = lastComplete;
+        if (snapshot == null || now - snapshot.createdAt() >= TTL_NANOS || !extendsQuery(normalized, snapshot.query())) {
+            return Optional.empty();
+        }
+        String[] terms = EverythingQueryTranslator.keywordTerms(normalized.query());
+        List<FileData> results = new ArrayList<>();
+        for (FileData fileData : snapshot.results()) {
+            String fileName = fileData.getFileName() == null ? "" : fileData.getFileName().toLowerCase(Locale.ROOT);
+            if (containsAll(fileName, terms)) {
+                results.add(fileData);
+            }
+        }
+        log.debug("在本地由 '{}' 的 {} 个结果过滤出 '{}' 的 {} 个结果",
+                snapshot.query().query(), snapshot.results().size(), normalized.query(), results.size());
+        return Optional.of(List.copyOf(results));
+    }
+
+    /**
+     * 记录一次查询的完整（未被截断）结果，供之后更长的查询在本地过滤。
+     *
+     * @param query   查询参数
+     * @param results 该查询的全部结果
+     */
+    public synchronized void recordComplete(EverythingQuery query, List<FileData> results) {
+        EverythingQuery normalized = query.normalized();
+        if (!isRefinable(normalized.query())) {
+            return;
+        }
+        if (results.isEmpty()) {
+            emptyPrefixes.remove(normalized);
+            emptyPrefixes.put(normalized, System.nanoTime());
+        } else {
+            lastComplete = new Snapshot(normalized, List.copyOf(results), System.nanoTime());
+        }
+    }
+
+    /**
+     * 清空记录的所有结果，在后端重新连接等索引可能变化的情况下调用。
+     */
+    public synchronized void invalidateAll() {
+        lastComplete = null;
+        emptyPrefixes.clear();
+    }
+
+    // 两个查询的模式和文件夹相同，且 query 的关键词是在 prefix 的基础上继续输入得到的
+    private static boolean extendsQuery(EverythingQuery query, EverythingQuery prefix) {
+        return query.query().startsWith(prefix.query())
+                && Objects.equals(query.searchMode(), prefix.searchMode())
+                && Objects.equals(query.targetFolders(), prefix.targetFolders());
+    }
+
+    private static boolean isRefinable(String normalizedQuery) {
+        if (normalizedQuery.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < normalizedQuery.length(); i++) {
+            char c = normalizedQuery.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != ' ' && c != '.' && c != '_' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAll(String text, String[] terms) {
+        for (String term : terms) {
+            if (!text.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+
+/**
+ * 可重复使用的 UTF-16 结果解码器。
+ * <p>
+ * 持有一块原生 {@link Memory} 作为 Everything 写入文本的缓冲区，并通过 {@link CharBuffer} 视图直接读取其中的字符，
+ * 除了最终生成的 {@link String}，解码每一行结果都不再分配对象，也不需要像 {@link com.sun.jna.Native#toString(char[])}
+ * 那样在整个缓冲区中查找结尾的 NUL。
+ * <p>
+ * 该类不是线程安全的，每个执行查询的线程应使用自己的实例。
+ */
+final class ResultDecoder {
+
+    /**
+     * 缓冲区能容纳的宽字符数量，与 Windows 长路径的上限一致
+     */
+    static final int CAPACITY_IN_CHARS = 32767;
+
+    private final Memory buffer = new Memory(CAPACITY_IN_CHARS * 2L);
+    private final CharBuffer chars = buffer.getByteBuffer(0, buffer.size()).order(ByteOrder.LITTLE_ENDIAN).asCharBuffer();
+    private final char[] scratch = new char[CAPACITY_IN_CHARS];
+
+    /**
+     * @return 供原生函数写入文本的缓冲区
+     */
+    Pointer buffer() {
+        return buffer;
+    }
+
+    /**
+     * 读取缓冲区中的文本。
+     *
+     * @param reportedLength 原生函数返回的文本长度，小于等于 0 时改为查找结尾的 NUL
+     * @return 缓冲区中的文本
+     */
+    String decode(long reportedLength) {
+        int length;
+        if (reportedLength > 0) {
+            length = (int) Math.min(reportedLength, CAPACITY_IN_CHARS - 1);
+        } else {
+            length = 0;
+            while (length < CAPACITY_IN_CHARS && chars.get(length) != 0) {
+                length++;
+            }
+        }
+        chars.get(0, scratch, 0, length);
+        return new String(scratch, 0, length);
+    }
+
+    /**
+     * 从完整路径中取出文件名，即最后一个路径分隔符之后的部分，没有分隔符（如盘符）时返回完整路径本身。
+     * <p>
+     * 用于代替单独读取 {@link Everything3.PropertyType#FILE_NAME} 属性，每行少一次原生调用。
+     *
+     * @param fullPath 完整路径
+     * @return 文件名
+     */
+    static String fileNameOf(String fullPath) {
+        int separator = fullPath.lastIndexOf('\\');
+        if (separator < 0 || separator == fullPath.length() - 1) {
+            return fullPath;
+        }
+        return fullPath.substring(separator + 1);
+    }
+}
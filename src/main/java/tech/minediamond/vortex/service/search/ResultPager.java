@@ -0,0 +1,138 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.ResultPage;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 对一次查询的结果按页迭代，每次 {@link #next()} 通过 {@link SearchBackend#queryPage(EverythingQuery, int, int, CancellationToken)} 取回下一页。
+ * <p>
+ * 第一页较小，用于尽快渲染出首屏结果，之后的页面较大，以减少查询次数。
+ * 翻页器不持有后端资源，不再需要时直接丢弃即可。
+ * <p>
+ * 该类不是线程安全的，同一时间只应由一个线程翻页。
+ *
+ * @see EverythingQueryBuilder#stream()
+ */
+public class ResultPager implements Iterator<List<FileData>> {
+
+    /**
+     * 第一页的大小，略多于一屏可见的结果数量
+     */
+    public static final int FIRST_PAGE_SIZE = 16;
+    /**
+     * 之后每页的大小
+     */
+    public static final int PAGE_SIZE = 100;
+
+    private final SearchBackend searchBackend;
+    private final EverythingQuery query;
+    private final int firstPageSize;
+    private final int pageSize;
+    private final CancellationToken token;
+
+    private int loadedCount = 0;
+    private long totalCount = -1;//未查询第一页时为 -1
+    private boolean exhausted = false;
+
+    public ResultPager(SearchBackend searchBackend, EverythingQuery query) {
+        this(searchBackend, query, CancellationToken.NONE);
+    }
+
+    public ResultPager(SearchBackend searchBackend, EverythingQuery query, CancellationToken token) {
+        this(searchBackend, query, FIRST_PAGE_SIZE, PAGE_SIZE, token);
+    }
+
+    public ResultPager(SearchBackend searchBackend, EverythingQuery query, int firstPageSize, int pageSize, CancellationToken token) {
+        if (firstPageSize <= 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("页面大小必须为正数");
+        }
+        this.searchBackend = searchBackend;
+        this.query = query;
+        this.firstPageSize = firstPageSize;
+        this.pageSize = pageSize;
+        this.token = token;
+    }
+
+    /**
+     * 创建一个没有任何结果的翻页器，用于无需查询的情况（如关键词为空）。
+     *
+     * @param query 查询参数
+     * @return 已经翻页结束的翻页器
+     */
+    public static ResultPager empty(EverythingQuery query) {
+        ResultPager pager = new ResultPager(null, query);
+        pager.totalCount = 0;
+        pager.exhausted = true;
+        return pager;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !exhausted;
+    }
+
+    /**
+     * 查询下一页结果。
+     *
+     * @return 下一页结果，可能为空列表（此时 {@link #hasNext()} 随后返回 {@code false}）
+     * @throws java.util.concurrent.CancellationException 翻页器的取消标记已被取消时抛出
+     */
+    @Override
+    public List<FileData> next() {
+        if (exhausted) {
+            throw new NoSuchElementException("没有更多结果");
+        }
+        int count = loadedCount == 0 ? firstPageSize : pageSize;
+        ResultPage page = searchBackend.queryPage(query, loadedCount, count, token);
+        loadedCount += page.results().size();
+        totalCount = page.totalCount();
+        exhausted = page.results().isEmpty() || !page.hasMore();
+        return page.results();
+    }
+
+    public CancellationToken getToken() {
+        return token;
+    }
+
+    public EverythingQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * @return 已经取回的结果数量
+     */
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+
+    /**
+     * @return 查询命中的结果总数，尚未取回第一页时返回 -1
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.program.ProgramResult;
+import tech.minediamond.vortex.service.frecency.FrecencyStore;
+import tech.minediamond.vortex.service.pinyin.PinyinMatcher;
+import tech.minediamond.vortex.service.pinyin.PinyinTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 为程序和文件结果计算统一的排序分数，并把两个来源的结果合并为一个列表。
+ * <p>
+ * 分数由三部分相加：
+ * <ul>
+ *     <li>名称匹配程度：名称与查询完全相同、以查询开头、名称的首字母缩写以查询开头（"vsc" 匹配 Visual Studio Code）、
+ *     某个词以查询词开头或查询词是连续几个词的首字母（"vs code" 匹配 Visual Studio Code）、名称的拼音以查询开头（"wx" 匹配 "微信"）、名称包含查询词、名称中间的拼音匹配查询、只有路径匹配，分数依次降低</li>
+ *     <li>来源：程序结果有少量加分，启动器里搜索程序比搜索同名文件更常见</li>
+ *     <li>使用记录：{@link FrecencyStore} 中的分数取对数后加分，有上限</li>
+ * </ul>
+ * 分数相同时保持各来源原有的顺序，程序在文件之前。
+ */
+public final class ResultRanker {
+
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.8;
+    private static final double ACRONYM_MATCH = 0.7;
+    private static final double WORD_START_MATCH = 0.6;
+    private static final double PINYIN_PREFIX_MATCH = 0.5;
+    private static final double INFIX_MATCH = 0.4;
+    private static final double PINYIN_INFIX_MATCH = 0.3;
+    public static final double PATH_MATCH = 0.1;
+
+    private static final double PROGRAM_BONUS = 0.15;
+    private static final double FRECENCY_WEIGHT = 0.25;
+    private static final double MAX_FRECENCY_BOOST = 1.0;
+
+    private ResultRanker() {
+    }
+
+    /**
+     * 把查询拆分为小写的查询词，与搜索后端的语义一致：以空白分隔，每个词都必须匹配。
+     *
+     * @param query 查询字符串
+     * @return 查询词，查询为空时返回空数组
+     */
+    public static String[] terms(String query) {
+        if (query == null || query.isBlank()) {
+            return new String[0];
+        }
+        return query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+    }
+
+    /**
+     * 计算名称与查询词的匹配程度。
+     * <p>
+     * 名称不包含的查询词可以按首字母缩写匹配：只有一个查询词时缩写必须以它开头，有多个查询词时它可以是任意连续几个词的首字母。
+     *
+     * @param lowerName 小写的名称
+     * @param terms     小写的查询词
+     * @return 匹配分数，名称不包含所有查询词、首字母缩写和拼音也不匹配时返回 {@link #PATH_MATCH}
+     */
+    public static double nameMatchScore(String lowerName, String[] terms) {
+        if (terms.length == 0 || lowerName == null) {
+            return PATH_MATCH;
+        }
+        double score = EXACT_MATCH;
+        String acronym = null;
+        for (String term : terms) {
+            int index = lowerName.indexOf(term);
+            if (index < 0) {
+                if (term.length() > 1) {
+                    acronym = acronym == null ? acronymOf(lowerName) : acronym;
+                    int acronymIndex = acronym.indexOf(term);
+                    if (acronymIndex == 0 || (acronymIndex > 0 && terms.length > 1)) {
+                        score = Math.min(score, acronymIndex == 0 ? ACRONYM_MATCH : WORD_START_MATCH);
+                        continue;
+                    }
+                }
+                return pinyinMatchScore(lowerName, terms);
+            }
+            double termScore;
+            if (index == 0) {
+                termScore = terms.length == 1 && lowerName.length() == term.length() ? EXACT_MATCH : PREFIX_MATCH;
+            } else if (isWordStart(lowerName, index) || isWordStart(lowerName, lowerName.indexOf(term, index + 1))) {
+                termScore = WORD_START_MATCH;
+            } else {
+                termScore = INFIX_MATCH;
+            }
+            score = Math.min(score, termScore);
+        }
+        return score;
+    }
+
+    /**
+     * 把所有查询词连在一起作为拼音查询，"wei xin" 和 "weixin" 等价
+     */
+    private static double pinyinMatchScore(String lowerName, String[] terms) {
+        if (!PinyinTable.containsPinyin(lowerName)) {
+            return PATH_MATCH;
+        }
+        String query = PinyinMatcher.normalizeQuery(String.join("", terms));
+        if (query == null) {
+            return PATH_MATCH;
+        }
+        int index = PinyinMatcher.indexOf(lowerName, query);
+        if (index < 0) {
+            return PATH_MATCH;
+        }
+        return index == 0 ? PINYIN_PREFIX_MATCH : PINYIN_INFIX_MATCH;
+    }
+
+    /**
+     * 获取名称的首字母缩写，即每个由字母或数字组成的词的第一个字符。
+     *
+     * @param name 名称
+     * @return 首字母缩写，例如 "visual studio code" 为 "vsc"
+     */
+    public static String acronymOf(String name) {
+        StringBuilder acronym = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.isLetterOrDigit(name.charAt(i)) && isWordStart(name, i)) {
+                acronym.append(name.charAt(i));
+            }
+        }
+        return acronym.toString();
+    }
+
+    private static boolean isWordStart(String name, int index) {
+        if (index <= 0) {
+            return index == 0;
+        }
+        char previous = name.charAt(index - 1);
+        return !Character.isLetterOrDigit(previous);
+    }
+
+    /**
+     * 计算一个结果的综合分数。
+     *
+     * @param result         结果
+     * @param terms          小写的查询词
+     * @param frecencyStore  使用记录
+     * @return 综合分数
+     */
+    public static double score(FileData result, String[] terms, FrecencyStore frecencyStore) {
+        String name = result.getFileName() == null ? null : result.getFileName().toLowerCase(Locale.ROOT);
+        double score = nameMatchScore(name, terms);
+        double frecency;
+        if (result instanceof ProgramResult program) {
+            score += PROGRAM_BONUS;
+            frecency = frecencyStore.programScore(program.getProgramInfo().getId());
+        } else {
+            frecency = frecencyStore.fileScore(result);
+        }
+        if (frecency > 0) {
+            score += Math.min(MAX_FRECENCY_BOOST, FRECENCY_WEIGHT * Math.log1p(frecency));
+        }
+        return score;
+    }
+
+    /**
+     * 按综合分数合并程序结果和文件结果。
+     *
+     * @param programs      程序结果，按程序索引的顺序
+     * @param files         文件结果，按搜索后端的顺序
+     * @param query         查询字符串
+     * @param frecencyStore 使用记录
+     * @return 合并后按分数从高到低排列的结果
+     */
+    public static List<FileData> merge(List<? extends FileData> programs, List<FileData> files, String query, FrecencyStore frecencyStore) {
+        int size = programs.size() + files.size();
+        String[] terms = terms(query);
+        FileData[] all = new FileData[size];
+        double[] scores = new double[size];
+        Integer[] order = new Integer[size];
+        int i = 0;
+        for (FileData program : programs) {
+            all[i] = program;
+            scores[i] = score(program, terms, frecencyStore);
+            order[i] = i;
+            i++;
+        }
+        for (FileData file : files) {
+            all[i] = file;
+            scores[i] = score(file, terms, frecencyStore);
+            order[i] = i;
+            i++;
+        }
+        // 稳定排序，分数相同时保持原有顺序
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        List<FileData> merged = new ArrayList<>(size);
+        for (Integer index : order) {
+            merged.add(all[index]);
+        }
+        return merged;
+    }
+}
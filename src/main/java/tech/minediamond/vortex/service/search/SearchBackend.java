@@ -0,0 +1,131 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.service.search;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.ResultPage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 文件搜索后端的抽象。
+ * <p>
+ * {@link SearchService} 和 {@link EverythingQueryBuilder} 只通过该接口发起查询，具体实现由
+ * {@link tech.minediamond.vortex.config.AppModule} 绑定：
+ * <ul>
+ *     <li>{@link EverythingService} - 通过 JNA 调用 Everything3 SDK，正常运行时使用</li>
+ *     <li>{@link InMemorySearchBackend} - 纯 Java 的内存实现，持有确定性的合成语料，用于在非 Windows 环境下测量和回归测试搜索链路</li>
+ * </ul>
+ * {@link SearchService} 实际使用的是包装了上述实现的 {@link CachingSearchBackend}。
+ *
+ * @see EverythingQueryBuilder
+ * @see ResultPager
+ */
+public interface SearchBackend {
+
+    /**
+     * 单次查询默认返回的最大结果数量
+     */
+    int DEFAULT_VIEWPORT_COUNT = 200;
+
+    /**
+     * 查询一页结果，即全部结果中从 {@code offset} 开始的最多 {@code count} 个结果。
+     * <p>
+     * 每一页都是一次独立的查询，不在两次调用之间持有任何后端资源，因此可以随时停止翻页。
+     *
+     * @param query  查询参数
+     * @param offset 本页第一个结果在全部结果中的位置
+     * @param count  本页最多返回的结果数量
+     * @param token  取消标记，实现应在解码结果的过程中检查
+     * @return 本页结果和命中总数，后端不可用时返回空页
+     * @throws java.util.concurrent.CancellationException 查询被取消时抛出
+     */
+    ResultPage queryPage(EverythingQuery query, int offset, int count, CancellationToken token);
+
+    /**
+     * 查询一页结果，不可取消。
+     *
+     * @see #queryPage(EverythingQuery, int, int, CancellationToken)
+     */
+    default ResultPage queryPage(EverythingQuery query, int offset, int count) {
+        return queryPage(query, offset, count, CancellationToken.NONE);
+    }
+
+    /**
+     * 执行一次查询，返回前 {@link #DEFAULT_VIEWPORT_COUNT} 个结果。
+     *
+     * @param query 查询参数
+     * @param token 取消标记
+     * @return 搜索结果列表，后端不可用时返回空列表
+     * @throws java.util.concurrent.CancellationException 查询被取消时抛出
+     */
+    default List<FileData> query(EverythingQuery query, CancellationToken token) {
+        return queryPage(query, 0, DEFAULT_VIEWPORT_COUNT, token).results();
+    }
+
+    /**
+     * 执行一次查询，返回前 {@link #DEFAULT_VIEWPORT_COUNT} 个结果，不可取消。
+     *
+     * @param query 查询参数
+     * @return 搜索结果列表，后端不可用时返回空列表
+     */
+    default List<FileData> query(EverythingQuery query) {
+        return query(query, CancellationToken.NONE);
+    }
+
+    /**
+     * 获取后端的健康状态，{@code true} 表示后端已就绪并可以查询。
+     *
+     * @return 只读的健康状态属性
+     */
+    ReadOnlyBooleanProperty getSearchServiceHealthProperty();
+
+    /**
+     * 返回后端就绪时完成的 future，可以在后台线程中等待它，避免冷启动后的第一次查询因后端尚未连接而失败。
+     * <p>
+     * 默认实现总是已就绪。
+     *
+     * @return 后端就绪时完成的 future
+     */
+    default CompletableFuture<Void> readiness() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 创建并返回一个查询构建器，用于构建搜索请求。
+     *
+     * @return 一个新的EverythingQueryBuilder实例，支持流式API
+     */
+    default EverythingQueryBuilder QueryBuilder() {
+        return new EverythingQueryBuilder(this);
+    }
+
+    /**
+     * 关闭后端并释放其持有的资源，在程序退出时调用。
+     *
+     * @throws IOException 关闭失败时抛出
+     */
+    default void shutdown() throws IOException {
+    }
+}
@@ -20,50 +20,99 @@
 package tech.minediamond.vortex.service.search;
 
 import com.google.inject.Inject;
-import com.google.inject.Injector;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
 import lombok.extern.slf4j.Slf4j;
 import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.program.ProgramResult;
 import tech.minediamond.vortex.model.search.SearchMode;
+import tech.minediamond.vortex.service.frecency.FrecencyStore;
 import tech.minediamond.vortex.service.i18n.I18nService;
-import tech.minediamond.vortex.ui.component.ComponentList;
-import tech.minediamond.vortex.ui.component.SearchResultCard;
-import tech.minediamond.vortex.ui.component.SearchResultCardFactory;
-import tech.minediamond.vortex.util.ClipboardUtil;
-import tech.minediamond.vortex.util.OpenResourceUtil;
+import tech.minediamond.vortex.service.pinyin.RecentFilePinyinIndex;
+import tech.minediamond.vortex.service.program.ProgramCatalogService;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
 
 /**
- * 连接 {@link tech.minediamond.vortex.ui.controller.SearchPanel} 和 {@link EverythingService}的关键服务
+ * 连接 {@link tech.minediamond.vortex.ui.controller.SearchPanel} 和 {@link SearchBackend}的关键服务
+ * <p>
+ * 服务的值是搜索结果的数据列表，由 {@link tech.minediamond.vortex.ui.component.SearchResultList} 虚拟化地显示，
+ * 只为可见的结果创建卡片，因此可以在后台加载远多于一屏的结果。
+ * <p>
+ * 每次搜索同时查询 {@link ProgramCatalogService} 中的程序和搜索后端中的文件：程序只在内存中查询，立即显示；
+ * 文件结果在 {@link #FILE_RESULT_DEADLINE_MILLIS} 内返回时与程序结果按 {@link ResultRanker} 统一排序，否则追加在程序结果之后。
+ * <p>
+ * 搜索后端不理解拼音，拼音查询还会在 {@link RecentFilePinyinIndex} 中查找最近出现过的中文文件名，与程序结果一起立即显示。
  */
 @Slf4j
-public class SearchService extends Service<ComponentList> {
+public class SearchService extends Service<ObservableList<FileData>> {
 
     private final String NAME = "Search Thread";
+    // 搜索前等待后端就绪的最长时间
+    private static final long READY_TIMEOUT_MILLIS = 3000;
+    // 首屏之后在后台继续加载的结果数量上限，更多的结果在滚动到底部时再加载
+    static final int BACKGROUND_LOAD_LIMIT = 20_000;
+    // 首屏之后每页的结果数量，结果列表是虚拟化的，较大的页可以减少查询次数
+    static final int BACKGROUND_PAGE_SIZE = 1000;
+    // 每次搜索最多显示的程序结果数量
+    static final int PROGRAM_RESULT_LIMIT = 8;
+    // 每次搜索最多显示的按拼音匹配的最近文件数量
+    static final int RECENT_FILE_RESULT_LIMIT = 8;
+    // 文件结果在该期限内返回时与程序结果统一排序，否则追加在程序结果之后
+    static final long FILE_RESULT_DEADLINE_MILLIS = 50;
 
-    private final EverythingService everythingService;
+    private final SearchBackend searchBackend;
     private final I18nService i18n;
-    private final Injector injector;
+    private final FrecencyStore frecencyStore;
+    private final ProgramCatalogService programCatalog;
+    private final RecentFilePinyinIndex recentFiles;
     private final ReadOnlyBooleanProperty searchServiceHealthProperty;
     private final StringProperty keyword = new SimpleStringProperty();
 
     private final ThreadFactory searchThreadFactory;
     private final ExecutorService executor;
 
+    // 最近一次成功搜索的翻页器和加载状态，只在 JavaFX 应用线程读写
+    private ResultPager currentPager;
+    private boolean loadingMore = false;
+    // 每次发起新搜索时递增，旧搜索的任务和翻页发现代数变化后即停止，避免后端落后于键盘输入
+    private volatile long searchGeneration = 0;
+    private final PrefixRefiner prefixRefiner = new PrefixRefiner();
+    // 文件查询耗时的接收方，在 JavaFX 应用线程中调用
+    private volatile LongConsumer fileQueryLatencyListener = nanos -> {
+    };
+
     @Inject
-    public SearchService(EverythingService everythingService, I18nService i18n, Injector injector) {
-        this.everythingService = everythingService;
+    public SearchService(CachingSearchBackend searchBackend, I18nService i18n, FrecencyStore frecencyStore, ProgramCatalogService programCatalog,
+                         RecentFilePinyinIndex recentFiles) {
+        this.searchBackend = searchBackend;
         this.i18n = i18n;
-        this.injector = injector;
-        this.searchServiceHealthProperty = everythingService.getSearchServiceHealthProperty();
+        this.frecencyStore = frecencyStore;
+        this.programCatalog = programCatalog;
+        this.recentFiles = recentFiles;
+        this.searchServiceHealthProperty = searchBackend.getSearchServiceHealthProperty();
+        searchServiceHealthProperty.addListener((observable, oldValue, newValue) -> {
+            if (!oldValue && newValue) {
+                prefixRefiner.invalidateAll();
+            }
+        });
 
         searchThreadFactory = r -> {
             Thread t = new Thread(r, NAME);
@@ -79,50 +128,234 @@ public class SearchService extends Service<ComponentList> {
         return keyword.get();
     }
 
+    /**
+     * 设置文件查询耗时的回调：每次搜索的第一页文件结果返回或查询失败时，在 JavaFX 应用线程中以从开始搜索到此时的耗时（纳秒）调用。
+     * <p>
+     * 程序和拼音匹配的结果在内存中查询，会在文件结果之前显示，这部分不代表后端的响应速度，因此不单独回调。
+     * 被新搜索取代的搜索不回调。
+     *
+     * @param listener 接收耗时的回调
+     */
+    public void setOnFileQueryLatency(LongConsumer listener) {
+        this.fileQueryLatencyListener = listener;
+    }
+
     public void search(String keyword) {
         this.keyword.set(keyword);
+        currentPager = null;
+        searchGeneration++;
         restart();
     }
 
+    /**
+     * 加载当前搜索结果的下一页，并追加到已显示的结果列表末尾。
+     * <p>
+     * 通常在结果列表滚动到底部时调用，只能在 JavaFX 应用线程调用。
+     * 当前没有已完成的搜索、结果已全部加载或上一页仍在加载时不做任何事。
+     */
+    public void loadMore() {
+        ResultPager pager = currentPager;
+        ObservableList<FileData> results = getValue();
+        if (pager == null || results == null || !pager.hasNext() || loadingMore) {
+            return;
+        }
+        loadingMore = true;
+        executor.execute(() -> {
+            List<FileData> page = List.of();
+            try {
+                page = frecencyStore.rerank(pager.next());
+            } catch (CancellationException e) {
+                log.debug("加载更多搜索结果已取消");
+            } catch (Exception e) {
+                log.error("加载更多搜索结果失败", e);
+            }
+            List<FileData> finalPage = page;
+            Platform.runLater(() -> {
+                loadingMore = false;
+                if (currentPager == pager) {//期间没有开始新的搜索
+                    results.addAll(finalPage);
+                    log.debug("已加载 {} / {} 个结果", pager.getLoadedCount(), pager.getTotalCount());
+                }
+            });
+        });
+    }
+
+    /**
+     * 去掉已经作为拼音匹配结果显示的文件
+     */
+    private static List<FileData> withoutPaths(List<FileData> files, Set<String> paths) {
+        if (paths.isEmpty()) {
+            return files;
+        }
+        List<FileData> filtered = new ArrayList<>(files.size());
+        for (FileData file : files) {
+            if (!paths.contains(file.getFullPath())) {
+                filtered.add(file);
+            }
+        }
+        return filtered;
+    }
+
     @Override
-    protected Task<ComponentList> createTask() {
-        return new Task<ComponentList>() {
+    protected Task<ObservableList<FileData>> createTask() {
+        long generation = searchGeneration;
+        return new Task<ObservableList<FileData>>() {
+
+            private final CancellationToken token = () -> isCancelled() || generation != searchGeneration;
+            private ResultPager pager;
 
             @Override
-            protected ComponentList call() throws Exception {
-                List<FileData> results = everythingService.QueryBuilder()
-                        .mode(SearchMode.ALL)
-                        .searchFor(keyword.get())
-                        .query();
+            protected ObservableList<FileData> call() throws Exception {
+                long start = System.nanoTime();
+                String keywordValue = keyword.get();
+                ObservableList<FileData> results = FXCollections.observableArrayList();
 
-                ComponentList componentList = new ComponentList();
+                // 程序和按拼音匹配的最近文件只在内存中查询，在查询文件之前先显示
+                List<ProgramResult> programs = programCatalog.search(keywordValue, PROGRAM_RESULT_LIMIT);
+                List<FileData> pinyinFiles = recentFiles.search(keywordValue, RECENT_FILE_RESULT_LIMIT);
+                Set<String> pinyinFilePaths = new HashSet<>();
+                pinyinFiles.forEach(file -> pinyinFilePaths.add(file.getFullPath()));
+                boolean instantShown = false;
+                if (!programs.isEmpty() || !pinyinFiles.isEmpty()) {
+                    results.setAll(ResultRanker.merge(programs, pinyinFiles, keywordValue, frecencyStore));
+                    token.throwIfCancelled();
+                    updateValue(results);
+                    updateProgress(1, 1);
+                    instantShown = true;
+                    log.info("程序结果已就绪，共 {} 个程序，{} 个拼音匹配的文件", programs.size(), pinyinFiles.size());
+                }
 
-                if (results.isEmpty()) {
+                List<FileData> firstPage;
+                try {
+                    firstPage = queryFirstFilePage(keywordValue);
+                    reportFileQueryLatency(start);
+                } catch (CancellationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    reportFileQueryLatency(start);
+                    if (!instantShown) {
+                        throw e;
+                    }
+                    log.error("查询文件失败，只显示程序结果", e);
+                    pager = null;
+                    return results;
+                }
+
+                recentFiles.record(firstPage);
+                List<FileData> fileHits = withoutPaths(firstPage, pinyinFilePaths);
+                if (fileHits.isEmpty()) {
+                    if (instantShown) {
+                        log.info("搜索成功，没有匹配的文件");
+                        return results;
+                    }
                     throw new Exception("Result is Empty");
                 }
 
-                for (FileData result : results) {
-                    SearchResultCard card = injector.getInstance(SearchResultCardFactory.class).create(result);
-                    card.setOnOpen(OpenResourceUtil::OpenFile);
-                    card.setOnRevealInFolder(OpenResourceUtil::OpenFileInFolder);
-                    card.setOnCopy(fileData -> ClipboardUtil.copyToClipboard(fileData.getFullPath()));
-                    card.setOnOpenPathInTerminal(OpenResourceUtil::OpenPathInTerminal);
-                    componentList.addNode(card);
+                // 文件结果在期限内返回时与程序结果统一排序，超过期限时追加在已显示的程序结果之后，避免已显示的结果移动
+                boolean inTime = System.nanoTime() - start <= TimeUnit.MILLISECONDS.toNanos(FILE_RESULT_DEADLINE_MILLIS);
+                List<FileData> firstScreen;
+                if (inTime || !instantShown) {
+                    List<FileData> files = new ArrayList<>(pinyinFiles.size() + fileHits.size());
+                    files.addAll(pinyinFiles);
+                    files.addAll(fileHits);
+                    firstScreen = ResultRanker.merge(programs, files, keywordValue, frecencyStore);
+                } else {
+                    firstScreen = frecencyStore.rerank(fileHits);
+                }
+                token.throwIfCancelled();
+                if (!instantShown) {
+                    results.setAll(firstScreen);
+                    updateValue(results);
+                    updateProgress(1, 1);
+                } else {
+                    Platform.runLater(() -> {
+                        if (!token.isCancelled()) {
+                            if (inTime) {
+                                results.setAll(firstScreen);
+                            } else {
+                                results.addAll(firstScreen);
+                            }
+                        }
+                    });
+                }
+                if (pager == null) {
+                    log.info("搜索成功（本地过滤）");
+                    return results;
+                }
+                log.info("首屏结果已就绪，共 {} 个文件结果", pager.getTotalCount());
+
+                // 其余结果在后台继续按页加载，直到达到上限，更多的结果在滚动到底部时再加载
+                // 常用的结果在每一页内排在前面，已显示的结果不再移动
+                List<FileData> loaded = new ArrayList<>(firstPage);
+                while (pager.hasNext() && pager.getLoadedCount() < BACKGROUND_LOAD_LIMIT) {
+                    List<FileData> page = pager.next();
+                    loaded.addAll(page);
+                    List<FileData> reranked = frecencyStore.rerank(withoutPaths(page, pinyinFilePaths));
+                    Platform.runLater(() -> {
+                        if (!token.isCancelled()) {
+                            results.addAll(reranked);
+                        }
+                    });
+                }
+                if (!pager.hasNext()) {//结果没有被截断，可供之后更长的查询在本地过滤
+                    prefixRefiner.recordComplete(pager.getQuery(), loaded);
                 }
 
                 log.info("搜索成功");
-                return componentList;
+                return results;
+            }
+
+            private void reportFileQueryLatency(long start) {
+                long nanos = System.nanoTime() - start;
+                LongConsumer listener = fileQueryLatencyListener;
+                Platform.runLater(() -> listener.accept(nanos));
+            }
+
+            /**
+             * 查询文件结果的第一页。查询只是在上一次完整结果的基础上变长时，直接在本地过滤并返回全部结果，此时 {@code pager} 为 {@code null}。
+             */
+            private List<FileData> queryFirstFilePage(String keywordValue) throws Exception {
+                // 冷启动时后端可能尚未就绪，在搜索线程中等待一小段时间，而不是立即显示服务错误
+                try {
+                    searchBackend.readiness().get(READY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    log.warn("搜索后端在 {} ms 内未就绪", READY_TIMEOUT_MILLIS);
+                }
+                token.throwIfCancelled();
+
+                pager = searchBackend.QueryBuilder()
+                        .mode(SearchMode.ALL)
+                        .searchFor(keywordValue)
+                        .cancelWith(token)
+                        .stream(ResultPager.FIRST_PAGE_SIZE, BACKGROUND_PAGE_SIZE);
+
+                Optional<List<FileData>> refined = prefixRefiner.refine(pager.getQuery());
+                if (refined.isPresent()) {
+                    prefixRefiner.recordComplete(pager.getQuery(), refined.get());
+                    pager = null;//结果已完整，没有更多页
+                    return refined.get();
+                }
+
+                List<FileData> firstPage = pager.next();
+                if (firstPage.isEmpty() && searchServiceHealthProperty.get()) {
+                    prefixRefiner.recordComplete(pager.getQuery(), firstPage);
+                }
+                return firstPage;
             }
 
             @Override
             public void succeeded() {
                 super.succeeded();
                 updateProgress(1, 1);
+                currentPager = pager;
             }
 
             @Override
             public void failed() {
                 super.failed();
+                if (getException() instanceof CancellationException) {//被新的搜索取代，不更新界面
+                    return;
+                }
                 if (searchServiceHealthProperty.get()) {
                     updateProgress(0, 1);
                 } else {
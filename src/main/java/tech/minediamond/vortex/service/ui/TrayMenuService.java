@@ -27,6 +27,7 @@ import javafx.beans.binding.Bindings;
 import javafx.scene.control.MenuItem;
 import javafx.stage.Stage;
 import tech.minediamond.vortex.model.appConfig.AppConfig;
+import tech.minediamond.vortex.service.metrics.SearchMetrics;
 
 /**
  * 应用托盘服务类，初始化是应确保{@link StageProvider} 初始化完成
@@ -39,15 +40,17 @@ public class TrayMenuService {
     private final AppConfig appConfig;
     private final StageProvider stageProvider;
     private final WindowAnimator windowAnimator;
+    private final SearchMetrics searchMetrics;
 
     private final Stage stage;
     private final FXTrayIcon icon;
 
     @Inject
-    public TrayMenuService(AppConfig appConfig, StageProvider stageProvider, WindowAnimator windowAnimator) {
+    public TrayMenuService(AppConfig appConfig, StageProvider stageProvider, WindowAnimator windowAnimator, SearchMetrics searchMetrics) {
         this.appConfig = appConfig;
         this.stageProvider = stageProvider;
         this.windowAnimator = windowAnimator;
+        this.searchMetrics = searchMetrics;
 
         this.stage = stageProvider.getStage();
         icon = new FXTrayIcon(stage, getClass().getResource(X16_ICON_PATH));
@@ -85,8 +88,13 @@ public class TrayMenuService {
             }
         });
 
+        MenuItem dumpMetricsItem = new MenuItem("dump search metrics");
+        dumpMetricsItem.setOnAction(event -> searchMetrics.dumpToLog());
+
         icon.addMenuItem(pinItem);
         icon.addMenuItem(new MenuItem("-"));
+        icon.addMenuItem(dumpMetricsItem);
+        icon.addMenuItem(new MenuItem("-"));
         icon.addMenuItem(openItem);
         icon.addMenuItem(exitItem);
         icon.show();
@@ -27,11 +27,11 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Control;
 import javafx.scene.control.Label;
 import javafx.scene.control.SkinBase;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
-import lombok.Getter;
 import org.kordamp.ikonli.fluentui.FluentUiRegularAL;
 import org.kordamp.ikonli.fluentui.FluentUiRegularMZ;
 import org.kordamp.ikonli.javafx.FontIcon;
@@ -40,8 +40,16 @@ import tech.minediamond.vortex.service.i18n.I18nService;
 
 import java.util.function.Consumer;
 
+/**
+ * 显示一个搜索结果的卡片，鼠标悬停时显示打开、在文件夹中显示、复制路径和在终端中打开的按钮。
+ * <p>
+ * 卡片显示的结果保存在 {@link #resultProperty()} 中，可以在不重建皮肤的情况下重新绑定到另一个结果，
+ * 以便 {@link SearchResultCardPool} 在多次搜索之间复用卡片。
+ */
 public class SearchResultCard extends Control {
 
+    private final ObjectProperty<FileData> result = new SimpleObjectProperty<>();
+
     private final ObjectProperty<Consumer<FileData>> onOpen = new SimpleObjectProperty<>();
     private final ObjectProperty<Consumer<FileData>> onRevealInFolder = new SimpleObjectProperty<>();
     private final ObjectProperty<Consumer<FileData>> onCopy = new SimpleObjectProperty<>();
@@ -49,12 +57,9 @@ public class SearchResultCard extends Control {
 
     private final I18nService i18n;
 
-    @Getter
-    private final FileData result;
-
     @Inject
     public SearchResultCard(@Assisted FileData result, I18nService i18n) {
-        this.result = result;
+        this.result.set(result);
         this.i18n = i18n;
     }
 
@@ -63,6 +68,18 @@ public class SearchResultCard extends Control {
         return new Skin(this);
     }
 
+    public FileData getResult() {
+        return result.get();
+    }
+
+    public void setResult(FileData result) {
+        this.result.set(result);
+    }
+
+    public ObjectProperty<FileData> resultProperty() {
+        return result;
+    }
+
     public Consumer<FileData> getOnOpen() {
         return onOpen.get();
     }
@@ -113,33 +130,30 @@ public class SearchResultCard extends Control {
 
     public void open() {
         Consumer<FileData> c = getOnOpen();
-        if (c != null) c.accept(result);
+        if (c != null && getResult() != null) c.accept(getResult());
     }
 
     public void revealInFolder() {
         Consumer<FileData> c = getOnRevealInFolder();
-        if (c != null) c.accept(result);
+        if (c != null && getResult() != null) c.accept(getResult());
     }
 
     public void copy() {
         Consumer<FileData> c = getOnCopy();
-        if (c != null) c.accept(result);
+        if (c != null && getResult() != null) c.accept(getResult());
     }
 
     public void openPathInTerminal() {
         Consumer<FileData> c = getOnOpenPathInTerminal();
-        if (c != null) c.accept(result);
+        if (c != null && getResult() != null) c.accept(getResult());
     }
 
     private final class Skin extends SkinBase<SearchResultCard> {
 
-        private final FontIcon openInFolderIcon = new FontIcon(FluentUiRegularAL.FOLDER_24);
-        private final FontIcon openIcon = new FontIcon(FluentUiRegularMZ.OPEN_24);
-        private final FontIcon copyPathIcon = new FontIcon(FluentUiRegularAL.COPY_24);
-        private final FontIcon terminalIcon = new FontIcon(FluentUiRegularMZ.WINDOW_HORIZONTAL_20);
-
         HBox hBox = new HBox();
         VBox vbox = new VBox();
+        Label fileNameLabel = new Label();
+        Label filePathLabel = new Label();
 
         /**
          * Constructor for all SkinBase instances.
@@ -151,45 +165,95 @@ public class SearchResultCard extends Control {
 
             hBox.getStyleClass().add("search-result-card");
 
-            Label fileNameLabel = new Label(control.result.getFileName());
-            Label filePathLabel = new Label(control.result.getFullPath());
             fileNameLabel.getStyleClass().add("search-result-name-label");
             filePathLabel.getStyleClass().add("search-result-file-path");
 
-            Button openBtn = new Button();
-            openBtn.setGraphic(openIcon);
-            openBtn.visibleProperty().bind(hBox.hoverProperty());
-            openBtn.managedProperty().bind(hBox.hoverProperty());
-            openBtn.setOnAction(e -> getSkinnable().open());
-            SimpleHoverTooltip.textProperty(openBtn).set(i18n.t("file.open.tip"));
-
-            Button openInFolderBtn = new Button();
-            openInFolderBtn.setGraphic(openInFolderIcon);
-            openInFolderBtn.visibleProperty().bind(hBox.hoverProperty());
-            openInFolderBtn.managedProperty().bind(hBox.hoverProperty());
-            openInFolderBtn.setOnAction(e -> getSkinnable().revealInFolder());
-            SimpleHoverTooltip.textProperty(openInFolderBtn).set(i18n.t("file.openInFolder.tip"));
-
-            Button copyPathBtn = new Button();
-            copyPathBtn.setGraphic(copyPathIcon);
-            copyPathBtn.visibleProperty().bind(hBox.hoverProperty());
-            copyPathBtn.managedProperty().bind(hBox.hoverProperty());
-            copyPathBtn.setOnAction(e -> getSkinnable().copy());
-            SimpleHoverTooltip.textProperty(copyPathBtn).set(i18n.t("file.copyPath.tip"));
-
-            Button openPathInTerminal = new Button();
-            openPathInTerminal.setGraphic(terminalIcon);
-            openPathInTerminal.visibleProperty().bind(hBox.hoverProperty());
-            openPathInTerminal.managedProperty().bind(hBox.hoverProperty());
-            openPathInTerminal.setOnAction(e -> getSkinnable().openPathInTerminal());
-            SimpleHoverTooltip.textProperty(openPathInTerminal).set(i18n.t("file.openPathInTerminal.tip"));
-
             Region region = new Region();
             HBox.setHgrow(region, Priority.ALWAYS);
 
             vbox.getChildren().addAll(fileNameLabel, filePathLabel);
-            hBox.getChildren().addAll(vbox, region, openBtn, openInFolderBtn, copyPathBtn, openPathInTerminal);
+            hBox.getChildren().addAll(vbox, region);
             getChildren().add(hBox);
+
+            // 操作按钮只在鼠标悬停时显示，所有卡片共用一个操作栏，悬停时移入当前卡片
+            hBox.addEventHandler(MouseEvent.MOUSE_ENTERED, e -> ActionBar.get(i18n).attach(getSkinnable(), hBox));
+            hBox.addEventHandler(MouseEvent.MOUSE_EXITED, e -> ActionBar.get(i18n).detach(hBox));
+
+            // 卡片被重新绑定到另一个结果时只更新标签文本
+            updateLabels();
+            registerChangeListener(control.resultProperty(), observable -> updateLabels());
+        }
+
+        private void updateLabels() {
+            FileData result = getSkinnable().getResult();
+            fileNameLabel.setText(result == null ? null : result.getFileName());
+            filePathLabel.setText(result == null ? null : result.getFullPath());
+        }
+    }
+
+    /**
+     * 所有卡片共用的操作栏，包含打开、在文件夹中显示、复制路径和在终端中打开四个按钮。
+     * <p>
+     * 第一次悬停在卡片上时才创建，之后随鼠标移入当前悬停的卡片，离开时移除，
+     * 因此无论显示多少卡片，场景图中都只有一组按钮、图标和提示。只能在 JavaFX 应用线程中使用。
+     */
+    private static final class ActionBar {
+
+        private static ActionBar instance;
+
+        private final HBox bar = new HBox();
+        private SearchResultCard card;
+
+        private ActionBar(I18nService i18n) {
+            bar.getStyleClass().add("search-result-action-bar");
+
+            Button openBtn = createButton(new FontIcon(FluentUiRegularMZ.OPEN_24), i18n.t("file.open.tip"));
+            openBtn.setOnAction(e -> card.open());
+
+            Button openInFolderBtn = createButton(new FontIcon(FluentUiRegularAL.FOLDER_24), i18n.t("file.openInFolder.tip"));
+            openInFolderBtn.setOnAction(e -> card.revealInFolder());
+
+            Button copyPathBtn = createButton(new FontIcon(FluentUiRegularAL.COPY_24), i18n.t("file.copyPath.tip"));
+            copyPathBtn.setOnAction(e -> card.copy());
+
+            Button openPathInTerminal = createButton(new FontIcon(FluentUiRegularMZ.WINDOW_HORIZONTAL_20), i18n.t("file.openPathInTerminal.tip"));
+            openPathInTerminal.setOnAction(e -> card.openPathInTerminal());
+
+            bar.getChildren().addAll(openBtn, openInFolderBtn, copyPathBtn, openPathInTerminal);
+        }
+
+        private static ActionBar get(I18nService i18n) {
+            if (instance == null) {
+                instance = new ActionBar(i18n);
+            }
+            return instance;
+        }
+
+        private static Button createButton(FontIcon icon, String tip) {
+            Button button = new Button();
+            button.setGraphic(icon);
+            SimpleHoverTooltip.textProperty(button).set(tip);
+            return button;
+        }
+
+        /**
+         * 把操作栏移入指定卡片的末尾，按钮的操作作用于该卡片当前绑定的结果。
+         */
+        private void attach(SearchResultCard card, HBox cardBox) {
+            this.card = card;
+            if (bar.getParent() != cardBox) {
+                cardBox.getChildren().add(bar);//加入新的父节点时会自动从原来的卡片中移除
+            }
+        }
+
+        /**
+         * 鼠标离开卡片时移除操作栏，操作栏已经移到其它卡片时不做任何事。
+         */
+        private void detach(HBox cardBox) {
+            if (bar.getParent() == cardBox) {
+                cardBox.getChildren().remove(bar);
+                card = null;
+            }
         }
     }
 
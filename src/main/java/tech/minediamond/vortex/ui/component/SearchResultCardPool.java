@@ -0,0 +1,86 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.ui.component;
+
+import tech.minediamond.vortex.model.fileData.FileData;
+
+import java.util.ArrayDeque;
+import java.util.function.Function;
+
+/**
+ * 搜索结果卡片池。
+ * <p>
+ * {@link SearchResultList} 的单元格在显示结果时从池中借出卡片，变为空或被丢弃时归还。
+ * 借出的卡片通过 {@link SearchResultCard#setResult(FileData)} 重新绑定到新的结果，皮肤只更新标签文本，
+ * 因此连续输入时几乎不会创建新的场景图节点。只能在 JavaFX 应用线程中使用。
+ */
+public class SearchResultCardPool {
+
+    /**
+     * 池中最多保留的空闲卡片数量，超过时归还的卡片直接丢弃
+     */
+    public static final int MAX_IDLE = 64;
+
+    private final Function<FileData, SearchResultCard> cardCreator;
+    private final ArrayDeque<SearchResultCard> idle = new ArrayDeque<>();
+
+    /**
+     * @param cardCreator 池中没有空闲卡片时创建新卡片的方法，应同时设置好卡片上的操作
+     */
+    public SearchResultCardPool(Function<FileData, SearchResultCard> cardCreator) {
+        this.cardCreator = cardCreator;
+    }
+
+    /**
+     * 借出一张显示指定结果的卡片，优先复用空闲的卡片。
+     *
+     * @param result 卡片要显示的结果
+     * @return 已绑定到该结果的卡片
+     */
+    public SearchResultCard acquire(FileData result) {
+        SearchResultCard card = idle.pollFirst();
+        if (card == null) {
+            return cardCreator.apply(result);
+        }
+        card.setResult(result);
+        return card;
+    }
+
+    /**
+     * 归还一张不再显示的卡片。
+     * <p>
+     * 卡片会解除对原结果的引用，但保留皮肤和操作，以便下次借出时直接使用。
+     *
+     * @param card 归还的卡片
+     */
+    public void release(SearchResultCard card) {
+        card.setResult(null);
+        if (idle.size() < MAX_IDLE) {
+            idle.addFirst(card);
+        }
+    }
+
+    /**
+     * @return 当前空闲的卡片数量
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package tech.minediamond.vortex.ui.component;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.ObservableList;
+import javafx.css.PseudoClass;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import tech.minediamond.vortex.model.fileData.FileData;
+
+/**
+ * 虚拟化的搜索结果列表。
+ * <p>
+ * 与 {@link ComponentList} 为每个节点创建一个容器不同，该列表基于 {@link ListView} 的虚拟布局，只为可见的结果和少量缓冲创建单元格，
+ * 滚动时复用已有单元格并把它们重新绑定到新的 {@link FileData}，因此结果数量不再决定节点数量、CSS 和布局的开销。
+ * <p>
+ * 单元格上的卡片来自 {@link SearchResultCardPool}，单元格变为空时归还，所以列表被重建或在多次搜索之间换用新的结果时，卡片也会被复用。
+ * <p>
+ * 和 {@link ComponentList} 一样，第一个和最后一个单元格会带有 {@code first} 和 {@code last} 伪类。
+ *
+ * @see SearchResultCard
+ */
+public class SearchResultList extends ListView<FileData> {
+
+    private static final PseudoClass PSEUDO_CLASS_FIRST = PseudoClass.getPseudoClass("first");// 标记列表中第一个结果
+    private static final PseudoClass PSEUDO_CLASS_LAST = PseudoClass.getPseudoClass("last");// 标记列表中最后一个结果
+
+    private final SearchResultCardPool cardPool;
+
+    // 最后一个结果被显示时调用，用于加载下一页结果
+    private final ObjectProperty<Runnable> onScrolledToEnd = new SimpleObjectProperty<>();
+
+    /**
+     * @param cardPool 单元格借出和归还卡片的卡片池
+     */
+    public SearchResultList(SearchResultCardPool cardPool) {
+        this.cardPool = cardPool;
+        getStyleClass().add("search-result-list");
+        setFocusTraversable(false);
+        setCellFactory(listView -> new Cell());
+    }
+
+    public ObjectProperty<Runnable> onScrolledToEndProperty() {
+        return onScrolledToEnd;
+    }
+
+    public Runnable getOnScrolledToEnd() {
+        return onScrolledToEnd.get();
+    }
+
+    public void setOnScrolledToEnd(Runnable onScrolledToEnd) {
+        this.onScrolledToEnd.set(onScrolledToEnd);
+    }
+
+    /**
+     * 承载一张搜索结果卡片的单元格，滚动时由 {@link ListView} 复用。
+     */
+    private final class Cell extends ListCell<FileData> {
+
+        private SearchResultCard card;
+
+        // 追加结果后最后一个单元格可能不会被重新更新，因此监听结果列表本身来刷新伪类
+        private final InvalidationListener itemsListener = observable -> updatePseudoClasses();
+        private final WeakInvalidationListener weakItemsListener = new WeakInvalidationListener(itemsListener);
+        private ObservableList<FileData> observedItems;
+
+        private Cell() {
+            getStyleClass().add("search-result-cell");
+        }
+
+        @Override
+        protected void updateItem(FileData item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(null);
+            observeItems(getListView() == null ? null : getListView().getItems());
+
+            if (empty || item == null) {
+                setGraphic(null);
+                if (card != null) {
+                    cardPool.release(card);
+                    card = null;
+                }
+            } else {
+                if (card == null) {
+                    card = cardPool.acquire(item);
+                } else if (card.getResult() != item) {
+                    card.setResult(item);
+                }
+                setGraphic(card);
+                if (observedItems != null && getIndex() == observedItems.size() - 1 && getOnScrolledToEnd() != null) {
+                    getOnScrolledToEnd().run();
+                }
+            }
+            updatePseudoClasses();
+        }
+
+        private void observeItems(ObservableList<FileData> items) {
+            if (items == observedItems) {
+                return;
+            }
+            if (observedItems != null) {
+                observedItems.removeListener(weakItemsListener);
+            }
+            observedItems = items;
+            if (items != null) {
+                items.addListener(weakItemsListener);
+            }
+        }
+
+        private void updatePseudoClasses() {
+            int index = getIndex();
+            boolean filled = !isEmpty() && observedItems != null;
+            pseudoClassStateChanged(PSEUDO_CLASS_FIRST, filled && index == 0);
+            pseudoClassStateChanged(PSEUDO_CLASS_LAST, filled && index == observedItems.size() - 1);
+        }
+    }
+}
@@ -34,6 +34,9 @@ import javafx.stage.Popup;
  * 一个管理器类，用于为任何 Node 安装和管理一个悬浮提示 Popup。
  * 新版本使用 JavaFX 原生的 Popup 实现，并完全支持 JavaFX 属性绑定。
  * 支持通过 FXML 附加属性进行声明式使用。
+ * <p>
+ * 所有安装了提示的节点共用同一个 Popup，鼠标进入某个节点时把提示文本换成该节点的文本并重新定位，
+ * 每个节点只持有两个事件处理器，不再各自创建一个 Popup 窗口。只能在 JavaFX 应用线程中使用。
  *
  */
 public class SimpleHoverTooltip {
@@ -43,77 +46,113 @@ public class SimpleHoverTooltip {
     private static final Object TOOLTIP_PROPERTY_KEY = new Object();
     private static final double GAP_FROM_OWNER = 5.0;
 
+    // --- 共享的 Popup，第一次显示提示时创建 ---
+    private static Popup sharedPopup;
+    private static Label sharedTextLabel;
+    // 当前显示提示的实例
+    private static SimpleHoverTooltip current;
+
     // --- 实例字段 ---
     private final Node owner;
-    private final Popup popup;
-    private final Label textLabel;
+    private String text;
 
     private final EventHandler<MouseEvent> enterHandler;
     private final EventHandler<MouseEvent> exitHandler;
 
     private SimpleHoverTooltip(Node owner) {
         this.owner = owner;
-        this.popup = new Popup();
-        this.textLabel = new Label();
-
-        StackPane contentPane = new StackPane(textLabel);
-        contentPane.setPadding(new Insets(1, 2, 1, 2));
-        contentPane.getStyleClass().add("simple-hover-tooltip");
-
-        this.popup.getContent().add(contentPane);
-        this.popup.setAutoFix(false);
-        this.popup.setAutoHide(true);
-        this.popup.setHideOnEscape(true);
 
+        this.enterHandler = event -> show();
+        this.exitHandler = event -> hide();
 
-        this.popup.widthProperty().addListener((obs, oldVal, newVal) -> {
-            if (popup.isShowing()) positionPopup();
-        });
-        this.popup.heightProperty().addListener((obs, oldVal, newVal) -> {
-            if (popup.isShowing()) positionPopup();
-        });
+        this.owner.addEventHandler(MouseEvent.MOUSE_ENTERED, this.enterHandler);
+        this.owner.addEventHandler(MouseEvent.MOUSE_EXITED, this.exitHandler);
+    }
 
-        this.enterHandler = event -> {
-            if (!this.popup.isShowing()) {
+    /**
+     * 获取共享的 Popup，不存在时创建。
+     */
+    private static Popup popup() {
+        if (sharedPopup == null) {
+            sharedTextLabel = new Label();
+
+            StackPane contentPane = new StackPane(sharedTextLabel);
+            contentPane.setPadding(new Insets(1, 2, 1, 2));
+            contentPane.getStyleClass().add("simple-hover-tooltip");
+
+            sharedPopup = new Popup();
+            sharedPopup.getContent().add(contentPane);
+            sharedPopup.setAutoFix(false);
+            sharedPopup.setAutoHide(true);
+            sharedPopup.setHideOnEscape(true);
+
+            sharedPopup.widthProperty().addListener((obs, oldVal, newVal) -> {
+                if (sharedPopup.isShowing() && current != null) current.positionPopup();
+            });
+            sharedPopup.heightProperty().addListener((obs, oldVal, newVal) -> {
+                if (sharedPopup.isShowing() && current != null) current.positionPopup();
+            });
+        }
+        return sharedPopup;
+    }
 
-                this.popup.show(this.owner, 0, 0);
-            }
-        };
-        this.exitHandler = event -> this.popup.hide();
+    /**
+     * 在共享的 Popup 中显示本节点的提示。
+     */
+    private void show() {
+        Popup popup = popup();
+        if (popup.isShowing()) {
+            // 上一个节点可能位于另一个窗口，先隐藏再以本节点为 owner 显示
+            popup.hide();
+        }
+        current = this;
+        sharedTextLabel.setText(text);
+        popup.show(this.owner, 0, 0);
+        positionPopup();
+    }
 
-        this.owner.addEventHandler(MouseEvent.MOUSE_ENTERED, this.enterHandler);
-        this.owner.addEventHandler(MouseEvent.MOUSE_EXITED, this.exitHandler);
+    /**
+     * 隐藏提示，共享的 Popup 正在显示其它节点的提示时不做任何事。
+     */
+    private void hide() {
+        if (current == this) {
+            current = null;
+            sharedPopup.hide();
+        }
     }
 
     /**
      * 更新 Tooltip 显示的文本。
      */
     private void updateText(String newText) {
-        this.textLabel.setText(newText);
+        this.text = newText;
+        if (current == this) {
+            sharedTextLabel.setText(newText);
+        }
     }
 
     /**
      * 重新计算并设置 Popup 的位置。
-     * 这个方法现在只在 popup 尺寸确定或变化后被调用，因此是准确的。
+     * 在 popup 显示后以及尺寸变化时调用，共享的 popup 换到另一个节点时尺寸可能不变，因此显示后也要定位一次。
      */
     private void positionPopup() {
-        if (!owner.getScene().getWindow().isShowing()) {
+        if (owner.getScene() == null || !owner.getScene().getWindow().isShowing()) {
             // 防止在 owner 窗口不可见时执行定位
             return;
         }
         Bounds ownerBounds = this.owner.localToScreen(this.owner.getLayoutBounds());
         // 计算目标位置，使 tooltip 水平居中于 owner 之上
-        double targetX = ownerBounds.getCenterX() - popup.getWidth() / 2;
-        double targetY = ownerBounds.getMinY() - popup.getHeight() - GAP_FROM_OWNER;
-        this.popup.setX(targetX);
-        this.popup.setY(targetY);
+        double targetX = ownerBounds.getCenterX() - sharedPopup.getWidth() / 2;
+        double targetY = ownerBounds.getMinY() - sharedPopup.getHeight() - GAP_FROM_OWNER;
+        sharedPopup.setX(targetX);
+        sharedPopup.setY(targetY);
     }
 
     /**
      * 卸载 Tooltip，移除事件处理器并清理资源。
      */
     private void uninstall() {
-        this.popup.hide();
+        hide();
         this.owner.removeEventHandler(MouseEvent.MOUSE_ENTERED, this.enterHandler);
         this.owner.removeEventHandler(MouseEvent.MOUSE_EXITED, this.exitHandler);
         this.owner.getProperties().remove(TOOLTIP_INSTANCE_KEY);
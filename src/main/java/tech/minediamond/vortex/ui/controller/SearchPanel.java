@@ -22,17 +22,34 @@ package tech.minediamond.vortex.ui.controller;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
+import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.HBox;
 import javafx.util.Duration;
 import lombok.extern.slf4j.Slf4j;
+import tech.minediamond.vortex.model.appConfig.AppConfig;
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.program.ProgramResult;
+import tech.minediamond.vortex.service.frecency.FrecencyStore;
 import tech.minediamond.vortex.service.i18n.I18nService;
+import tech.minediamond.vortex.service.metrics.SearchMetrics;
+import tech.minediamond.vortex.service.metrics.SearchStage;
+import tech.minediamond.vortex.service.program.AppLauncher;
+import tech.minediamond.vortex.service.search.AdaptiveDebounce;
 import tech.minediamond.vortex.service.search.SearchService;
+import tech.minediamond.vortex.ui.component.SearchResultCard;
+import tech.minediamond.vortex.ui.component.SearchResultCardFactory;
+import tech.minediamond.vortex.ui.component.SearchResultCardPool;
+import tech.minediamond.vortex.ui.component.SearchResultList;
+import tech.minediamond.vortex.util.ClipboardUtil;
+import tech.minediamond.vortex.util.OpenResourceUtil;
 
 /**
  * 搜索面板控制器类，负责处理搜索界面的逻辑和状态管理
@@ -41,15 +58,28 @@ import tech.minediamond.vortex.service.search.SearchService;
 @Slf4j
 public class SearchPanel {
 
+    @FXML
+    private AnchorPane root;
     @FXML
     private ScrollPane scrollPane;
+    // 虚拟化的结果列表，只在有搜索结果时显示，其余状态的提示显示在 scrollPane 中
+    private SearchResultList resultList;
 
-    // 防抖机制：延迟300毫秒执行搜索，避免频繁触发搜索请求
-    private final PauseTransition debounce = new PauseTransition(Duration.millis(300));
+    // 防抖机制：延迟由 AdaptiveDebounce 根据后端耗时和按键间隔决定，只在连续快速输入且后端较慢时合并搜索请求
+    private final PauseTransition debounce = new PauseTransition();
+    private final AdaptiveDebounce adaptiveDebounce;
     private String keyword;
 
     private final SearchService searchService;
     private final I18nService i18n;
+    private final SearchMetrics searchMetrics;
+    private final SearchResultCardFactory cardFactory;
+    private final FrecencyStore frecencyStore;
+
+    // 最后一次按键的时间，用于统计防抖和按键到渲染的耗时
+    private long lastKeyNanos;
+    // 等待下一次布局脉冲的计时监听器
+    private Runnable pendingAttachListener;
 
     // 搜索状态属性，用于监控和响应搜索状态变化
     ObjectProperty<SearchStatus> searchStatusProperty = new SimpleObjectProperty<>();
@@ -66,14 +96,15 @@ public class SearchPanel {
     }
 
     @Inject
-    public SearchPanel(SearchService searchService, I18nService i18n) {
+    public SearchPanel(SearchService searchService, I18nService i18n, SearchMetrics searchMetrics, SearchResultCardFactory cardFactory, AppConfig config, FrecencyStore frecencyStore) {
         this.searchService = searchService;
         this.i18n = i18n;
+        this.searchMetrics = searchMetrics;
+        this.cardFactory = cardFactory;
+        this.frecencyStore = frecencyStore;
+        this.adaptiveDebounce = new AdaptiveDebounce(config.searchDebounceMinMillisProperty(), config.searchDebounceMaxMillisProperty());
 
-        debounce.setOnFinished(event -> {
-            log.info("开始搜索");
-            searchService.search(keyword);
-        });
+        debounce.setOnFinished(event -> startSearch());
 
     }
 
@@ -92,27 +123,44 @@ public class SearchPanel {
         serviceErrorTiphbox.getChildren().add(serviceErrorTipLabel);
         serviceErrorTiphbox.setAlignment(Pos.CENTER);
 
+        // 搜索结果列表，与 scrollPane 占据相同的位置，滚动到底部时加载下一页结果
+        resultList = new SearchResultList(new SearchResultCardPool(this::createCard));
+        resultList.setOnScrolledToEnd(searchService::loadMore);
+        resultList.setVisible(false);
+        AnchorPane.setLeftAnchor(resultList, AnchorPane.getLeftAnchor(scrollPane));
+        AnchorPane.setRightAnchor(resultList, AnchorPane.getRightAnchor(scrollPane));
+        AnchorPane.setTopAnchor(resultList, AnchorPane.getTopAnchor(scrollPane));
+        AnchorPane.setBottomAnchor(resultList, AnchorPane.getBottomAnchor(scrollPane));
+        root.getChildren().add(resultList);
+
         // 监听搜索状态变化，根据状态更新界面显示
         searchStatusProperty.addListener((observable, oldValue, newValue) -> {//监控不同的状态展示不同的界面
             switch (newValue) {
                 case PENDING -> {
-                    scrollPane.contentProperty().set(searchTiphbox);
+                    showTip(searchTiphbox);
                 }
                 case NOT_FOUND -> {
-                    scrollPane.contentProperty().set(searchNotFoundTiphbox);
+                    showTip(searchNotFoundTiphbox);
                 }
                 case SERVICE_ERROR -> {
-                    scrollPane.contentProperty().set(serviceErrorTiphbox);
+                    showTip(serviceErrorTiphbox);
                 }
                 case SEARCHING -> {
                 }//显示处于搜索状态时显示之前的画面，考虑到Everything引擎搜索速度极快，不显示专门的搜索中页面
                 case SEARCHED -> {
-                    scrollPane.contentProperty().set(searchService.valueProperty().get());
+                    resultList.setItems(searchService.valueProperty().get());
+                    resultList.scrollTo(0);
+                    resultList.setVisible(true);
+                    scrollPane.setVisible(false);
+                    recordAttachOnNextPulse();
                 }
             }
         });
         searchStatusProperty.set(SearchStatus.PENDING);
 
+        // 防抖根据文件后端的耗时调整，程序结果在内存中查询，进度在文件结果返回之前就会变为 1，不能代表后端的耗时
+        searchService.setOnFileQueryLatency(adaptiveDebounce::recordSearchLatency);
+
         // 监听搜索进度变化，根据进度更新搜索状态，0代表未找到结果，1代表搜索完成
         searchService.progressProperty().addListener((observable, oldValue, newValue) -> {
             if (newValue.equals(0.0)) {
@@ -132,9 +180,101 @@ public class SearchPanel {
      */
     public void search(String keyword) {
         log.debug("即将搜索");
+        lastKeyNanos = System.nanoTime();
         searchStatusProperty.set(SearchStatus.SEARCHING);
         this.keyword = keyword;
-        debounce.playFromStart();
+        long delay = adaptiveDebounce.onKey(keyword, lastKeyNanos);
+        if (delay <= 0) {
+            debounce.stop();
+            startSearch();
+        } else {
+            debounce.setDuration(Duration.millis(delay));
+            debounce.playFromStart();
+        }
+    }
+
+    private void startSearch() {
+        log.info("开始搜索");
+        searchMetrics.recordSince(SearchStage.DEBOUNCE, lastKeyNanos);
+        searchService.search(keyword);
+    }
+
+    /**
+     * 隐藏结果列表，在 scrollPane 中显示提示
+     *
+     * @param tip 要显示的提示
+     */
+    private void showTip(HBox tip) {
+        resultList.setVisible(false);
+        resultList.setItems(null);
+        scrollPane.setContent(tip);
+        scrollPane.setVisible(true);
+    }
+
+    /**
+     * 卡片池中没有空闲卡片时创建新卡片并设置卡片上的操作
+     *
+     * @param result 卡片显示的搜索结果
+     * @return 新的搜索结果卡片
+     */
+    private SearchResultCard createCard(FileData result) {
+        long start = System.nanoTime();
+        SearchResultCard card = cardFactory.create(result);
+        // 打开和在文件夹中显示会被记录，用于调整之后搜索结果的排序
+        card.setOnOpen(fileData -> {
+            if (fileData instanceof ProgramResult program) {
+                if (AppLauncher.openApplication(program.getProgramInfo())) {
+                    frecencyStore.recordProgram(program.getProgramInfo().getId());
+                }
+            } else if (OpenResourceUtil.OpenFile(fileData)) {
+                frecencyStore.recordFile(fileData);
+            }
+        });
+        card.setOnRevealInFolder(fileData -> {
+            if (OpenResourceUtil.OpenFileInFolder(fileData)) {
+                frecencyStore.recordFile(fileData);
+            }
+        });
+        card.setOnCopy(fileData -> ClipboardUtil.copyToClipboard(fileData.getFullPath()));
+        card.setOnOpenPathInTerminal(OpenResourceUtil::OpenPathInTerminal);
+        searchMetrics.recordSince(SearchStage.CARD_CREATION, start);
+        return card;
+    }
+
+    /**
+     * 在结果列表放入面板后的下一次布局脉冲完成时，记录挂载耗时和按键到渲染的总耗时
+     */
+    private void recordAttachOnNextPulse() {
+        Scene scene = resultList.getScene();
+        if (scene == null) {
+            return;
+        }
+        if (pendingAttachListener != null) {
+            scene.removePostLayoutPulseListener(pendingAttachListener);
+        }
+        long attachStart = System.nanoTime();
+        long keyNanos = lastKeyNanos;
+        Runnable listener = new Runnable() {
+            // 移除要等到下一轮事件循环，期间可能还有一次脉冲，只记录第一次
+            private boolean fired = false;
+
+            @Override
+            public void run() {
+                if (fired) {
+                    return;
+                }
+                fired = true;
+                searchMetrics.recordSince(SearchStage.FX_ATTACH, attachStart);
+                searchMetrics.recordSince(SearchStage.KEY_TO_RENDER, keyNanos);
+                // 脉冲中正在遍历监听器列表，不能在此直接移除
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                if (pendingAttachListener == this) {
+                    pendingAttachListener = null;
+                }
+            }
+        };
+        pendingAttachListener = listener;
+        scene.addPostLayoutPulseListener(listener);
     }
 
     /**
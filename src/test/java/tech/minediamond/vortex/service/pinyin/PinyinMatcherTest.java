@@ -0,0 +1,89 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.pinyin;
+
+import java.util.Arrays;
+
+/**
+ * 测试 {@link PinyinMatcher} 的全拼、首字母、混合和多音字匹配，以及 {@link PinyinIndex} 用位集合排除名称后的搜索结果。
+ */
+public class PinyinMatcherTest {
+
+    public static void main(String[] args) {
+        // 全拼、首字母和两者混合
+        for (String query : new String[]{"wx", "weixin", "wxin", "WeiX", "w x", "wei"}) {
+            check(PinyinMatcher.indexOf("微信", normalize(query)) == 0, "'" + query + "' 应从开头匹配 微信");
+        }
+        check(PinyinMatcher.indexOf("QQ音乐", normalize("yy")) == 2, "'yy' 应从第 2 个字符匹配 QQ音乐");
+        check(PinyinMatcher.indexOf("QQ音乐", normalize("qqyy")) == 0, "'qqyy' 应从开头匹配 QQ音乐");
+        check(PinyinMatcher.indexOf("企业 微信", normalize("qywx")) == 0, "匹配时应跳过空格");
+
+        // 多音字的每个读音都可以匹配
+        check(PinyinMatcher.indexOf("银行", normalize("yh")) == 0, "'yh' 应匹配 银行");
+        check(PinyinMatcher.indexOf("银行", normalize("yx")) == 0, "'yx' 应匹配 银行");
+        check(PinyinMatcher.indexOf("银行", normalize("yinhang")) == 0, "'yinhang' 应匹配 银行");
+        check(PinyinMatcher.indexOf("银行", normalize("yinxing")) == 0, "'yinxing' 应匹配 银行");
+
+        // 不匹配的查询
+        check(PinyinMatcher.indexOf("微信", normalize("xw")) == -1, "'xw' 不应匹配 微信");
+        check(PinyinMatcher.indexOf("微信", normalize("wxx")) == -1, "比名称长的查询不应匹配");
+        check(PinyinMatcher.indexOf("微信", normalize("ei")) == -1, "读音中间的字母不能作为匹配起点");
+        check(PinyinMatcher.indexOf("QQ音乐", normalize("qyy")) == 1, "'qyy' 应从第二个 Q 开始匹配");
+        check(PinyinMatcher.indexOf("QQ音乐", normalize("qqy1")) == -1, "名称中没有的数字不应匹配");
+        check(normalize("微信") == null, "包含汉字的查询不能按拼音匹配");
+        check(normalize(" ") == null, "空查询不能按拼音匹配");
+
+        // 索引：没有汉字的名称不收录，从开头匹配的排在前面
+        String[] names = {"WeChat", "企业微信", "微信", null, "QQ音乐", "银行", "网易云音乐"};
+        PinyinIndex index = PinyinIndex.build(names);
+        check(index.size() == 5, "应只收录 5 个包含汉字的名称，实际 " + index.size());
+        checkSearch(index, "wx", 2, 1);
+        checkSearch(index, "weixin", 2, 1);
+        checkSearch(index, "yy", 4, 6);
+        checkSearch(index, "wyy", 6);
+        checkSearch(index, "yh", 5);
+        checkSearch(index, "yx", 5);
+        // 位集合排除：q 不在 微信/银行 等的读音中；ei 的首字母 e 不是任何名称的匹配起点
+        checkSearch(index, "qqq");
+        checkSearch(index, "ei");
+        checkSearch(index, "zzz");
+        checkSearch(index, "微信");
+        check(index.search("wx", 1).length == 1, "结果数量应受 limit 限制");
+        check(PinyinIndex.build(new String[]{"WeChat", null}) == PinyinIndex.EMPTY, "没有汉字时应返回空索引");
+        System.out.println("PinyinMatcherTest 通过");
+    }
+
+    private static String normalize(String query) {
+        return PinyinMatcher.normalizeQuery(query);
+    }
+
+    private static void checkSearch(PinyinIndex index, String query, int... expected) {
+        int[] actual = index.search(query, 10);
+        check(Arrays.equals(actual, expected), "'" + query + "' 的结果应为 " + Arrays.toString(expected)
+                + "，实际为 " + Arrays.toString(actual));
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+import tech.minediamond.vortex.service.database.SqliteStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.util.List;
+
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.check;
+
+/**
+ * 在临时数据库上测试 {@link dataBaseOperate#syncSoftwareList(List)} 的新增、更新、删除和重复记录清理。
+ */
+public class DataBaseOperateTest {
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("vortex-sync");
+        Path db = dir.resolve("test.db");
+        try {
+            SqliteStore store = new SqliteStore("jdbc:sqlite:" + db);
+            try {
+                sync(store, new dataBaseOperate(store));
+            } finally {
+                store.close();
+            }
+        } finally {
+            Files.deleteIfExists(db);
+            Files.delete(dir);
+        }
+        System.out.println("DataBaseOperateTest 通过");
+    }
+
+    private static void sync(SqliteStore store, dataBaseOperate database) throws Exception {
+        ProgramInfo code = program("Visual Studio Code", "C:\\Programs\\VS Code\\", "Code.exe", "1.90");
+        ProgramInfo git = program("Git", "C:\\Program Files\\Git\\", "git-bash.exe", "2.45");
+        ProgramInfo sevenZip = program("7-Zip", "C:\\Program Files\\7-Zip\\", "7zFM.exe", "24.07");
+
+        long generation = database.readGeneration();
+        checkResult(database.syncSoftwareList(List.of(code, git, sevenZip)), 3, 0, 0, "第一次同步");
+        check(database.readGeneration() == generation + 1, "有变化时代数应加一");
+        String codeId = find(database, "Visual Studio Code").getId();
+
+        // 没有变化时不写入，代数也不变
+        checkResult(database.syncSoftwareList(List.of(code, git, sevenZip)), 0, 0, 0, "重复同步");
+        check(database.readGeneration() == generation + 1, "没有变化时代数不应改变");
+
+        // 用户禁用的程序在更新后仍然是禁用的，id 保持不变
+        execute(store, "UPDATE software SET enabled = 'false' WHERE id = " + codeId);
+        ProgramInfo codeUpdated = program("Visual Studio Code", "C:\\Programs\\VS Code\\", "Code.exe", "1.91");
+        checkResult(database.syncSoftwareList(List.of(codeUpdated, git, sevenZip)), 0, 1, 0, "版本更新");
+        ProgramInfo stored = find(database, "Visual Studio Code");
+        check(stored.getVersion().equals("1.91"), "更新后版本应为 1.91，实际为 " + stored.getVersion());
+        check(stored.getId().equals(codeId), "更新后 id 应保持为 " + codeId + "，实际为 " + stored.getId());
+        check(Boolean.FALSE.equals(stored.getEnabled()), "禁用的程序更新后应仍然是禁用的");
+
+        // 同一标识的重复记录只保留 id 最小的一条，installLocation 为空字符串和 null 视为相同
+        ProgramInfo notepad = program("Notepad", null, "notepad.exe", "1.0");
+        checkResult(database.syncSoftwareList(List.of(codeUpdated, git, sevenZip, notepad)), 1, 0, 0, "新增程序");
+        String notepadId = find(database, "Notepad").getId();
+        execute(store, "INSERT INTO software(baseName, displayName, programName, version, installLocation, source, enabled) "
+                + "VALUES ('Notepad', 'Notepad', 'notepad.exe', '1.0', '', 'REGISTRY', 'true')");
+        execute(store, "INSERT INTO software(baseName, displayName, programName, version, installLocation, source, enabled) "
+                + "VALUES ('Git', 'Git', 'git-bash.exe', '2.45', 'C:\\Program Files\\Git\\', 'REGISTRY', 'true')");
+        check(database.readProgramInfoList().size() == 6, "应插入两条重复记录");
+        checkResult(database.syncSoftwareList(List.of(codeUpdated, git, sevenZip, notepad)), 0, 0, 2, "清理重复记录");
+        List<ProgramInfo> programs = database.readProgramInfoList();
+        check(programs.size() == 4, "清理后应剩 4 条记录，实际为 " + programs.size());
+        check(find(database, "Notepad").getId().equals(notepadId), "重复记录中应保留 id 最小的一条");
+
+        // 扫描结果中不再出现的程序被删除
+        checkResult(database.syncSoftwareList(List.of(codeUpdated, notepad)), 0, 0, 2, "删除程序");
+        programs = database.readProgramInfoList();
+        check(programs.size() == 2, "删除后应剩 2 条记录，实际为 " + programs.size());
+        check(find(database, "Visual Studio Code").getId().equals(codeId), "未删除的程序 id 应保持不变");
+    }
+
+    private static ProgramInfo program(String name, String installLocation, String programName, String version) {
+        ProgramInfo program = ProgramTestSupport.program(null, name, installLocation, programName, ProgramSource.REGISTRY);
+        program.setVersion(version);
+        return program;
+    }
+
+    private static ProgramInfo find(dataBaseOperate database, String displayName) throws Exception {
+        List<ProgramInfo> matches = database.readProgramInfoList().stream()
+                .filter(p -> p.getDisplayName().equals(displayName))
+                .toList();
+        check(matches.size() == 1, displayName + " 应只有一条记录，实际为 " + matches.size());
+        return matches.get(0);
+    }
+
+    private static void execute(SqliteStore store, String sql) throws Exception {
+        store.transaction(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            }
+            return null;
+        });
+    }
+
+    private static void checkResult(dataBaseOperate.SyncResult result, int inserted, int updated, int deleted, String step) {
+        check(result.inserted() == inserted && result.updated() == updated && result.deleted() == deleted,
+                step + "：应新增 " + inserted + "、更新 " + updated + "、删除 " + deleted + "，实际为 " + result);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.check;
+
+/**
+ * 测试 {@link ProgramCatalogSnapshot} 的保存、读取和损坏时的回退，并测量读取大量程序的耗时。
+ */
+public class ProgramCatalogSnapshotTest {
+
+    private static final long GENERATION = 42;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("vortex-snapshot");
+        try {
+            roundTrip(dir.resolve("round-trip"));
+            rejectsInvalidContent();
+            benchmarkLoad(dir.resolve("benchmark"), args.length > 0 ? Integer.parseInt(args[0]) : 5_000);
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        System.out.println("ProgramCatalogSnapshotTest 通过");
+    }
+
+    private static void roundTrip(Path dir) throws IOException {
+        ProgramCatalogSnapshot snapshot = new ProgramCatalogSnapshot(dir);
+        check(snapshot.load(0) == null, "没有快照时应返回 null");
+
+        List<ProgramInfo> programs = samplePrograms();
+        snapshot.save(1, programs);
+        List<ProgramInfo> loaded = snapshot.load(1);
+        check(programs.equals(loaded), "读取的程序应与保存的相同");
+        check(snapshot.load(2) == null, "数据库的代数变化后快照应视为过期");
+
+        List<ProgramInfo> updated = new ArrayList<>(programs.subList(1, programs.size()));
+        snapshot.save(2, updated);
+        check(updated.equals(snapshot.load(2)), "应读取最新保存的快照");
+        check(snapshotFiles(dir) == 1, "保存后应删除旧快照");
+
+        snapshot.save(3, List.of());
+        check(snapshot.load(3).isEmpty(), "空的程序列表也应能保存");
+    }
+
+    private static void rejectsInvalidContent() {
+        byte[] valid = toBytes(ProgramCatalogSnapshot.encode(GENERATION, samplePrograms()));
+
+        byte[] flipped = valid.clone();
+        flipped[flipped.length - 3] ^= 0x20;
+        expectInvalid(flipped, "字符串损坏");
+
+        byte[] record = valid.clone();
+        record[ProgramCatalogSnapshot.HEADER_SIZE + 4] = 0x7F;
+        expectInvalid(record, "记录损坏");
+
+        byte[] version = valid.clone();
+        ByteBuffer.wrap(version).order(ByteOrder.LITTLE_ENDIAN).putInt(4, ProgramCatalogSnapshot.FORMAT_VERSION + 1);
+        expectInvalid(version, "格式版本不同");
+
+        byte[] generation = valid.clone();
+        ByteBuffer.wrap(generation).order(ByteOrder.LITTLE_ENDIAN).putLong(24, GENERATION - 1);
+        expectInvalid(generation, "代数不同");
+
+        byte[] truncated = new byte[valid.length - 1];
+        System.arraycopy(valid, 0, truncated, 0, truncated.length);
+        expectInvalid(truncated, "文件被截断");
+
+        expectInvalid(new byte[0], "空文件");
+        expectInvalid("not a snapshot at all, just some text".getBytes(), "其它文件");
+    }
+
+    private static void benchmarkLoad(Path dir, int count) throws IOException {
+        List<ProgramInfo> programs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            programs.add(program(String.valueOf(i + 1), "Program " + i, "program" + i + ".exe", "1." + (i % 10),
+                    "Publisher " + (i % 50), "C:\\Program Files\\Program " + i + "\\", ProgramSource.REGISTRY, null, true));
+        }
+        ProgramCatalogSnapshot snapshot = new ProgramCatalogSnapshot(dir);
+        snapshot.save(GENERATION, programs);
+        long size;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            size = Files.size(files.iterator().next());
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            List<ProgramInfo> loaded = snapshot.load(GENERATION);
+            best = Math.min(best, System.nanoTime() - start);
+            check(loaded.size() == count, "读取的程序数量不正确");
+        }
+        System.out.printf("%d 个程序，快照 %d 字节，读取最快 %.3f ms%n", count, size, best / 1e6);
+    }
+
+    private static void expectInvalid(byte[] content, String description) {
+        try {
+            ProgramCatalogSnapshot.decode(ByteBuffer.wrap(content), GENERATION);
+        } catch (ProgramCatalogSnapshot.InvalidSnapshotException e) {
+            return;
+        }
+        throw new AssertionError(description + "时应视为无效快照");
+    }
+
+    private static List<ProgramInfo> samplePrograms() {
+        return List.of(
+                program("1", "Git", "git-bash.exe", "2.45.1", "The Git Development Community", "C:\\Program Files\\Git\\",
+                        ProgramSource.REGISTRY, null, true),
+                program("2", "计算器", "Microsoft.WindowsCalculator_8wekyb3d8bbwe!App", null, "CN=Microsoft Corporation",
+                        "C:\\Program Files\\WindowsApps\\Microsoft.WindowsCalculator\\", ProgramSource.UWP, null, false),
+                program("3", "Portable Tool", "tool.exe", null, null, "D:\\Tools\\",
+                        ProgramSource.SHORTCUT, Path.of("desktop", "Portable Tool.lnk"), true));
+    }
+
+    private static ProgramInfo program(String id, String name, String programName, String version, String publisher,
+                                       String installLocation, ProgramSource source, Path path, boolean enabled) {
+        ProgramInfo programInfo = ProgramTestSupport.program(id, name, installLocation, programName, source);
+        programInfo.setVersion(version);
+        programInfo.setPublisher(publisher);
+        programInfo.setPath(path);
+        programInfo.setEnabled(enabled);
+        return programInfo;
+    }
+
+    private static int snapshotFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return (int) files.count();
+        }
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.check;
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.program;
+
+/**
+ * 测试 {@link ProgramCatalog} 的版本号、监听器和多个线程同时发布时读取方看到的一致性。
+ */
+public class ProgramCatalogTest {
+
+    public static void main(String[] args) throws Exception {
+        publishAndListen();
+        concurrentPublishers();
+        System.out.println("ProgramCatalogTest 通过");
+    }
+
+    private static void publishAndListen() {
+        ProgramCatalog catalog = new ProgramCatalog();
+        check(catalog.current().number() == 0 && catalog.current().size() == 0, "初始版本应为空的版本 0");
+
+        List<long[]> notified = new ArrayList<>();
+        catalog.addListener((previous, current) -> notified.add(new long[]{previous.number(), current.number()}));
+        catalog.addListener((previous, current) -> {
+            throw new IllegalStateException("监听器失败不应影响发布");
+        });
+
+        List<ProgramInfo> programs = new ArrayList<>(List.of(program("1", "Git"), program(null, "扫描中")));
+        ProgramCatalog.Version first = catalog.publish(programs);
+        programs.clear();
+        check(first.number() == 1 && catalog.current() == first, "发布后当前版本应为新版本");
+        check(first.size() == 2, "发布的列表应被复制，之后修改原列表不影响已发布的版本");
+        check(first.getById("1").getBaseName().equals("Git") && first.getById(null) == null, "应能按 id 查找");
+        check(notified.size() == 1 && notified.get(0)[0] == 0 && notified.get(0)[1] == 1, "监听器应收到新旧版本");
+
+        catalog.publish(List.of());
+        check(first.size() == 2, "旧版本不应被之后的发布修改");
+        check(catalog.current().number() == 2 && catalog.current().getById("1") == null, "新版本应替换旧版本");
+
+        check(catalog.publishIfCurrent(first, List.of(program("2", "过期"))) == null, "基于旧版本的发布应被拒绝");
+        check(catalog.current().number() == 2 && notified.size() == 2, "被拒绝的发布不应改变版本或通知监听器");
+        check(catalog.publishIfCurrent(catalog.current(), List.of(program("3", "Notepad++"))).number() == 3, "基于当前版本的发布应成功");
+    }
+
+    private static void concurrentPublishers() throws InterruptedException {
+        ProgramCatalog catalog = new ProgramCatalog();
+        int publishers = 4;
+        int publishesEach = 2_000;
+        AtomicInteger notifications = new AtomicInteger();
+        catalog.addListener((previous, current) -> notifications.incrementAndGet());
+
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicBoolean inconsistent = new AtomicBoolean(false);
+        Thread reader = new Thread(() -> {
+            long last = 0;
+            while (!done.get()) {
+                ProgramCatalog.Version version = catalog.current();
+                // 每个版本中的程序都来自同一次发布，且版本号不会倒退
+                String expected = version.size() == 0 ? null : version.programs().get(0).getBaseName();
+                for (ProgramInfo programInfo : version.programs()) {
+                    if (!programInfo.getBaseName().equals(expected)) {
+                        inconsistent.set(true);
+                    }
+                }
+                if (version.number() < last) {
+                    inconsistent.set(true);
+                }
+                last = version.number();
+            }
+        });
+        reader.start();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < publishers; t++) {
+            String name = "publisher-" + t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < publishesEach; i++) {
+                    catalog.publish(List.of(program(String.valueOf(i), name), program(String.valueOf(i + 1), name)));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        done.set(true);
+        reader.join();
+
+        long total = (long) publishers * publishesEach;
+        check(catalog.current().number() == total, "每次发布都应得到一个新版本号，实际为 " + catalog.current().number());
+        check(notifications.get() == total, "每次发布都应通知监听器");
+        check(!inconsistent.get(), "读取方不应看到不一致或倒退的版本");
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.check;
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.program;
+
+/**
+ * 用假的程序来源测试 {@link ProgramDiscovery} 的变化检测和合并，不需要 Windows。
+ * <p>
+ * 最后用大量程序测量所有来源都没有变化时一次发现的耗时。
+ */
+public class ProgramDiscoveryTest {
+
+    public static void main(String[] args) throws Exception {
+        onlyChangedSourcesAreScanned();
+        failedSourceKeepsPrograms();
+        shortcutsDuplicatingInstalledProgramsAreDropped();
+        shortcutReturnsAfterUninstall();
+        benchmarkUnchanged(args.length > 0 ? Integer.parseInt(args[0]) : 20_000);
+        System.out.println("ProgramDiscoveryTest 通过");
+    }
+
+    private static void onlyChangedSourcesAreScanned() throws Exception {
+        FakeScanner registry = new FakeScanner(ProgramSource.REGISTRY, "r1",
+                program(null, "Git", "C:\\Program Files\\Git\\", "git-bash.exe", ProgramSource.REGISTRY));
+        FakeScanner uwp = new FakeScanner(ProgramSource.UWP, "u1",
+                program(null, "计算器", "C:\\Program Files\\WindowsApps\\Calculator\\", "Microsoft.WindowsCalculator!App", ProgramSource.UWP));
+        ProgramDiscovery discovery = new ProgramDiscovery(List.of(registry, uwp));
+
+        List<ProgramInfo> streamed = new ArrayList<>();
+        ProgramDiscovery.Result first = discovery.discover(List.of(), Map.of(), streamed::add);
+        check(registry.scans == 1 && uwp.scans == 1, "没有保存标记时应扫描所有来源");
+        check(first.programs().size() == 2 && streamed.size() == 2, "应得到两个来源的全部程序");
+        check(first.rescanned().equals(Set.of(ProgramSource.REGISTRY, ProgramSource.UWP)), "应报告重新扫描的来源");
+        check(first.tokens().equals(Map.of(ProgramSource.REGISTRY, "r1", ProgramSource.UWP, "u1")), "应记录新的标记");
+
+        ProgramDiscovery.Result unchanged = discovery.discover(first.programs(), first.tokens(), p -> {
+        });
+        check(registry.scans == 1 && uwp.scans == 1, "标记没有变化时不应扫描");
+        check(!unchanged.changed() && unchanged.programs() == first.programs(), "没有变化时应原样返回当前的程序");
+
+        registry.token = "r2";
+        registry.programs.add(program(null, "Notepad++", "C:\\Program Files\\Notepad++\\", "notepad++.exe", ProgramSource.REGISTRY));
+        ProgramDiscovery.Result delta = discovery.discover(first.programs(), first.tokens(), p -> {
+        });
+        check(registry.scans == 2 && uwp.scans == 1, "只有标记变化的来源应重新扫描");
+        check(delta.rescanned().equals(Set.of(ProgramSource.REGISTRY)), "只有注册表应被报告为重新扫描");
+        check(delta.programs().size() == 3, "应合并新增的程序，实际为 " + delta.programs().size());
+        ProgramInfo calculator = first.programs().stream().filter(p -> p.getSource() == ProgramSource.UWP).findFirst().orElseThrow();
+        check(delta.programs().stream().anyMatch(p -> p == calculator), "没有变化的来源应沿用当前的程序");
+        check(delta.tokens().get(ProgramSource.REGISTRY).equals("r2"), "应更新变化来源的标记");
+
+        uwp.token = null;
+        discovery.discover(delta.programs(), delta.tokens(), p -> {
+        });
+        check(uwp.scans == 2, "无法计算标记的来源应总是扫描");
+    }
+
+    private static void failedSourceKeepsPrograms() throws Exception {
+        FakeScanner registry = new FakeScanner(ProgramSource.REGISTRY, "r1",
+                program(null, "Git", "C:\\Program Files\\Git\\", "git-bash.exe", ProgramSource.REGISTRY));
+        ProgramDiscovery discovery = new ProgramDiscovery(List.of(registry));
+        ProgramDiscovery.Result first = discovery.discover(List.of(), Map.of(), p -> {
+        });
+
+        registry.token = "r2";
+        registry.failure = new IllegalStateException("PowerShell 不可用");
+        ProgramDiscovery.Result failed = discovery.discover(first.programs(), first.tokens(), p -> {
+        });
+        check(!failed.changed(), "扫描失败时程序列表不应变化");
+        check(failed.programs().equals(first.programs()), "扫描失败时应保留当前的程序");
+        check(failed.tokens().get(ProgramSource.REGISTRY).equals("r1"), "扫描失败时应保留上次的标记，下次重新扫描");
+    }
+
+    private static void shortcutsDuplicatingInstalledProgramsAreDropped() throws Exception {
+        FakeScanner registry = new FakeScanner(ProgramSource.REGISTRY, "r1",
+                program(null, "Git", "C:\\Program Files\\Git\\", "git-bash.exe", ProgramSource.REGISTRY));
+        FakeScanner shortcuts = new FakeScanner(ProgramSource.SHORTCUT, "s1",
+                program(null, "Git Bash", "C:\\Program Files\\Git\\", "GIT-BASH.exe", ProgramSource.SHORTCUT),
+                program(null, "Portable Tool", "D:\\Tools\\", "tool.exe", ProgramSource.SHORTCUT));
+        ProgramDiscovery discovery = new ProgramDiscovery(List.of(shortcuts, registry));
+
+        ProgramDiscovery.Result first = discovery.discover(List.of(), Map.of(), p -> {
+        });
+        check(first.programs().size() == 2, "与已安装程序启动目标相同的快捷方式应去掉");
+        check(first.programs().stream().noneMatch(p -> p.getBaseName().equals("Git Bash")), "应保留注册表中的程序");
+
+        // 只有注册表变化时，沿用的快捷方式也要与新的注册表程序去重
+        registry.token = "r2";
+        registry.programs.add(program(null, "Portable Tool", "D:\\Tools\\", "tool.exe", ProgramSource.REGISTRY));
+        ProgramDiscovery.Result second = discovery.discover(first.programs(), first.tokens(), p -> {
+        });
+        check(shortcuts.scans == 1, "快捷方式没有变化时不应扫描");
+        check(second.programs().size() == 2 && second.programs().stream().allMatch(p -> p.getSource() == ProgramSource.REGISTRY),
+                "新安装的程序应取代指向它的快捷方式");
+    }
+
+    private static void shortcutReturnsAfterUninstall() throws Exception {
+        FakeScanner registry = new FakeScanner(ProgramSource.REGISTRY, "r1",
+                program(null, "Git", "C:\\Program Files\\Git\\", "git-bash.exe", ProgramSource.REGISTRY));
+        FakeScanner shortcuts = new FakeScanner(ProgramSource.SHORTCUT, "s1",
+                program(null, "Portable Tool", "D:\\Tools\\", "tool.exe", ProgramSource.SHORTCUT));
+        ProgramDiscovery discovery = new ProgramDiscovery(List.of(shortcuts, registry));
+        ProgramDiscovery.Result first = discovery.discover(List.of(), Map.of(), p -> {
+        });
+
+        // 安装：注册表中出现了与快捷方式启动目标相同的程序，快捷方式被去掉
+        registry.token = "r2";
+        ProgramInfo installed = program(null, "Portable Tool", "D:\\Tools\\", "tool.exe", ProgramSource.REGISTRY);
+        registry.programs.add(installed);
+        ProgramDiscovery.Result install = discovery.discover(first.programs(), first.tokens(), p -> {
+        });
+        check(install.programs().stream().noneMatch(p -> p.getSource() == ProgramSource.SHORTCUT), "安装后快捷方式应被去掉");
+
+        // 卸载：快捷方式没有变化，不重新扫描，但应重新出现
+        registry.token = "r3";
+        registry.programs.remove(installed);
+        ProgramDiscovery.Result uninstall = discovery.discover(install.programs(), install.tokens(), p -> {
+        });
+        check(shortcuts.scans == 1, "快捷方式没有变化时不应扫描");
+        check(uninstall.rescanned().equals(Set.of(ProgramSource.REGISTRY)), "只有注册表应被报告为重新扫描");
+        check(uninstall.programs().size() == 2
+                        && uninstall.programs().stream().anyMatch(p -> p.getSource() == ProgramSource.SHORTCUT && p.getBaseName().equals("Portable Tool")),
+                "卸载后被去掉的快捷方式应重新出现");
+    }
+
+    private static void benchmarkUnchanged(int count) throws Exception {
+        List<ProgramInfo> registryPrograms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            registryPrograms.add(program(null, "Program " + i, "C:\\Program Files\\Program " + i + "\\", "program" + i + ".exe", ProgramSource.REGISTRY));
+        }
+        FakeScanner registry = new FakeScanner(ProgramSource.REGISTRY, "r1", registryPrograms.toArray(ProgramInfo[]::new));
+        FakeScanner shortcuts = new FakeScanner(ProgramSource.SHORTCUT, "s1",
+                program(null, "Portable Tool", "D:\\Tools\\", "tool.exe", ProgramSource.SHORTCUT));
+        ProgramDiscovery discovery = new ProgramDiscovery(List.of(shortcuts, registry));
+        ProgramDiscovery.Result first = discovery.discover(List.of(), Map.of(), p -> {
+        });
+
+        long start = System.nanoTime();
+        discovery.discover(first.programs(), first.tokens(), p -> {
+        });
+        long unchanged = System.nanoTime() - start;
+
+        shortcuts.token = "s2";
+        start = System.nanoTime();
+        ProgramDiscovery.Result delta = discovery.discover(first.programs(), first.tokens(), p -> {
+        });
+        long merged = System.nanoTime() - start;
+        check(delta.programs().size() == count + 1, "合并后的程序数量不正确");
+        System.out.printf("%d 个程序：没有变化 %.3f ms，只有快捷方式变化 %.3f ms%n", count, unchanged / 1e6, merged / 1e6);
+    }
+
+    /**
+     * 程序列表和变化标记都由测试直接修改的来源，记录完整扫描的次数
+     */
+    private static final class FakeScanner implements ProgramSourceScanner {
+        private final ProgramSource source;
+        private final List<ProgramInfo> programs;
+        private String token;
+        private RuntimeException failure;
+        private List<ProgramInfo> lastScanned;
+        private int scans = 0;
+
+        FakeScanner(ProgramSource source, String token, ProgramInfo... programs) {
+            this.source = source;
+            this.token = token;
+            this.programs = new ArrayList<>(List.of(programs));
+        }
+
+        @Override
+        public ProgramSource source() {
+            return source;
+        }
+
+        @Override
+        public String changeToken() {
+            return token;
+        }
+
+        @Override
+        public List<ProgramInfo> scan(Consumer<ProgramInfo> onProgram) {
+            scans++;
+            if (failure != null) {
+                throw failure;
+            }
+            programs.forEach(onProgram);
+            lastScanned = List.copyOf(programs);
+            return lastScanned;
+        }
+
+        @Override
+        public List<ProgramInfo> lastScan() {
+            return lastScanned;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramResult;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.util.List;
+
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.check;
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.program;
+
+/**
+ * 测试 {@link ProgramIndex} 的首字母缩写匹配、词首匹配和按 id 查找。
+ */
+public class ProgramIndexTest {
+
+    public static void main(String[] args) {
+        ProgramIndex index = ProgramIndex.build(List.of(
+                program("1", "Visual Studio Code", "C:\\Programs\\VS Code\\", "Code.exe", ProgramSource.REGISTRY),
+                program("2", "Visual Studio 2022", "C:\\Program Files\\Microsoft Visual Studio\\", "devenv.exe", ProgramSource.REGISTRY),
+                program("3", "Notepad++", "C:\\Program Files\\Notepad++\\", "notepad++.exe", ProgramSource.REGISTRY),
+                program("4", "Google Chrome", "C:\\Program Files\\Google\\Chrome\\", "chrome.exe", ProgramSource.REGISTRY)));
+
+        check(first(index, "vsc").equals("1"), "\"vsc\" 应首先匹配 Visual Studio Code");
+        check(first(index, "vs code").equals("1"), "\"vs code\" 应首先匹配 Visual Studio Code");
+        check(first(index, "code vs").equals("1"), "查询词的顺序不应影响缩写匹配");
+        check(ids(index, "vs").containsAll(List.of("1", "2")), "\"vs\" 应匹配两个 Visual Studio");
+        check(ids(index, "sc").isEmpty(), "只有一个查询词时缩写必须以它开头");
+        check(ids(index, "vs chrome").isEmpty(), "每个查询词都必须匹配");
+
+        check(first(index, "chrome").equals("4"), "\"chrome\" 应按词首匹配 Google Chrome");
+        check(ids(index, "stu").equals(List.of("2", "1")), "\"stu\" 应按词首匹配两个 Visual Studio，并按名称排列");
+        check(first(index, "note").equals("3"), "\"note\" 应按前缀匹配 Notepad++");
+
+        check(index.getById("3").getDisplayName().equals("Notepad++"), "应能按 id 找到程序");
+        check(index.getById("99") == null && index.getById(null) == null, "不存在的 id 应返回 null");
+        System.out.println("ProgramIndexTest 通过");
+    }
+
+    private static List<String> ids(ProgramIndex index, String query) {
+        return index.search(query, 10).stream()
+                .map(ProgramResult::getProgramInfo)
+                .map(ProgramInfo::getId)
+                .toList();
+    }
+
+    private static String first(ProgramIndex index, String query) {
+        List<String> ids = ids(index, query);
+        check(!ids.isEmpty(), "\"" + query + "\" 应有结果");
+        return ids.get(0);
+    }
+}
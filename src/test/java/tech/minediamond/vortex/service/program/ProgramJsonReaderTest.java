@@ -0,0 +1,152 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.check;
+
+/**
+ * 用保存下来的扫描脚本输出回放 {@link ProgramJsonReader}，不需要 Windows 和 PowerShell。
+ * <p>
+ * 要回放其它输出，把扫描脚本的输出保存为文件，作为第一个参数传入即可。
+ */
+public class ProgramJsonReaderTest {
+
+    // 把整个管道交给 ConvertTo-Json 时的输出，一个数组
+    private static final String ARRAY_FIXTURE = "/program-discovery/installed-programs.json";
+    // 扫描脚本实际的输出，每个程序一行
+    private static final String LINES_FIXTURE = "/program-discovery/installed-programs.ndjson";
+    private static final int CHUNK = 64;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            try (InputStream in = new FileInputStream(args[0])) {
+                int count = ProgramJsonReader.read(in, System.out::println);
+                System.out.println("共 " + count + " 个程序");
+            }
+            return;
+        }
+
+        replayFixture(ARRAY_FIXTURE);
+        replayLines();
+        singleObject();
+        System.out.println("ProgramJsonReaderTest 通过");
+    }
+
+    private static void replayLines() throws IOException {
+        byte[] json = readFixture(LINES_FIXTURE);
+        int firstLineLength = 0;
+        for (byte b : json) {
+            firstLineLength++;
+            if (b == '\n') {
+                break;
+            }
+        }
+        long consumedAtFirst = replayFixture(LINES_FIXTURE);
+        check(consumedAtFirst <= firstLineLength + CHUNK, "每行一个对象时，第一个程序应在读完第一行后立即到达，实际读取了 " + consumedAtFirst + " 字节");
+    }
+
+    /**
+     * @return 第一个程序到达时已读取的字节数
+     */
+    private static long replayFixture(String fixture) throws IOException {
+        byte[] json = readFixture(fixture);
+
+        // 每次最多读取 CHUNK 字节，模拟 PowerShell 逐步输出，第一个程序应该在读完整个输出之前到达
+        SlowInputStream in = new SlowInputStream(new ByteArrayInputStream(json), CHUNK);
+        List<ProgramInfo> programs = new ArrayList<>();
+        long[] consumedAtFirst = {-1};
+        int count = ProgramJsonReader.read(in, programInfo -> {
+            if (programs.isEmpty()) {
+                consumedAtFirst[0] = in.consumed;
+            }
+            programs.add(programInfo);
+        });
+
+        check(count == 6, "应保留 6 个程序，实际为 " + count);
+        check(consumedAtFirst[0] > 0 && consumedAtFirst[0] < json.length, "第一个程序应该在读完输出之前到达");
+
+        ProgramInfo git = find(programs, "Git");
+        check(git.getInstallLocation().equals("C:\\Program Files\\Git\\"), "安装位置应补上结尾的反斜杠");
+        check(git.getDisplayName().equals("Git"), "显示名称默认为基础名称");
+        check(find(programs, "7-Zip 23.01 (x64)").getInstallLocation().equals("C:\\Program Files\\7-Zip\\"), "已有的反斜杠不应重复");
+        check(find(programs, "Visual Studio Code").getVersion() == null, "没有版本号的程序应保留");
+        check(find(programs, "计算器").getSource() == ProgramSource.UWP, "UWP 程序应保留");
+        check(programs.stream().noneMatch(p -> p.getBaseName().startsWith("Microsoft Visual C++")), "没有程序名称的注册表程序应过滤掉");
+        check(programs.stream().noneMatch(p -> p.getBaseName().startsWith("Everything")), "安装位置为空的注册表程序应过滤掉");
+        return consumedAtFirst[0];
+    }
+
+    private static byte[] readFixture(String fixture) throws IOException {
+        try (InputStream in = ProgramJsonReaderTest.class.getResourceAsStream(fixture)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void singleObject() throws IOException {
+        // 只有一个程序时 ConvertTo-Json 不输出数组
+        String json = "{\"baseName\":\"Notepad++\",\"programName\":\"notepad++.exe\",\"installLocation\":\"C:\\\\Program Files\\\\Notepad++\",\"source\":\"REGISTRY\"}";
+        List<ProgramInfo> programs = new ArrayList<>();
+        ProgramJsonReader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), programs::add);
+        check(programs.size() == 1, "单个对象应被读取");
+        check(programs.get(0).getInstallLocation().equals("C:\\Program Files\\Notepad++\\"), "单个对象也应规范化");
+    }
+
+    private static ProgramInfo find(List<ProgramInfo> programs, String baseName) {
+        return programs.stream()
+                .filter(p -> p.getBaseName().equals(baseName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("找不到 " + baseName));
+    }
+
+    /**
+     * 每次 read 最多返回 chunk 个字节，并记录已读取的字节数
+     */
+    private static final class SlowInputStream extends FilterInputStream {
+        private final int chunk;
+        long consumed = 0;
+
+        SlowInputStream(InputStream in, int chunk) {
+            super(in);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, Math.min(len, chunk));
+            if (n > 0) {
+                consumed += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+
+/**
+ * 程序相关测试共用的断言和测试数据。
+ */
+final class ProgramTestSupport {
+
+    private ProgramTestSupport() {
+    }
+
+    /**
+     * 条件不成立时以给出的信息抛出 {@link AssertionError}
+     */
+    static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 创建一个程序，基础名称和显示名称都是 {@code name}，其余字段为默认值
+     */
+    static ProgramInfo program(String id, String name, String installLocation, String programName, ProgramSource source) {
+        ProgramInfo programInfo = new ProgramInfo();
+        programInfo.setId(id);
+        programInfo.setBaseName(name);
+        programInfo.setDisplayName(name);
+        programInfo.setInstallLocation(installLocation);
+        programInfo.setProgramName(programName);
+        programInfo.setSource(source);
+        return programInfo;
+    }
+
+    /**
+     * 创建一个只有 id 和名称的程序
+     */
+    static ProgramInfo program(String id, String name) {
+        return program(id, name, null, null, null);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.program;
+
+import tech.minediamond.vortex.model.program.ProgramInfo;
+import tech.minediamond.vortex.model.program.ProgramSource;
+import tech.minediamond.vortex.service.database.SqliteStore;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static tech.minediamond.vortex.service.program.ProgramTestSupport.check;
+
+/**
+ * 用保存下来的快捷方式测试 {@link ShortcutScanner} 的解析、过滤和缓存，不需要 Windows。
+ * <p>
+ * {@code shortcuts} 目录下的快捷方式指向 Windows 路径，其中包括一个帮助文档、一个卸载程序、桌面上一个重复的快捷方式和一个损坏的文件。
+ */
+public class ShortcutScannerTest {
+
+    private static final String FIXTURE = "/shortcuts";
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("vortex-shortcuts");
+        try {
+            copyFixture(dir);
+            SqliteStore store = new SqliteStore("jdbc:sqlite:" + dir.resolve("test.db"));
+            try {
+                scan(store, dir);
+            } finally {
+                store.close();
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+        System.out.println("ShortcutScannerTest 通过");
+    }
+
+    private static void scan(SqliteStore store, Path dir) throws Exception {
+        ShortcutScanner scanner = new ShortcutScanner(store);
+        List<Path> roots = List.of(dir.resolve("start-menu"), dir.resolve("desktop"), dir.resolve("missing"));
+
+        List<ProgramInfo> streamed = new ArrayList<>();
+        ShortcutScanner.ScanResult first = scanner.scan(roots, streamed::add);
+        check(first.parsed() == 8 && first.reused() == 0, "第一次扫描应解析全部 8 个快捷方式，实际为 " + first);
+        check(first.programs().size() == 4, "应得到 4 个程序，实际为 " + first.programs().size());
+        check(streamed.equals(first.programs()), "每个程序都应通过回调传出");
+
+        ProgramInfo code = find(first.programs(), "Visual Studio Code");
+        check(code.getProgramName().equals("Code.exe"), "程序名称应为目标的文件名");
+        check(code.getInstallLocation().equals("C:\\Users\\user\\AppData\\Local\\Programs\\Microsoft VS Code\\"), "安装位置应为目标所在的目录");
+        check(code.getSource() == ProgramSource.SHORTCUT, "来源应为快捷方式");
+        check(code.getPath().startsWith(dir.resolve("start-menu")), "重复的快捷方式应保留开始菜单中的一个");
+        find(first.programs(), "微信");
+        check(first.programs().stream().noneMatch(p -> p.getBaseName().contains("卸载")), "卸载程序应过滤掉");
+        check(first.programs().stream().noneMatch(p -> p.getBaseName().equals("7-Zip Help")), "不指向可执行文件的快捷方式应过滤掉");
+
+        ShortcutScanner.ScanResult second = scanner.scan(roots, p -> {
+        });
+        check(second.parsed() == 0 && second.reused() == 8, "没有变化时应全部使用缓存，实际为 " + second);
+        check(second.programs().equals(first.programs()), "使用缓存时结果应与第一次相同");
+        check(scanner.cachedPrograms(roots).equals(first.programs()), "不访问文件系统时应能从缓存得到上次扫描的程序");
+
+        String token = ShortcutScanner.linkToken(roots);
+        check(token.equals(ShortcutScanner.linkToken(roots)), "没有变化时变化标记应保持不变");
+
+        // 只修改快捷方式本身不会改变所在目录的修改时间，变化标记仍应改变
+        Path notepad = dir.resolve("start-menu").resolve("Notepad++.lnk");
+        FileTime startMenuTime = Files.getLastModifiedTime(dir.resolve("start-menu"));
+        Files.setLastModifiedTime(notepad, FileTime.fromMillis(Files.getLastModifiedTime(notepad).toMillis() + 60_000));
+        check(Files.getLastModifiedTime(dir.resolve("start-menu")).equals(startMenuTime), "修改快捷方式不应改变目录的修改时间");
+        check(!token.equals(ShortcutScanner.linkToken(roots)), "修改快捷方式后变化标记应改变");
+        ShortcutScanner.ScanResult touched = scanner.scan(roots, p -> {
+        });
+        check(touched.parsed() == 1 && touched.reused() == 7, "只有修改过的快捷方式应重新解析，实际为 " + touched);
+
+        Files.delete(dir.resolve("start-menu").resolve("微信").resolve("微信.lnk"));
+        ShortcutScanner.ScanResult removed = scanner.scan(roots, p -> {
+        });
+        check(removed.programs().size() == 3, "删除的快捷方式不应再出现");
+        check(scanner.cachedPrograms(roots).equals(removed.programs()), "缓存应与最近一次扫描的结果一致");
+        int cached = store.read(conn -> {
+            try (ResultSet rs = store.prepare("SELECT COUNT(*) FROM shortcut").executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        });
+        check(cached == 7, "删除的快捷方式应从缓存中移除，缓存中还有 " + cached + " 条");
+    }
+
+    private static void copyFixture(Path dir) throws IOException, URISyntaxException {
+        Path source = Path.of(ShortcutScannerTest.class.getResource(FIXTURE).toURI());
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path copy = dir.resolve(source.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(file, copy);
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static ProgramInfo find(List<ProgramInfo> programs, String baseName) {
+        return programs.stream()
+                .filter(p -> p.getBaseName().equals(baseName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("找不到 " + baseName));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Vortex
+ * Copyright (C) 2025 Mine-diamond
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package tech.minediamond.vortex.service.search;
+
+import tech.minediamond.vortex.model.fileData.FileData;
+import tech.minediamond.vortex.model.search.EverythingQuery;
+import tech.minediamond.vortex.model.search.SearchMode;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 用 {@link InMemorySearchBackend} 测试 {@link PrefixRefiner}：逐字输入时，本地过滤出的结果必须与重新向后端查询的结果完全相同。
+ */
+public class PrefixRefinerTest {
+
+    private static final int CORPUS_SIZE = 50_000;
+
+    // 每组模拟一次逐字输入，包括在已有的词后面加空格继续输入新词
+    private static final String[][] TYPING = {
+            {"rep", "repo", "report", "report ", "report b", "report bu", "report budget"},
+            {"data", "data b", "data ba", "data back"},
+            {"save", "save_", "save_1", "save_12"},
+            {"zzz", "zzzq"},
+    };
+
+    public static void main(String[] args) {
+        InMemorySearchBackend backend = new InMemorySearchBackend(CORPUS_SIZE, InMemorySearchBackend.DEFAULT_SEED);
+        int refined = 0;
+        for (String[] typing : TYPING) {
+            PrefixRefiner refiner = new PrefixRefiner();
+            for (String keyword : typing) {
+                EverythingQuery query = new EverythingQuery(keyword, Optional.of(SearchMode.FILES_ONLY), Optional.empty());
+                List<FileData> fresh = backend.queryPage(query, 0, CORPUS_SIZE, CancellationToken.NONE).results();
+                Optional<List<FileData>> local = refiner.refine(query);
+                if (local.isPresent()) {
+                    refined++;
+                    check(local.get().equals(fresh), "'" + keyword + "' 本地过滤得到 " + local.get().size()
+                            + " 条结果，重新查询得到 " + fresh.size() + " 条");
+                }
+                refiner.recordComplete(query, fresh);
+            }
+        }
+        check(refined >= 10, "大部分变长的查询应在本地过滤，实际只有 " + refined + " 个");
+
+        // 搜索模式不同时不能使用记录的结果
+        PrefixRefiner refiner = new PrefixRefiner();
+        EverythingQuery files = new EverythingQuery("report", Optional.of(SearchMode.FILES_ONLY), Optional.empty());
+        refiner.recordComplete(files, backend.queryPage(files, 0, CORPUS_SIZE, CancellationToken.NONE).results());
+        check(refiner.refine(new EverythingQuery("report b", Optional.of(SearchMode.ALL), Optional.empty())).isEmpty(),
+                "搜索模式不同时应重新查询");
+        System.out.println("PrefixRefinerTest 通过，本地过滤 " + refined + " 次");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}